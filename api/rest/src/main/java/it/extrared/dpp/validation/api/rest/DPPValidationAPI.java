@@ -25,13 +25,18 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import java.io.IOException;
+import java.io.InputStream;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.jboss.resteasy.reactive.RestHeader;
 import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.RestQuery;
 
-/** REST controller for methods allowing to validate an input DPP. */
+/**
+ * REST controller for methods allowing to validate an input DPP. The DPP is read as a stream and
+ * parsed straight from it, without being copied into an intermediate array or string.
+ */
 @Path("/validate/v1")
 public interface DPPValidationAPI {
 
@@ -40,9 +45,23 @@ public interface DPPValidationAPI {
                     "Validates a DPP autodetecting the appropriate validation resource to apply to it.",
             description =
                     "Validates a DPP automatically finding the best matching validation resource in the service repository to validate it.")
+    @Parameter(
+            name = "failFast",
+            in = ParameterIn.QUERY,
+            description =
+                    "Stops at the first violation and returns the outcome only, without the invalid properties")
+    @Parameter(
+            name = "maxViolations",
+            in = ParameterIn.QUERY,
+            description =
+                    "The maximum number of violations to report, bounded by the configured one. The validation of a JSON-LD stops once reached, a plain JSON is fully validated and its report truncated")
     @POST
     @Consumes(value = {APPLICATION_JSON, TEXT_JSON, APPLICATION_LD_JSON})
-    Uni<ValidationReport> validate(byte[] dpp, @RestHeader("Content-Type") String contentType)
+    Uni<ValidationReport> validate(
+            InputStream dpp,
+            @RestHeader("Content-Type") String contentType,
+            @RestQuery boolean failFast,
+            @RestQuery Integer maxViolations)
             throws IOException;
 
     @Operation(
@@ -60,13 +79,25 @@ public interface DPPValidationAPI {
             in = ParameterIn.PATH,
             description =
                     "The version of the validation resource to be retrieved to validate the input")
+    @Parameter(
+            name = "failFast",
+            in = ParameterIn.QUERY,
+            description =
+                    "Stops at the first violation and returns the outcome only, without the invalid properties")
+    @Parameter(
+            name = "maxViolations",
+            in = ParameterIn.QUERY,
+            description =
+                    "The maximum number of violations to report, bounded by the configured one. The validation of a JSON-LD stops once reached, a plain JSON is fully validated and its report truncated")
     @POST
     @Path("/{resourceName}/{resourceVersion}")
     @Consumes(value = {APPLICATION_JSON, TEXT_JSON, APPLICATION_LD_JSON})
     Uni<ValidationReport> validateByNameAndVersion(
             @RestPath String resourceName,
             @RestPath String resourceVersion,
-            byte[] dpp,
-            @RestHeader("Content-Type") String contentType)
+            InputStream dpp,
+            @RestHeader("Content-Type") String contentType,
+            @RestQuery boolean failFast,
+            @RestQuery Integer maxViolations)
             throws IOException;
 }
@@ -16,31 +16,65 @@
 package it.extrared.dpp.validation.api.rest;
 
 import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.ValidationMetrics;
+import it.extared.dpp.validator.ValidationType;
 import it.extared.dpp.validator.ValidatorService;
+import it.extared.dpp.validator.dto.Payload;
+import it.extared.dpp.validator.dto.ValidationOptions;
 import it.extared.dpp.validator.dto.ValidationReport;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.io.IOException;
+import java.io.InputStream;
 
 @ApplicationScoped
 public class DPPValidationAPIImpl implements DPPValidationAPI {
 
     @Inject ValidatorService validatorService;
 
+    @Inject DppValidatorConfig config;
+
+    @Inject ValidationMetrics metrics;
+
     @Override
-    public Uni<ValidationReport> validate(byte[] dpp, String contentType) throws IOException {
+    public Uni<ValidationReport> validate(
+            InputStream dpp, String contentType, boolean failFast, Integer maxViolations)
+            throws IOException {
+        Payload payload = asPayload(dpp);
         return validatorService.validate(
-                dpp, PayloadType.fromContentType(dpp, contentType).asValidationType());
+                payload,
+                validationType(payload, contentType),
+                new ValidationOptions(failFast, maxViolations));
     }
 
     @Override
     public Uni<ValidationReport> validateByNameAndVersion(
-            String resourceName, String resourceVersion, byte[] dpp, String contentType)
+            String resourceName,
+            String resourceVersion,
+            InputStream dpp,
+            String contentType,
+            boolean failFast,
+            Integer maxViolations)
             throws IOException {
+        Payload payload = asPayload(dpp);
         return validatorService.validate(
                 resourceName,
                 resourceVersion,
-                dpp,
-                PayloadType.fromContentType(dpp, contentType).asValidationType());
+                payload,
+                validationType(payload, contentType),
+                new ValidationOptions(failFast, maxViolations));
+    }
+
+    /** Detects the validation type of the payload, timing the sniffing of its content. */
+    private ValidationType validationType(Payload payload, String contentType) {
+        long start = System.nanoTime();
+        ValidationType type = PayloadType.fromContentType(payload, contentType).asValidationType();
+        metrics.record(ValidationMetrics.Stage.SNIFF, type, null, start);
+        return type;
+    }
+
+    private Payload asPayload(InputStream dpp) throws IOException {
+        return Payload.of(dpp, config.maxPayloadSize().asLongValue());
     }
 }
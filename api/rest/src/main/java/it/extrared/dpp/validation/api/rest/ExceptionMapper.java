@@ -17,6 +17,10 @@ package it.extrared.dpp.validation.api.rest;
 
 import it.extared.dpp.validator.exceptions.InvalidOpException;
 import it.extared.dpp.validator.exceptions.NotFoundException;
+import it.extared.dpp.validator.exceptions.PayloadTooLargeException;
+import it.extared.dpp.validator.exceptions.ServiceOverloadedException;
+import it.extared.dpp.validator.exceptions.ValidationTimeoutException;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
 import org.jboss.resteasy.reactive.RestResponse;
 import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
@@ -33,4 +37,25 @@ public class ExceptionMapper {
     public RestResponse<String> mapException(InvalidOpException invalidOpException) {
         return RestResponse.status(Response.Status.BAD_REQUEST, invalidOpException.getMessage());
     }
+
+    @ServerExceptionMapper
+    public RestResponse<String> mapException(ServiceOverloadedException overloadedException) {
+        return RestResponse.ResponseBuilder.create(
+                        Response.Status.SERVICE_UNAVAILABLE, overloadedException.getMessage())
+                .header(
+                        HttpHeaders.RETRY_AFTER,
+                        Math.max(1, overloadedException.getRetryAfter().toSeconds()))
+                .build();
+    }
+
+    @ServerExceptionMapper
+    public RestResponse<String> mapException(ValidationTimeoutException timeoutException) {
+        return RestResponse.status(Response.Status.GATEWAY_TIMEOUT, timeoutException.getMessage());
+    }
+
+    @ServerExceptionMapper
+    public RestResponse<String> mapException(PayloadTooLargeException tooLargeException) {
+        return RestResponse.status(
+                Response.Status.REQUEST_ENTITY_TOO_LARGE, tooLargeException.getMessage());
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validation.api.rest;
+
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.exceptions.PayloadTooLargeException;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+
+/**
+ * Rejects a validation request declaring a body larger than the maximum payload size before the
+ * body is read. Bodies sent without a length are bounded while being read into the {@link
+ * it.extared.dpp.validator.dto.Payload}, failing as soon as the limit is passed.
+ */
+public class PayloadSizeFilter {
+
+    @Inject DppValidatorConfig config;
+
+    @ServerRequestFilter
+    public void limitPayloadSize(ContainerRequestContext context, ResourceInfo resourceInfo) {
+        if (!DPPValidationAPI.class.isAssignableFrom(resourceInfo.getResourceClass())) return;
+        long maxSize = config.maxPayloadSize().asLongValue();
+        if (context.getLength() > maxSize) throw new PayloadTooLargeException(maxSize);
+    }
+}
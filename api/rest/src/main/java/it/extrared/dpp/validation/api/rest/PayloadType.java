@@ -19,12 +19,9 @@ import static it.extared.dpp.validator.utils.JsonLdUtils.APPLICATION_LD_JSON;
 import static it.extared.dpp.validator.utils.JsonUtils.APPLICATION_JSON;
 import static it.extared.dpp.validator.utils.JsonUtils.TEXT_JSON;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.dto.Payload;
 import it.extared.dpp.validator.exceptions.InvalidOpException;
-import it.extared.dpp.validator.utils.JsonLdUtils;
-import jakarta.enterprise.inject.spi.CDI;
 import java.io.*;
 import java.util.List;
 import java.util.Objects;
@@ -70,7 +67,12 @@ public enum PayloadType {
         else return ValidationType.RDF;
     }
 
-    public static PayloadType fromContentType(byte[] content, String contentType) {
+    /**
+     * @param content the payload.
+     * @param contentType the declared content type.
+     * @return the payload type.
+     */
+    public static PayloadType fromContentType(Payload content, String contentType) {
         // someone might send a JSON-LD using a JSON mime type.
         // Double check if this is the case
         String actualContentType = actualContentType(content, contentType);
@@ -87,15 +89,13 @@ public enum PayloadType {
                                 "Content type %s is not supported".formatted(contentType)));
     }
 
-    private static String actualContentType(byte[] dpp, String contentType) {
+    private static String actualContentType(Payload dpp, String contentType) {
         try {
-            if (dpp == null || dpp.length == 0)
+            if (dpp == null || dpp.isEmpty())
                 throw new InvalidOpException("Request payload is null or empty");
             if (!contentType.contains(APPLICATION_JSON) && !contentType.contains(TEXT_JSON))
                 return contentType;
-            ObjectMapper objectMapper = CDI.current().select(ObjectMapper.class).get();
-            JsonNode payload = objectMapper.readTree(dpp);
-            if (JsonLdUtils.isJsonLd(payload)) return APPLICATION_LD_JSON;
+            if (dpp.isJsonLd()) return APPLICATION_LD_JSON;
             else return APPLICATION_JSON;
         } catch (IOException e) {
             throw new RuntimeException(
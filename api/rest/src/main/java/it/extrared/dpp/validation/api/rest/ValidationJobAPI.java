@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validation.api.rest;
+
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.dto.BulkValidationItem;
+import it.extared.dpp.validator.dto.PagedResult;
+import it.extared.dpp.validator.jobs.dto.ValidationJob;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.jboss.resteasy.reactive.RestHeader;
+import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.RestQuery;
+import org.jboss.resteasy.reactive.RestResponse;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
+
+@Path("/validate/v1/jobs")
+public interface ValidationJobAPI {
+
+    @Operation(
+            summary = "Submits a batch of DPPs to be validated in background.",
+            description =
+                    "Stores a batch of DPPs, as newline delimited JSON or as a ZIP archive with a DPP per file, and returns the job validating them in background.")
+    @Parameter(
+            name = "notBefore",
+            in = ParameterIn.QUERY,
+            description = "The ISO-8601 date time before which the job is not run")
+    @POST
+    @Blocking
+    @Consumes(value = {RestMediaType.APPLICATION_NDJSON, "application/zip"})
+    @Produces(MediaType.APPLICATION_JSON)
+    Uni<RestResponse<ValidationJob>> submit(
+            InputStream dpps,
+            @RestHeader("Content-Type") String contentType,
+            @RestQuery OffsetDateTime notBefore);
+
+    @Operation(description = "Retrieve a validation job and its progress")
+    @GET
+    @Path("/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    Uni<ValidationJob> getJob(@RestPath Long id);
+
+    @Operation(
+            description =
+                    "Stream the progress of a validation job as server-sent events until completed or failed")
+    @GET
+    @Path("/{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    Multi<ValidationJob> watchJob(@RestPath Long id);
+
+    @Operation(description = "Retrieve a page of the results of a validation job, in input order")
+    @GET
+    @Path("/{id}/results")
+    @Produces(MediaType.APPLICATION_JSON)
+    Uni<PagedResult<BulkValidationItem>> getResults(
+            @RestPath Long id, @RestQuery Integer offset, @RestQuery Integer limit);
+}
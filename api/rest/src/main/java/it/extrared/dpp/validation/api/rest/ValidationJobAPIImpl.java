@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validation.api.rest;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.dto.BulkValidationItem;
+import it.extared.dpp.validator.dto.PagedResult;
+import it.extared.dpp.validator.dto.SearchDto;
+import it.extared.dpp.validator.jobs.JobFormat;
+import it.extared.dpp.validator.jobs.ValidationJobService;
+import it.extared.dpp.validator.jobs.dto.ValidationJob;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import org.jboss.resteasy.reactive.RestResponse;
+
+@ApplicationScoped
+public class ValidationJobAPIImpl implements ValidationJobAPI {
+
+    @Inject ValidationJobService jobService;
+
+    @Override
+    public Uni<RestResponse<ValidationJob>> submit(
+            InputStream dpps, String contentType, OffsetDateTime notBefore) {
+        return jobService
+                .submit(dpps, JobFormat.fromContentType(contentType), notBefore)
+                .map(
+                        job ->
+                                RestResponse.ResponseBuilder.create(Response.Status.ACCEPTED, job)
+                                        .location(URI.create("/validate/v1/jobs/" + job.getId()))
+                                        .build());
+    }
+
+    @Override
+    public Uni<ValidationJob> getJob(Long id) {
+        return jobService.getJob(id);
+    }
+
+    @Override
+    public Multi<ValidationJob> watchJob(Long id) {
+        return jobService.watch(id);
+    }
+
+    @Override
+    public Uni<PagedResult<BulkValidationItem>> getResults(Long id, Integer offset, Integer limit) {
+        // same paging defaults of the resource searches
+        SearchDto paging = SearchDto.builder().withOffset(offset).withLimit(limit).build();
+        return jobService.getResults(id, paging.getOffset(), paging.getLimit());
+    }
+}
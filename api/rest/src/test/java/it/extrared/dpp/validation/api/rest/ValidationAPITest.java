@@ -18,11 +18,16 @@ package it.extrared.dpp.validation.api.rest;
 import static io.restassured.RestAssured.given;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.dto.BulkValidationItem;
 import it.extared.dpp.validator.dto.ValidationReport;
 import it.extared.dpp.validator.utils.CommonUtils;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
@@ -149,4 +154,39 @@ public class ValidationAPITest {
                 "Validation performed using template found by NAME_AND_VERSION",
                 report.getMessage());
     }
+
+    @Test
+    public void testBulkValidation() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String ndjson =
+                String.join(
+                        "\n",
+                        objectMapper
+                                .readTree(CommonUtils.readJsonBytes("valid-vehicle.json"))
+                                .toString(),
+                        objectMapper
+                                .readTree(CommonUtils.readJsonLdString("valid-type-match-ld.json"))
+                                .toString(),
+                        "not a json");
+        String body =
+                given().when()
+                        .contentType("application/x-ndjson")
+                        .body(ndjson.getBytes())
+                        .post("/validate/v1/bulk")
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .asString();
+        Map<Long, ValidationReport> reports = new HashMap<>();
+        for (String line : body.split("\n")) {
+            BulkValidationItem item = objectMapper.readValue(line, BulkValidationItem.class);
+            reports.put(item.getLine(), item.getReport());
+        }
+        assertEquals(3, reports.size());
+        assertTrue(reports.get(1L).isValid());
+        assertEquals("vehicle_dpp - 1.0.0", reports.get(1L).getValidatedWith());
+        assertTrue(reports.get(2L).isValid());
+        assertEquals("Vehicle-DPP-AllTargets - 1.0.0", reports.get(2L).getValidatedWith());
+        assertFalse(reports.get(3L).isValid());
+    }
 }
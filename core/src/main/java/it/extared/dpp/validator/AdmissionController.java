@@ -0,0 +1,257 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import it.extared.dpp.validator.dto.ValidationReport;
+import it.extared.dpp.validator.exceptions.ServiceOverloadedException;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jboss.logging.Logger;
+
+/**
+ * Limits the validations in flight per {@link ValidationType}. A validation beyond the limit waits
+ * in a bounded queue and is rejected with a {@link ServiceOverloadedException} when the queue is
+ * full or when it is not admitted within the queue timeout. The in flight and queued validations,
+ * the rejections and the wait time are published to the meter registry tagged by validation type.
+ */
+@ApplicationScoped
+public class AdmissionController {
+
+    private static final Logger LOGGER = Logger.getLogger(AdmissionController.class);
+
+    @Inject DppValidatorConfig config;
+
+    @Inject MeterRegistry registry;
+
+    private final Map<ValidationType, Limiter> limiters = new EnumMap<>(ValidationType.class);
+
+    @PostConstruct
+    void init() {
+        DppValidatorConfig.Admission admission = config.admission();
+        limiters.put(
+                ValidationType.PLAIN_JSON,
+                new Limiter(ValidationType.PLAIN_JSON, admission.plainJson()));
+        limiters.put(ValidationType.RDF, new Limiter(ValidationType.RDF, admission.rdf()));
+    }
+
+    /**
+     * Runs the validation once admitted.
+     *
+     * @param type the type of the validation.
+     * @param validation supplies the validation to run.
+     * @return the validation result, or a failure with a {@link ServiceOverloadedException} if the
+     *     validation was not admitted.
+     */
+    public Uni<ValidationReport> admit(
+            ValidationType type, Callable<Uni<ValidationReport>> validation) {
+        if (!config.admission().enabled()) return Uni.createFrom().deferred(() -> call(validation));
+        Limiter limiter = limiters.get(type);
+        return limiter.acquire()
+                .flatMap(v -> call(validation).onTermination().invoke(limiter::release));
+    }
+
+    /**
+     * @param type the validation type.
+     * @return the number of validations of the type in flight.
+     */
+    public int inFlight(ValidationType type) {
+        return limiters.get(type).inFlight();
+    }
+
+    /**
+     * @param type the validation type.
+     * @return the number of validations of the type waiting to be admitted.
+     */
+    public int queued(ValidationType type) {
+        return limiters.get(type).queued();
+    }
+
+    private static Uni<ValidationReport> call(Callable<Uni<ValidationReport>> validation) {
+        try {
+            return validation.call();
+        } catch (Exception e) {
+            return Uni.createFrom().failure(e);
+        }
+    }
+
+    private ServiceOverloadedException overloaded(ValidationType type, String reason) {
+        return new ServiceOverloadedException(
+                "Too many %s validations in progress, %s".formatted(type, reason),
+                config.admission().retryAfter());
+    }
+
+    /** Permits of a validation type, handed to the waiters in arrival order. */
+    private class Limiter {
+
+        private final ValidationType type;
+
+        private final DppValidatorConfig.AdmissionLimits limits;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+        private int inFlight;
+
+        private final Timer waitTimer;
+
+        private final Counter queueFull;
+
+        private final Counter timedOut;
+
+        Limiter(ValidationType type, DppValidatorConfig.AdmissionLimits limits) {
+            this.type = type;
+            this.limits = limits;
+            String tag = type.name();
+            Gauge.builder("validation.admission.in.flight", this, Limiter::inFlight)
+                    .tag("type", tag)
+                    .register(registry);
+            Gauge.builder("validation.admission.queued", this, Limiter::queued)
+                    .tag("type", tag)
+                    .register(registry);
+            waitTimer =
+                    Timer.builder("validation.admission.wait").tag("type", tag).register(registry);
+            queueFull =
+                    Counter.builder("validation.admission.rejected")
+                            .tag("type", tag)
+                            .tag("reason", "queue_full")
+                            .register(registry);
+            timedOut =
+                    Counter.builder("validation.admission.rejected")
+                            .tag("type", tag)
+                            .tag("reason", "timeout")
+                            .register(registry);
+        }
+
+        Uni<Void> acquire() {
+            return Uni.createFrom().deferred(this::tryAcquire);
+        }
+
+        private Uni<Void> tryAcquire() {
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            lock.lock();
+            try {
+                if (inFlight < limits.maxConcurrent()) {
+                    inFlight++;
+                    waitTimer.record(0, TimeUnit.NANOSECONDS);
+                    return Uni.createFrom().voidItem();
+                }
+                if (waiters.size() >= limits.queueSize()) {
+                    queueFull.increment();
+                    return Uni.createFrom().failure(overloaded(type, "the queue is full"));
+                }
+                waiters.add(waiter);
+            } finally {
+                lock.unlock();
+            }
+            debug(LOGGER, () -> "%s validation queued for admission".formatted(type));
+            long start = System.nanoTime();
+            Context context = Vertx.currentContext();
+            Uni<Void> admitted =
+                    Uni.createFrom()
+                            .completionStage(
+                                    waiter.orTimeout(
+                                            limits.queueTimeout().toMillis(),
+                                            TimeUnit.MILLISECONDS))
+                            .onItemOrFailure()
+                            .invoke(
+                                    (v, e) ->
+                                            waitTimer.record(
+                                                    System.nanoTime() - start,
+                                                    TimeUnit.NANOSECONDS))
+                            .onFailure(TimeoutException.class)
+                            .transform(e -> timedOut(waiter))
+                            .onCancellation()
+                            .invoke(
+                                    () -> {
+                                        // already admitted: gives the permit back
+                                        if (!waiter.cancel(false)
+                                                && !waiter.isCompletedExceptionally()) release();
+                                        else remove(waiter);
+                                    });
+            // the permit is handed over by the thread releasing it
+            if (context != null)
+                admitted = admitted.emitOn(r -> context.runOnContext(v -> r.run()));
+            return admitted;
+        }
+
+        private Throwable timedOut(CompletableFuture<Void> waiter) {
+            remove(waiter);
+            timedOut.increment();
+            return overloaded(type, "not admitted within %s".formatted(limits.queueTimeout()));
+        }
+
+        void release() {
+            lock.lock();
+            try {
+                CompletableFuture<Void> waiter;
+                while ((waiter = waiters.poll()) != null) {
+                    // the permit passes to the next waiter still waiting
+                    if (waiter.complete(null)) return;
+                }
+                inFlight--;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(CompletableFuture<Void> waiter) {
+            lock.lock();
+            try {
+                waiters.remove(waiter);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int inFlight() {
+            lock.lock();
+            try {
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int queued() {
+            lock.lock();
+            try {
+                return waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
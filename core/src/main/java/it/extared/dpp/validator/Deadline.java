@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator;
+
+import it.extared.dpp.validator.exceptions.ValidationTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * The deadline of a validation. A stage run under the deadline makes it visible to the code it
+ * calls on the same thread, that cancels the stage cooperatively by calling {@link #checkpoint()}
+ * in its loops (e.g. while matching a regular expression or iterating an RDF graph).
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    // the clock is read once every CHECK_MASK + 1 checkpoints
+    private static final int CHECK_MASK = 0xFF;
+
+    private final Duration timeout;
+
+    private final long expiresAt;
+
+    private String stage;
+
+    private int checkpoints;
+
+    private Deadline(Duration timeout, long startNanos) {
+        this.timeout = timeout;
+        this.expiresAt = startNanos + timeout.toNanos();
+    }
+
+    /**
+     * @param timeout the timeout of the validation.
+     * @param startNanos the {@link System#nanoTime()} at which the validation started.
+     * @return the deadline of the validation.
+     */
+    public static Deadline of(Duration timeout, long startNanos) {
+        return new Deadline(timeout, startNanos);
+    }
+
+    /**
+     * @return the time left before the deadline, negative if passed.
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(expiresAt - System.nanoTime());
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Runs a stage under the deadline.
+     *
+     * @param stage the name of the stage, reported when timing out.
+     * @param task the stage.
+     * @return the stage result.
+     * @param <T> the type of the result.
+     * @throws ValidationTimeoutException if the deadline passed before or while running the stage.
+     * @throws Exception if the stage fails.
+     */
+    public <T> T run(String stage, Callable<T> task) throws Exception {
+        if (isExpired()) throw new ValidationTimeoutException(stage, timeout);
+        Deadline previous = CURRENT.get();
+        this.stage = stage;
+        CURRENT.set(this);
+        try {
+            return task.call();
+        } finally {
+            if (previous != null) CURRENT.set(previous);
+            else CURRENT.remove();
+        }
+    }
+
+    /**
+     * Fails the stage running on the current thread if its deadline passed. Cheap enough to be
+     * called in tight loops.
+     *
+     * @throws ValidationTimeoutException if the deadline passed.
+     */
+    public static void checkpoint() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && (++deadline.checkpoints & CHECK_MASK) == 0 && deadline.isExpired())
+            throw new ValidationTimeoutException(deadline.stage, deadline.timeout);
+    }
+
+    private boolean isExpired() {
+        return System.nanoTime() - expiresAt >= 0;
+    }
+}
@@ -15,12 +15,16 @@
  */
 package it.extared.dpp.validator;
 
+import io.quarkus.runtime.configuration.MemorySize;
 import io.quarkus.runtime.util.StringUtil;
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithConverter;
 import io.smallrye.config.WithDefault;
 import it.extared.dpp.validator.security.Roles;
 import it.extared.dpp.validator.utils.MultiMap;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
 import java.util.stream.Stream;
 import org.eclipse.microprofile.config.spi.Converter;
 
@@ -36,6 +40,382 @@ public interface DppValidatorConfig {
     @WithDefault("admin:admin,eo:eo,eu:eu")
     MultiMap<String, String> rolesMappings();
 
+    /**
+     * @return the maximum duration of a validation, unless overridden by the validation resource.
+     */
+    @WithDefault("30s")
+    Duration validationTimeout();
+
+    /**
+     * @return the maximum size of a payload to validate.
+     */
+    @WithDefault("10M")
+    MemorySize maxPayloadSize();
+
+    /**
+     * @return the maximum number of violations collected in a validation report.
+     */
+    @WithDefault("1000")
+    int maxViolations();
+
+    /**
+     * @return the configuration of the bulk validations.
+     */
+    Bulk bulk();
+
+    interface Bulk {
+
+        /**
+         * @return the maximum number of items of a bulk validation validated at the same time.
+         */
+        @WithDefault("8")
+        int concurrency();
+    }
+
+    /**
+     * @return the configuration of the asynchronous validation jobs.
+     */
+    Jobs jobs();
+
+    interface Jobs {
+
+        /**
+         * @return true if this node runs the submitted validation jobs.
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * @return the maximum number of jobs run by this node at the same time.
+         */
+        @WithDefault("1")
+        int workers();
+
+        /**
+         * @return the maximum number of items of a job validated at the same time.
+         */
+        @WithDefault("4")
+        int concurrency();
+
+        /**
+         * @return the number of items stored, validated and whose results are stored at once.
+         */
+        @WithDefault("500")
+        int batchSize();
+
+        /**
+         * @return the interval at which the pending jobs are polled.
+         */
+        @WithDefault("5s")
+        Duration pollInterval();
+
+        /**
+         * @return the time after which a running job whose worker sent no heartbeat, e.g. because
+         *     its node died, is resumed by another worker.
+         */
+        @WithDefault("5m")
+        Duration staleAfter();
+
+        /**
+         * @return the interval at which the workers refresh the heartbeat of their running jobs,
+         *     well below {@link #staleAfter()}.
+         */
+        @WithDefault("30s")
+        Duration heartbeatInterval();
+
+        /**
+         * @return the time after which a job still receiving its items, without receiving any, e.g.
+         *     because its upload was interrupted, is marked failed and its items deleted.
+         */
+        @WithDefault("1h")
+        Duration receiveTimeout();
+
+        /**
+         * @return the interval at which the progress of a job is streamed to its watchers.
+         */
+        @WithDefault("2s")
+        Duration progressInterval();
+    }
+
+    /**
+     * @return the configuration of the in-memory caches of validation resources.
+     */
+    Caches cache();
+
+    /**
+     * @return the configuration of the matching of inputs against the stored resources.
+     */
+    Matching matching();
+
+    /**
+     * @return the configuration of the loading of the remote JSON-LD contexts.
+     */
+    JsonLdContexts jsonldContexts();
+
+    interface Matching {
+
+        /**
+         * @return the engine used to find the best matching resource of an input.
+         */
+        @WithDefault("database")
+        MatchingEngine engine();
+
+        /**
+         * @return true if the schema variants are first resolved by the discriminator values of the
+         *     input, scoring by similarity only when no discriminator matches.
+         */
+        @WithDefault("true")
+        boolean discriminatorEnabled();
+
+        /**
+         * @return the configuration of the MinHash/LSH candidate pruning of the database engine.
+         */
+        Lsh lsh();
+    }
+
+    interface Lsh {
+
+        /**
+         * @return true if only the schemas sharing at least one LSH band with the input are scored
+         *     by the database engine.
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * @return the number of MinHash slots per band, a divisor of 128. Fewer rows per band mean
+         *     more bands, higher recall of low similarity schemas and more candidates to score.
+         */
+        @WithDefault("2")
+        int rowsPerBand();
+    }
+
+    /**
+     * @return the configuration of the synchronization among the nodes of the cluster.
+     */
+    Cluster cluster();
+
+    interface Cluster {
+
+        /**
+         * @return true if changes to validation resources are notified to and received from the
+         *     other nodes through the datastore.
+         */
+        @WithDefault("true")
+        boolean notificationsEnabled();
+
+        /**
+         * @return the delay before reconnecting the notifications listener when the connection is
+         *     lost.
+         */
+        @WithDefault("1s")
+        Duration reconnectDelay();
+    }
+
+    interface JsonLdContexts {
+
+        /**
+         * @return the maximum number of contexts kept in memory.
+         */
+        @WithDefault("256")
+        int maximumSize();
+
+        /**
+         * @return the duration after which a fetched context is revalidated against its origin.
+         */
+        @WithDefault("24h")
+        Duration ttl();
+
+        /**
+         * @return optional directory of contexts served without fetching them, laid out by URL host
+         *     and path (e.g. {dir}/example.org/contexts/dpp.jsonld).
+         */
+        Optional<Path> seedDirectory();
+
+        /**
+         * @return optional directory where fetched contexts are persisted, with the same layout of
+         *     the seed directory, to survive restarts and origin outages.
+         */
+        Optional<Path> cacheDirectory();
+
+        /**
+         * @return true if contexts are never fetched, only the seeded and cached ones are served.
+         */
+        @WithDefault("false")
+        boolean offline();
+
+        /**
+         * @return the timeout of a context fetch.
+         */
+        @WithDefault("10s")
+        Duration fetchTimeout();
+    }
+
+    /**
+     * @return the configuration of the executor running the CPU bound validation stages.
+     */
+    ExecutorConfig executor();
+
+    interface ExecutorConfig {
+
+        /**
+         * @return the mode used to run the validations.
+         */
+        @WithDefault("worker-pool")
+        ExecutionMode mode();
+
+        /**
+         * @return optional number of threads of the worker pool, defaulting to the number of
+         *     available processors. Not used when running on virtual threads.
+         */
+        Optional<Integer> poolSize();
+
+        /**
+         * @return the maximum number of stages waiting for a thread of the worker pool, beyond
+         *     which they are rejected. Not used when running on virtual threads.
+         */
+        @WithDefault("512")
+        int queueSize();
+
+        /**
+         * @return the running time after which a stage is logged as blocking its thread.
+         */
+        @WithDefault("5s")
+        Duration blockedThreadWarning();
+    }
+
+    /**
+     * @return the configuration of the admission control of the validations.
+     */
+    Admission admission();
+
+    interface Admission {
+
+        /**
+         * @return true if the number of concurrent validations is limited.
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * @return the limits of the plain JSON validations.
+         */
+        AdmissionLimits plainJson();
+
+        /**
+         * @return the limits of the RDF (SHACL) validations.
+         */
+        AdmissionLimits rdf();
+
+        /**
+         * @return the delay suggested to the clients of a rejected request before retrying.
+         */
+        @WithDefault("5s")
+        Duration retryAfter();
+    }
+
+    interface AdmissionLimits {
+
+        /**
+         * @return the maximum number of validations in flight.
+         */
+        @WithDefault("32")
+        int maxConcurrent();
+
+        /**
+         * @return the maximum number of validations waiting to be admitted, beyond which they are
+         *     rejected.
+         */
+        @WithDefault("64")
+        int queueSize();
+
+        /**
+         * @return the maximum time a validation waits to be admitted before being rejected.
+         */
+        @WithDefault("5s")
+        Duration queueTimeout();
+    }
+
+    /**
+     * @return the configuration of the metrics of the validation pipeline.
+     */
+    Metrics metrics();
+
+    interface Metrics {
+
+        /**
+         * @return the maximum number of distinct validation resources used to tag the counter of
+         *     the validation reports, beyond which the resources are tagged as {@code other}.
+         */
+        @WithDefault("100")
+        int maxResourceTags();
+    }
+
+    interface Caches {
+
+        /**
+         * @return the configuration of the cache of compiled JSON schemas.
+         */
+        CacheConfig jsonSchemas();
+
+        /**
+         * @return the configuration of the cache of parsed SHACL shapes.
+         */
+        CacheConfig shaclShapes();
+
+        /**
+         * @return the configuration of the cache of compiled schema pattern properties.
+         */
+        CacheConfig patternProperties();
+
+        /**
+         * @return the configuration of the cache of validation reports.
+         */
+        ResultCacheConfig validationResults();
+    }
+
+    interface ResultCacheConfig {
+
+        /**
+         * @return true if the cache is enabled.
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * @return the maximum number of cached reports.
+         */
+        @WithDefault("10000")
+        long maximumSize();
+
+        /**
+         * @return the duration after which a cached report is evicted.
+         */
+        @WithDefault("10m")
+        Duration ttl();
+    }
+
+    interface CacheConfig {
+
+        /**
+         * @return true if the cache is enabled.
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * @return the maximum total weight of the cache entries, as the approximate size in bytes
+         *     of the source validation resources.
+         */
+        @WithDefault("67108864")
+        long maximumWeight();
+
+        /**
+         * @return optional duration after which an entry not accessed is evicted.
+         */
+        Optional<Duration> expireAfterAccess();
+    }
+
     class RolesMappingsConverter implements Converter<MultiMap<String, String>> {
 
         @Override
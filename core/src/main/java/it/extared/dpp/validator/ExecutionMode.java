@@ -0,0 +1,30 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator;
+
+/** Enum listing the modes available to run the validations. */
+public enum ExecutionMode {
+    /**
+     * The validation is composed on the event loop, the CPU bound stages run on a bounded pool of
+     * worker threads.
+     */
+    WORKER_POOL,
+    /**
+     * Every validation runs on its own virtual thread, awaiting the datastore queries in blocking
+     * style. The stages following a query go on running on the same virtual thread.
+     */
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator;
+
+/** Enum listing the engines available to match an input against the stored resources. */
+public enum MatchingEngine {
+    /** Matching is performed by the datastore on every request. */
+    DATABASE,
+    /** Matching is performed against an in-memory index kept in sync with the datastore. */
+    IN_MEMORY
+}
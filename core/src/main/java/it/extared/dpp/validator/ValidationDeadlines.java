@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+/**
+ * Resolves the deadline of a validation from the timeout of the validation resource used, falling
+ * back to the configured default. The timeouts of the resources are cached and kept in sync with
+ * the resource changes.
+ */
+@ApplicationScoped
+public class ValidationDeadlines {
+
+    private static final long MAXIMUM_SIZE = 10_000;
+
+    @Inject DppValidatorConfig config;
+
+    @Inject Pool pool;
+
+    private final Cache<TimeoutKey, Optional<Duration>> timeouts =
+            Caffeine.newBuilder().maximumSize(MAXIMUM_SIZE).build();
+
+    /**
+     * @param startNanos the {@link System#nanoTime()} at which the validation started.
+     * @return the deadline of a validation with the default timeout.
+     */
+    public Deadline defaultDeadline(long startNanos) {
+        return Deadline.of(config.validationTimeout(), startNanos);
+    }
+
+    /**
+     * @param type the validation type.
+     * @param match the validation resource used.
+     * @param startNanos the {@link System#nanoTime()} at which the validation started.
+     * @param lookup retrieves the timeout of a resource by its id, null if not set.
+     * @return the deadline of the validation.
+     */
+    public Uni<Deadline> deadlineOf(
+            ValidationType type,
+            MatchResult<?> match,
+            long startNanos,
+            BiFunction<SqlConnection, Long, Uni<Duration>> lookup) {
+        if (match.getId() == null) return Uni.createFrom().item(defaultDeadline(startNanos));
+        TimeoutKey key = new TimeoutKey(type, match.getId());
+        Optional<Duration> timeout = timeouts.getIfPresent(key);
+        Uni<Optional<Duration>> resolved =
+                timeout != null
+                        ? Uni.createFrom().item(timeout)
+                        : pool.withConnection(c -> lookup.apply(c, key.id()))
+                                .map(Optional::ofNullable)
+                                .invoke(t -> timeouts.put(key, t));
+        return resolved.map(t -> Deadline.of(t.orElse(config.validationTimeout()), startNanos));
+    }
+
+    /**
+     * Keeps the cached timeouts in sync with the changes made by this or other nodes.
+     *
+     * @param event the resource change event.
+     */
+    void onResourceChange(@Observes ResourceChangeEvent event) {
+        if (event.isResync()) timeouts.invalidateAll();
+        else if (event.isRemoval())
+            timeouts.asMap()
+                    .keySet()
+                    .removeIf(k -> event.concerns(k.type()) && k.id().equals(event.id()));
+    }
+
+    private record TimeoutKey(ValidationType type, Long id) {}
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import it.extared.dpp.validator.exceptions.ServiceOverloadedException;
+import it.extared.dpp.validator.exceptions.ValidationTimeoutException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.logging.Logger;
+
+/**
+ * Runs the CPU bound validation stages (parsing of the input, of the validation resources and the
+ * validation itself) on a bounded pool of worker threads, so that a large input does not stall the
+ * event loop serving the other requests. With the {@link ExecutionMode#VIRTUAL_THREADS} mode the
+ * stages and the datastore queries of a validation run on its own virtual thread instead. The
+ * results are emitted back on the Vert.x context of the caller, if any. The queue of the pool is
+ * exposed through the executor metrics tagged {@code name=validation}, and a watchdog logs the
+ * stages running longer than the configured threshold together with the stack trace of their
+ * thread.
+ */
+@ApplicationScoped
+public class ValidationExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(ValidationExecutor.class);
+
+    static final String METRICS_NAME = "validation";
+
+    @Inject DppValidatorConfig config;
+
+    @Inject MeterRegistry registry;
+
+    private final Map<Thread, RunningStage> running = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    private ScheduledExecutorService watchdog;
+
+    private long blockedThresholdNanos;
+
+    private boolean virtualThreads;
+
+    @PostConstruct
+    void init() {
+        DppValidatorConfig.ExecutorConfig executorConfig = config.executor();
+        virtualThreads = executorConfig.mode() == ExecutionMode.VIRTUAL_THREADS;
+        executor =
+                ExecutorServiceMetrics.monitor(
+                        registry,
+                        virtualThreads ? virtualThreadExecutor() : workerPool(executorConfig),
+                        METRICS_NAME);
+        blockedThresholdNanos = executorConfig.blockedThreadWarning().toNanos();
+        long checkPeriod = Math.min(executorConfig.blockedThreadWarning().toMillis(), 1000L);
+        watchdog =
+                Executors.newSingleThreadScheduledExecutor(
+                        threadFactory("dpp-validation-watchdog-"));
+        watchdog.scheduleAtFixedRate(
+                this::warnBlockedStages, checkPeriod, checkPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    private static ExecutorService workerPool(DppValidatorConfig.ExecutorConfig executorConfig) {
+        int poolSize = executorConfig.poolSize().orElse(Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor pool =
+                new ThreadPoolExecutor(
+                        poolSize,
+                        poolSize,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(executorConfig.queueSize()),
+                        threadFactory("dpp-validation-worker-"));
+        return pool;
+    }
+
+    private static ExecutorService virtualThreadExecutor() {
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("dpp-validation-virtual-", 1).factory());
+    }
+
+    /**
+     * @return true if the validations run on virtual threads.
+     */
+    public boolean runsOnVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        watchdog.shutdownNow();
+        executor.shutdown();
+    }
+
+    /**
+     * Submits a stage to the worker pool. When running on virtual threads a stage submitted from a
+     * virtual thread runs on the submitting thread, otherwise on a new virtual thread.
+     *
+     * @param stage the name of the stage, used in the blocked thread warnings.
+     * @param task the stage to run.
+     * @return a Uni emitting the stage result, or failing with a {@link ServiceOverloadedException}
+     *     when the queue of the pool is full.
+     * @param <T> the type of the result.
+     */
+    public <T> Uni<T> submit(String stage, Callable<T> task) {
+        return Uni.createFrom()
+                .emitter(
+                        emitter -> {
+                            if (virtualThreads && Thread.currentThread().isVirtual()) {
+                                run(stage, task, emitter, null);
+                                return;
+                            }
+                            Context context = Vertx.currentContext();
+                            try {
+                                executor.execute(() -> run(stage, task, emitter, context));
+                            } catch (RejectedExecutionException e) {
+                                LOGGER.warnf(
+                                        "validation stage %s rejected, the queue is full", stage);
+                                emitter.fail(
+                                        new ServiceOverloadedException(
+                                                "Too many validations in progress",
+                                                config.admission().retryAfter()));
+                            }
+                        });
+    }
+
+    /**
+     * Runs a datastore query. When running on virtual threads a query run from a virtual thread is
+     * awaited in blocking style, so that the stages following it keep running on the same virtual
+     * thread rather than being resumed on the event loop completing the query.
+     *
+     * @param query the query.
+     * @return a Uni emitting the query result.
+     * @param <T> the type of the result.
+     */
+    public <T> Uni<T> awaitQuery(Uni<T> query) {
+        return Uni.createFrom()
+                .deferred(
+                        () ->
+                                virtualThreads && Thread.currentThread().isVirtual()
+                                        ? Uni.createFrom().item(query.await().indefinitely())
+                                        : query);
+    }
+
+    /**
+     * Submits a stage to the worker pool under the deadline of the validation. The stage is failed
+     * with a {@link ValidationTimeoutException} as soon as the deadline passes, while the running
+     * task is cancelled cooperatively through the {@link Deadline#checkpoint()} calls.
+     *
+     * @param stage the name of the stage, used in the blocked thread warnings.
+     * @param deadline the deadline of the validation.
+     * @param task the stage to run.
+     * @return a Uni emitting the stage result.
+     * @param <T> the type of the result.
+     */
+    public <T> Uni<T> submit(String stage, Deadline deadline, Callable<T> task) {
+        Duration remaining = deadline.remaining();
+        if (remaining.isNegative() || remaining.isZero())
+            return Uni.createFrom()
+                    .failure(new ValidationTimeoutException(stage, deadline.getTimeout()));
+        return submit(stage, () -> deadline.run(stage, task))
+                .ifNoItem()
+                .after(remaining)
+                .failWith(() -> new ValidationTimeoutException(stage, deadline.getTimeout()));
+    }
+
+    private <T> void run(
+            String stage, Callable<T> task, UniEmitter<? super T> emitter, Context context) {
+        Thread thread = Thread.currentThread();
+        running.put(thread, new RunningStage(stage, System.nanoTime()));
+        T result;
+        try {
+            result = task.call();
+        } catch (Throwable e) {
+            running.remove(thread);
+            emit(context, () -> emitter.fail(e));
+            return;
+        }
+        running.remove(thread);
+        emit(context, () -> emitter.complete(result));
+    }
+
+    private void emit(Context context, Runnable emission) {
+        if (context != null) context.runOnContext(v -> emission.run());
+        else emission.run();
+    }
+
+    private void warnBlockedStages() {
+        long now = System.nanoTime();
+        running.forEach(
+                (thread, stage) -> {
+                    long elapsed = now - stage.startNanos();
+                    if (elapsed > blockedThresholdNanos) {
+                        Exception trace = new Exception("validation stage blocking the thread");
+                        trace.setStackTrace(thread.getStackTrace());
+                        LOGGER.warnf(
+                                trace,
+                                "validation stage %s has been running on thread %s for %d ms",
+                                stage.name(),
+                                thread.getName(),
+                                TimeUnit.NANOSECONDS.toMillis(elapsed));
+                    }
+                });
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record RunningStage(String name, long startNanos) {}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.dto.ValidationReport;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Publishes to the meter registry the time spent in each stage of the validation pipeline, the size
+ * of the validated payloads and the violations found. The meters are tagged by validation type and
+ * match type. The distributions publish a percentile histogram of several tens of buckets per tag
+ * combination, so only the reports counter is also tagged by validation resource. At most {@link
+ * DppValidatorConfig.Metrics#maxResourceTags()} distinct resources are used as tags, the others
+ * being tagged as {@value #OTHER}, so that the number of published series stays bounded whatever
+ * the number of stored resources.
+ */
+@ApplicationScoped
+public class ValidationMetrics {
+
+    static final String STAGE_TIMER = "validation.stage";
+
+    static final String PAYLOAD_SIZE = "validation.payload.size";
+
+    static final String VIOLATIONS = "validation.violations";
+
+    static final String REPORTS = "validation.reports";
+
+    static final String NONE = "none";
+
+    static final String OTHER = "other";
+
+    /** The timed stages of the validation pipeline. */
+    public enum Stage {
+        /** Detection of the payload type. */
+        SNIFF("sniff"),
+        /** Parsing of the payload. */
+        PARSE("parse"),
+        /** Extraction of the property paths of a plain JSON. */
+        PATH_EXTRACTION("path-extraction"),
+        /** Extraction of the metadata of a JSON-LD used to route it to a template. */
+        METADATA_EXTRACTION("metadata-extraction"),
+        /** Resolution of the validation resource, content included. */
+        MATCH("match"),
+        /** Compilation of a JSON schema or parsing of SHACL shapes, on cache miss. */
+        COMPILATION("compilation"),
+        /** Validation of the payload against the resource. */
+        VALIDATION("validation"),
+        /** Building of the validation report. */
+        REPORT("report");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    @Inject DppValidatorConfig config;
+
+    @Inject MeterRegistry registry;
+
+    private final Set<String> resourceTags = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Records the time spent in a stage.
+     *
+     * @param stage the stage.
+     * @param type the validation type.
+     * @param match the validation resource used, null if not yet known.
+     * @param startNanos the {@link System#nanoTime()} at which the stage started.
+     */
+    public void record(Stage stage, ValidationType type, MatchResult<?> match, long startNanos) {
+        Timer.builder(STAGE_TIMER)
+                .tags(typeTags(type, match))
+                .tag("stage", stage.tag())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs and times a stage.
+     *
+     * @param stage the stage.
+     * @param type the validation type.
+     * @param match the validation resource used, null if not yet known.
+     * @param task the stage.
+     * @return the stage result.
+     * @param <T> the type of the result.
+     * @throws Exception if the stage fails.
+     */
+    public <T> T time(Stage stage, ValidationType type, MatchResult<?> match, Callable<T> task)
+            throws Exception {
+        long start = System.nanoTime();
+        T result = task.call();
+        record(stage, type, match, start);
+        return result;
+    }
+
+    /**
+     * Times the resolution of a validation resource, tagged with the resource found.
+     *
+     * @param type the validation type.
+     * @param match the resolution of the resource.
+     * @return the resolution, timed from its subscription.
+     * @param <T> the type of the match result.
+     */
+    public <T extends MatchResult<?>> Uni<T> timeMatch(ValidationType type, Uni<T> match) {
+        return timeMatch(type, match, m -> m);
+    }
+
+    /**
+     * Times the resolution of a validation resource, tagged with the resource found.
+     *
+     * @param type the validation type.
+     * @param resolution the resolution of the resource.
+     * @param matchOf extracts the match result from the resolution.
+     * @return the resolution, timed from its subscription.
+     * @param <T> the type of the resolution.
+     */
+    public <T> Uni<T> timeMatch(
+            ValidationType type, Uni<T> resolution, Function<T, MatchResult<?>> matchOf) {
+        return Uni.createFrom()
+                .deferred(
+                        () -> {
+                            long start = System.nanoTime();
+                            return resolution.invoke(
+                                    r -> record(Stage.MATCH, type, matchOf.apply(r), start));
+                        });
+    }
+
+    /**
+     * @param type the validation type.
+     * @param bytes the size of the validated payload.
+     */
+    public void recordPayloadSize(ValidationType type, long bytes) {
+        DistributionSummary.builder(PAYLOAD_SIZE)
+                .tag("type", type.name())
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(bytes);
+    }
+
+    /**
+     * Records the outcome of a validation and the number of violations found. The violations are
+     * not recorded when the report does not list them, as in a fail-fast validation.
+     *
+     * @param type the validation type.
+     * @param match the validation resource used.
+     * @param report the validation report.
+     */
+    public void recordReport(ValidationType type, MatchResult<?> match, ValidationReport report) {
+        Tags tags = typeTags(type, match);
+        Counter.builder(REPORTS)
+                .tags(tags)
+                .tag("resource", match != null ? resourceTag(match) : NONE)
+                .tag("outcome", report.isValid() ? "valid" : "invalid")
+                .register(registry)
+                .increment();
+        if (!report.isValid() && report.getInvalidProperties() == null) return;
+        DistributionSummary.builder(VIOLATIONS)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(report.isValid() ? 0 : report.getInvalidProperties().size());
+    }
+
+    private Tags typeTags(ValidationType type, MatchResult<?> match) {
+        return Tags.of(
+                "type",
+                type.name(),
+                "match",
+                match != null && match.getMatchType() != null ? match.getMatchType().name() : NONE);
+    }
+
+    private String resourceTag(MatchResult<?> match) {
+        if (match.getName() == null) return NONE;
+        String tag = "%s:%s".formatted(match.getName(), match.getVersion());
+        if (resourceTags.contains(tag)) return tag;
+        // the limit can be exceeded by a few tags under contention, keeping it bounded anyway
+        if (resourceTags.size() >= config.metrics().maxResourceTags()) return OTHER;
+        resourceTags.add(tag);
+        return tag;
+    }
+}
@@ -16,6 +16,8 @@
 package it.extared.dpp.validator;
 
 import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.dto.Payload;
+import it.extared.dpp.validator.dto.ValidationOptions;
 import it.extared.dpp.validator.dto.ValidationReport;
 import java.io.IOException;
 
@@ -23,27 +25,29 @@ import java.io.IOException;
 public interface Validator {
 
     /**
-     * Given an input as byte[] it should validate it and produce an {@link ValidationReport}
-     * result.
+     * Given a payload it should validate it and produce an {@link ValidationReport} result.
      *
      * @param input what needs to be validated.
+     * @param options the options of the validation, resolved against the configuration.
      * @return a report with validation details.
      * @throws IOException when something goes wrong reading the input or a validation resource.
      */
-    Uni<ValidationReport> validate(byte[] input) throws IOException;
+    Uni<ValidationReport> validate(Payload input, ValidationOptions options) throws IOException;
 
     /**
-     * Given the name and the version of a validation resource and an input as byte[], it should
-     * validate the latter using the validation resource identified by the name and the version and
-     * produce an {@link ValidationReport} result.
+     * Given the name and the version of a validation resource and a payload, it should validate the
+     * latter using the validation resource identified by the name and the version and produce an
+     * {@link ValidationReport} result.
      *
      * @param resourceName the validation resource name.
      * @param version the validation resource version.
-     * @param input what needs to be validated
+     * @param input what needs to be validated.
+     * @param options the options of the validation, resolved against the configuration.
      * @return a report with validation details.
      * @throws IOException when something goes wrong reading the input or a validation resource.
      */
-    Uni<ValidationReport> validate(String resourceName, String version, byte[] input)
+    Uni<ValidationReport> validate(
+            String resourceName, String version, Payload input, ValidationOptions options)
             throws IOException;
 
     /**
@@ -15,9 +15,13 @@
  */
 package it.extared.dpp.validator;
 
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import it.extared.dpp.validator.dto.*;
 import it.extared.dpp.validator.exceptions.InvalidOpException;
+import it.extared.dpp.validator.exceptions.PayloadTooLargeException;
+import it.extared.dpp.validator.utils.NdjsonReader;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
@@ -33,17 +37,116 @@ public class ValidatorService {
 
     @Inject Instance<ValidationResourceManager> resourceManagers;
 
+    @Inject ValidationExecutor executor;
+
+    @Inject AdmissionController admission;
+
+    @Inject DppValidatorConfig config;
+
     private static final Logger LOGGER = Logger.getLogger(ValidatorService.class);
 
-    public Uni<ValidationReport> validate(byte[] input, ValidationType validationType)
+    public Uni<ValidationReport> validate(Payload input, ValidationType validationType)
+            throws IOException {
+        return validate(input, validationType, ValidationOptions.DEFAULT);
+    }
+
+    public Uni<ValidationReport> validate(
+            Payload input, ValidationType validationType, ValidationOptions options)
             throws IOException {
-        return selectValidator(validationType).validate(input);
+        Validator validator = selectValidator(validationType);
+        ValidationOptions resolved = options.resolve(config.maxViolations());
+        return admission.admit(
+                validationType,
+                () -> {
+                    if (executor.runsOnVirtualThreads())
+                        return executor.submit(
+                                "validation",
+                                () -> validator.validate(input, resolved).await().indefinitely());
+                    return validator.validate(input, resolved);
+                });
     }
 
     public Uni<ValidationReport> validate(
-            String name, String version, byte[] input, ValidationType validationType)
+            String name, String version, Payload input, ValidationType validationType)
             throws IOException {
-        return selectValidator(validationType).validate(name, version, input);
+        return validate(name, version, input, validationType, ValidationOptions.DEFAULT);
+    }
+
+    public Uni<ValidationReport> validate(
+            String name,
+            String version,
+            Payload input,
+            ValidationType validationType,
+            ValidationOptions options)
+            throws IOException {
+        Validator validator = selectValidator(validationType);
+        ValidationOptions resolved = options.resolve(config.maxViolations());
+        return admission.admit(
+                validationType,
+                () -> {
+                    if (executor.runsOnVirtualThreads())
+                        return executor.submit(
+                                "validation",
+                                () ->
+                                        validator
+                                                .validate(name, version, input, resolved)
+                                                .await()
+                                                .indefinitely());
+                    return validator.validate(name, version, input, resolved);
+                });
+    }
+
+    /**
+     * Validates a newline delimited stream of JSON and JSON-LD items. The lines are read on demand,
+     * as the validations of the previous ones complete, and at most {@link
+     * DppValidatorConfig.Bulk#concurrency()} items are validated at the same time, so that the
+     * whole stream is never held in memory. The reports are emitted as soon as available, tagged
+     * with the line of their item. An item failing to validate is reported as invalid without
+     * stopping the others.
+     *
+     * @param ndjson the stream of items, one per line.
+     * @return the reports of the items.
+     */
+    public Multi<BulkValidationItem> validateBulk(InputStream ndjson) {
+        NdjsonReader reader = new NdjsonReader(ndjson, config.maxPayloadSize().asLongValue());
+        return Multi.createFrom()
+                .<NdjsonReader.Line>iterable(() -> reader)
+                // the lines are read by blocking on the input, whichever thread requests them
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .onItem()
+                .transformToUni(this::validateItem)
+                .merge(config.bulk().concurrency());
+    }
+
+    private Uni<BulkValidationItem> validateItem(NdjsonReader.Line line) {
+        return validateLine(line)
+                .map(r -> new BulkValidationItem(line.number(), r))
+                .onFailure()
+                .recoverWithItem(e -> BulkValidationItem.failed(line.number(), e));
+    }
+
+    /**
+     * Validates an item of a bulk validation, as a JSON-LD if it has a top level context, as a
+     * plain JSON otherwise.
+     *
+     * @param line the item.
+     * @return the validation report, or a failure if the item cannot be validated.
+     */
+    public Uni<ValidationReport> validateLine(NdjsonReader.Line line) {
+        return Uni.createFrom().deferred(() -> validateContent(line));
+    }
+
+    private Uni<ValidationReport> validateContent(NdjsonReader.Line line) {
+        if (line.isTooLarge())
+            return Uni.createFrom()
+                    .failure(new PayloadTooLargeException(config.maxPayloadSize().asLongValue()));
+        try {
+            Payload payload = Payload.of(line.content());
+            return validate(
+                    payload, payload.isJsonLd() ? ValidationType.RDF : ValidationType.PLAIN_JSON);
+        } catch (IOException e) {
+            return Uni.createFrom().failure(e);
+        }
     }
 
     public Uni<Long> addValidationResource(
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.cache;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.jboss.logging.Logger;
+
+/**
+ * Holds a {@link ResourceIndex} loaded from the repository and keeps it in sync with the resource
+ * changes. The changes received while the index is being updated are applied together by the next
+ * update, so that a burst of changes costs a single update rather than one per change. A change
+ * received while reloading makes the reload start over, as it might be missing from the loaded
+ * entries. An entry loaded before the removal of its resource is dropped, rather than indexing a
+ * resource that no longer exists, and a failed update falls back to a reload.
+ *
+ * @param <E> the type of the index entry of a resource.
+ * @param <I> the type of the index.
+ */
+public class ReloadableIndex<E, I extends ResourceIndex<E, I>> {
+
+    private static final Logger LOGGER = Logger.getLogger(ReloadableIndex.class);
+
+    private final String name;
+
+    private final Function<Collection<E>, I> builder;
+
+    private final Supplier<Uni<List<E>>> loadAll;
+
+    private final Function<Long, Uni<E>> loadOne;
+
+    private final Function<E, Long> idOf;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // incremented on every change, to detect changes applied while reloading
+    private long generation;
+
+    // the changes not yet applied, an empty entry for a removal
+    private final Map<Long, Optional<E>> pending = new HashMap<>();
+
+    // the generation of the removal of a resource, kept while entries are being loaded
+    private final Map<Long, Long> removals = new HashMap<>();
+
+    // the number of entries being loaded
+    private int loading;
+
+    private boolean updating;
+
+    private volatile I index;
+
+    /**
+     * @param name the name of the indexed resources, used in the logs.
+     * @param builder builds the index of the loaded entries.
+     * @param loadAll loads the entries of every resource from the repository.
+     * @param loadOne loads the entry of a resource from the repository by its id, null if missing.
+     * @param idOf returns the unique numeric identifier of the resource of an entry.
+     */
+    public ReloadableIndex(
+            String name,
+            Function<Collection<E>, I> builder,
+            Supplier<Uni<List<E>>> loadAll,
+            Function<Long, Uni<E>> loadOne,
+            Function<E, Long> idOf) {
+        this.name = name;
+        this.builder = builder;
+        this.loadAll = loadAll;
+        this.loadOne = loadOne;
+        this.idOf = idOf;
+    }
+
+    /**
+     * @return the current index, null if not loaded yet.
+     */
+    public I get() {
+        return index;
+    }
+
+    /** Reloads every entry of the index from the repository. */
+    public void reload() {
+        long started = currentGeneration();
+        loadAll.get()
+                .subscribe()
+                .with(
+                        list -> {
+                            if (!replaceAll(list, started)) reload();
+                        },
+                        t -> LOGGER.errorf(t, "unable to load the %s index", name));
+    }
+
+    /**
+     * Applies a change made by this or other nodes.
+     *
+     * @param event the resource change event.
+     */
+    public void apply(ResourceChangeEvent event) {
+        if (event.isResync()) reload();
+        else if (event.isRemoval()) remove(event.id());
+        else {
+            long started = startLoading();
+            loadOne.apply(event.id())
+                    .subscribe()
+                    .with(
+                            e -> loaded(event.id(), e, started),
+                            t -> {
+                                loaded(event.id(), null, started);
+                                LOGGER.errorf(t, "unable to index %s with id %s", name, event.id());
+                            });
+        }
+    }
+
+    private long currentGeneration() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long startLoading() {
+        lock.lock();
+        try {
+            loading++;
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        lock.lock();
+        try {
+            if (loading > 0) removals.put(id, generation + 1);
+        } finally {
+            lock.unlock();
+        }
+        update(id, null);
+    }
+
+    private void loaded(Long id, E entry, long started) {
+        boolean removed;
+        lock.lock();
+        try {
+            // the entry might have been read before the removal was committed
+            removed = removals.getOrDefault(id, Long.MIN_VALUE) > started;
+            if (--loading == 0) removals.clear();
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) return;
+        if (removed)
+            debug(LOGGER, () -> "dropped %s with id %s removed while loading".formatted(name, id));
+        else update(idOf.apply(entry), entry);
+    }
+
+    private boolean replaceAll(List<E> loaded, long started) {
+        lock.lock();
+        try {
+            // a change was applied meanwhile and might be missing from the loaded entries
+            if (generation != started) return false;
+            index = builder.apply(loaded);
+            pending.clear();
+            LOGGER.infof("loaded %s %s in the in-memory index", index.size(), name);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(Long id, E entry) {
+        lock.lock();
+        try {
+            generation++;
+            // changes before the first load are picked up by the load itself
+            if (index == null) return;
+            pending.put(id, Optional.ofNullable(entry));
+            // the running update picks the change up
+            if (updating) return;
+            updating = true;
+        } finally {
+            lock.unlock();
+        }
+        applyPending();
+    }
+
+    private void applyPending() {
+        while (true) {
+            I current;
+            List<E> upserts = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    updating = false;
+                    return;
+                }
+                current = index;
+                pending.forEach(
+                        (id, e) -> {
+                            if (e.isPresent()) upserts.add(e.get());
+                            else removed.add(id);
+                        });
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+            I updated;
+            try {
+                updated = current.update(upserts, removed);
+            } catch (RuntimeException e) {
+                lock.lock();
+                try {
+                    updating = false;
+                } finally {
+                    lock.unlock();
+                }
+                // the changes of the batch are lost, a reload picks them up
+                LOGGER.errorf(e, "unable to update the %s index, reloading it", name);
+                reload();
+                return;
+            }
+            lock.lock();
+            try {
+                // otherwise replaced meanwhile by a reload, that loaded the changes as well
+                if (index == current) index = updated;
+            } finally {
+                lock.unlock();
+            }
+            debug(LOGGER, () -> "updated %s index with %s entries".formatted(name, updated.size()));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.cache;
+
+import java.util.Collection;
+
+/**
+ * An immutable in-memory index of validation resources, updated by deriving a new index.
+ *
+ * @param <E> the type of the index entry of a resource.
+ * @param <I> the type of the index.
+ */
+public interface ResourceIndex<E, I extends ResourceIndex<E, I>> {
+
+    /**
+     * @param upserts the entries to add, replacing the ones with the same id if any.
+     * @param removals the unique numeric identifiers of the resources to remove.
+     * @return a new index with the changes applied.
+     */
+    I update(Collection<E> upserts, Collection<Long> removals);
+
+    /**
+     * @return the number of indexed resources.
+     */
+    int size();
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.cache;
+
+import it.extared.dpp.validator.dto.MatchResult;
+import java.util.Objects;
+
+/**
+ * Identifies a validation resource inside a cache. The numeric id acts as a revision: a resource
+ * deleted and uploaded again with the same name and version gets a new id and thus a new key.
+ *
+ * @param id the unique numeric identifier of the resource, can be null if not known.
+ * @param name the name of the resource.
+ * @param version the version of the resource.
+ */
+public record ResourceKey(Long id, String name, String version) {
+
+    public static ResourceKey of(MatchResult<?> matchResult) {
+        return new ResourceKey(
+                matchResult.getId(), matchResult.getName(), matchResult.getVersion());
+    }
+
+    public boolean hasId(Long id) {
+        return Objects.equals(this.id, id);
+    }
+
+    public boolean hasNameAndVersion(String name, String version) {
+        return Objects.equals(this.name, name) && Objects.equals(this.version, version);
+    }
+}
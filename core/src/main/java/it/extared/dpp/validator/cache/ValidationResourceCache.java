@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.cache;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import org.jboss.logging.Logger;
+
+/**
+ * A bounded, size weighted, in-memory cache of validation resources in their ready to use form
+ * (e.g. compiled schemas or parsed shapes). Hit, miss and eviction statistics are recorded and
+ * published to the meter registry under the cache name.
+ *
+ * @param <V> the type of the cached resource.
+ */
+public class ValidationResourceCache<V> {
+
+    private static final Logger LOGGER = Logger.getLogger(ValidationResourceCache.class);
+
+    private final String name;
+
+    private final boolean enabled;
+
+    private final Cache<ResourceKey, V> cache;
+
+    /**
+     * @param name the name of the cache, used as the metrics tag.
+     * @param config the configuration of the cache.
+     * @param weigher a function returning the weight of a cached value, roughly its size in bytes.
+     * @param registry the meter registry where to publish the cache statistics.
+     */
+    public ValidationResourceCache(
+            String name,
+            DppValidatorConfig.CacheConfig config,
+            ToIntFunction<V> weigher,
+            MeterRegistry registry) {
+        this.name = name;
+        this.enabled = config.enabled();
+        Caffeine<ResourceKey, V> builder =
+                Caffeine.newBuilder()
+                        .maximumWeight(config.maximumWeight())
+                        .weigher((ResourceKey k, V v) -> Math.max(1, weigher.applyAsInt(v)))
+                        .recordStats();
+        config.expireAfterAccess().ifPresent(builder::expireAfterAccess);
+        this.cache = builder.build();
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    /**
+     * Returns the cached value associated to the key or computes it with the loader function. When
+     * the cache is disabled the loader is always invoked. On virtual threads concurrent misses of
+     * the same key may invoke the loader more than once.
+     *
+     * @param key the resource key.
+     * @param loader the function producing the value when absent.
+     * @return the cached or computed value.
+     */
+    public V get(ResourceKey key, Function<ResourceKey, V> loader) {
+        if (!enabled) return loader.apply(key);
+        if (Thread.currentThread().isVirtual()) {
+            // loading outside of the map bin lock, a virtual thread waiting on a monitor pins its
+            // carrier thread
+            V value = cache.getIfPresent(key);
+            if (value != null) return value;
+            value = loader.apply(key);
+            V existing = cache.asMap().putIfAbsent(key, value);
+            return existing != null ? existing : value;
+        }
+        return cache.get(key, loader);
+    }
+
+    /**
+     * @param key the resource key.
+     * @return the cached value or null if absent.
+     */
+    public V getIfPresent(ResourceKey key) {
+        if (!enabled) return null;
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * @param key the resource key.
+     * @param value the value to cache.
+     */
+    public void put(ResourceKey key, V value) {
+        if (enabled) cache.put(key, value);
+    }
+
+    /**
+     * Evicts every entry associated to the resource unique numeric identifier.
+     *
+     * @param id the resource id.
+     */
+    public void invalidate(Long id) {
+        debug(LOGGER, () -> "evicting resource with id %s from cache %s".formatted(id, name));
+        cache.asMap().keySet().removeIf(k -> k.hasId(id));
+    }
+
+    /**
+     * Evicts every entry associated to the resource name and version.
+     *
+     * @param resourceName the resource name.
+     * @param version the resource version.
+     */
+    public void invalidate(String resourceName, String version) {
+        debug(
+                LOGGER,
+                () ->
+                        "evicting resource %s - %s from cache %s"
+                                .formatted(resourceName, version, name));
+        cache.asMap().keySet().removeIf(k -> k.hasNameAndVersion(resourceName, version));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Evicts the entries made stale by a resource change. Added resources get a new id, thus only
+     * removals and resyncs require evictions.
+     *
+     * @param event the resource change event.
+     */
+    public void apply(ResourceChangeEvent event) {
+        if (event.isResync()) invalidateAll();
+        else if (event.isRemoval()) {
+            invalidate(event.id());
+            if (event.name() != null) invalidate(event.name(), event.version());
+        }
+    }
+
+    /**
+     * @return the hit, miss and eviction statistics of the cache.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.cache;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.dto.MatchType;
+import it.extared.dpp.validator.dto.ValidationOptions;
+import it.extared.dpp.validator.dto.ValidationReport;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.function.Supplier;
+import org.jboss.logging.Logger;
+
+/**
+ * Bounded, time limited cache of validation reports, keyed by the canonical hash of the validated
+ * payload and by the validation resource it was validated against. Concurrent validations of the
+ * same payload against the same resource share a single in-flight computation. The reports are
+ * evicted when the resource they were produced with is deleted or replaced.
+ */
+@ApplicationScoped
+public class ValidationResultCache {
+
+    public static final String CACHE_NAME = "validation-results";
+
+    private static final Logger LOGGER = Logger.getLogger(ValidationResultCache.class);
+
+    @Inject DppValidatorConfig config;
+
+    @Inject MeterRegistry registry;
+
+    private boolean enabled;
+
+    private AsyncCache<ResultKey, ValidationReport> cache;
+
+    @PostConstruct
+    void init() {
+        DppValidatorConfig.ResultCacheConfig resultConfig = config.cache().validationResults();
+        this.enabled = resultConfig.enabled();
+        this.cache =
+                Caffeine.newBuilder()
+                        .maximumSize(resultConfig.maximumSize())
+                        .expireAfterWrite(resultConfig.ttl())
+                        .recordStats()
+                        .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached report of the payload validated against the matched resource, joins the
+     * in-flight validation of the same payload if any, or runs the validation. Failed validations
+     * are not cached. Matches without a resource and payloads not hashed are always validated.
+     *
+     * @param type the validation type.
+     * @param payloadHash the canonical hash of the payload, null if not computed.
+     * @param match the matched validation resource.
+     * @param options the options of the validation, shaping the report.
+     * @param validation the validation producing the report when absent.
+     * @return the cached or computed report.
+     */
+    public Uni<ValidationReport> get(
+            ValidationType type,
+            String payloadHash,
+            MatchResult<?> match,
+            ValidationOptions options,
+            Supplier<Uni<ValidationReport>> validation) {
+        if (!enabled || payloadHash == null || match.hasNoTemplate() || match.getId() == null)
+            return validation.get();
+        ResultKey key =
+                new ResultKey(
+                        type, payloadHash, ResourceKey.of(match), match.getMatchType(), options);
+        // every subscriber gets its own copy, a cancelled request must not cancel the validation
+        // shared with the others
+        return Uni.createFrom()
+                .completionStage(
+                        () ->
+                                cache.get(
+                                                key,
+                                                (k, e) ->
+                                                        validation
+                                                                .get()
+                                                                .subscribeAsCompletionStage())
+                                        .copy());
+    }
+
+    /**
+     * Evicts the reports made stale by a resource change, made by this or other nodes. Added
+     * resources get a new id, thus only removals and resyncs require evictions.
+     *
+     * @param event the resource change event.
+     */
+    void onResourceChange(@Observes ResourceChangeEvent event) {
+        if (event.isResync()) invalidateAll();
+        else if (event.isRemoval()) {
+            debug(
+                    LOGGER,
+                    () ->
+                            "evicting reports of resource %s - %s - %s"
+                                    .formatted(event.id(), event.name(), event.version()));
+            cache.asMap().keySet().removeIf(k -> k.isProducedBy(event));
+        }
+    }
+
+    /**
+     * @return true if the reports are cached, the payloads need to be hashed only if so.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * @return the hit, miss and eviction statistics of the cache.
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    private record ResultKey(
+            ValidationType type,
+            String payloadHash,
+            ResourceKey resource,
+            MatchType matchType,
+            ValidationOptions options) {
+
+        boolean isProducedBy(ResourceChangeEvent event) {
+            return event.concerns(type)
+                    && (resource.hasId(event.id())
+                            || (event.name() != null
+                                    && resource.hasNameAndVersion(event.name(), event.version())));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.dto;
+
+/** The validation report of an item of a bulk validation, tagged with its line in the input. */
+public class BulkValidationItem {
+
+    private long line;
+
+    private ValidationReport report;
+
+    public BulkValidationItem(long line, ValidationReport report) {
+        this.line = line;
+        this.report = report;
+    }
+
+    public BulkValidationItem() {}
+
+    /**
+     * @param line the line of the item.
+     * @param failure the failure of the validation of the item.
+     * @return the item reported as invalid, with the failure as message.
+     */
+    public static BulkValidationItem failed(long line, Throwable failure) {
+        return new BulkValidationItem(
+                line,
+                ValidationReport.builder()
+                        .withValid(false)
+                        .withMessage(failure.getMessage())
+                        .build());
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public ValidationReport getReport() {
+        return report;
+    }
+
+    public void setReport(ValidationReport report) {
+        this.report = report;
+    }
+}
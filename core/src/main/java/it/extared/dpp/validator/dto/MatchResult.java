@@ -24,6 +24,7 @@ import java.util.Objects;
  */
 public class MatchResult<T> {
 
+    private Long id;
     private String name;
     private String version;
     private T resource;
@@ -41,6 +42,19 @@ public class MatchResult<T> {
         this.matchType = matchType;
     }
 
+    public MatchResult(Long id, String name, String version, T resource, MatchType matchType) {
+        this(name, version, resource, matchType);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public T getResource() {
         return resource;
     }
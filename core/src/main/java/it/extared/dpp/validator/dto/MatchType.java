@@ -20,6 +20,7 @@ public enum MatchType {
     NONE,
     NAME_AND_VERSION,
     SIMILARITY_MATCH,
+    DISCRIMINATOR_MATCH,
     EXACT_TYPE_MATCH,
     CONTEXT_URI_MATCH,
     VOCABULARY_MATCH
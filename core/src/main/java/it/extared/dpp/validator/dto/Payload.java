@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.dto;
+
+import static it.extared.dpp.validator.utils.JsonUtils.objectMapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import it.extared.dpp.validator.utils.BoundedInputStream;
+import it.extared.dpp.validator.utils.JsonLdUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A payload to validate, passed from the API to the validators. It holds the raw content, read once
+ * into an array of its exact size and then reread as many times as needed without copying it, its
+ * JSON tree, parsed at most once when first asked for, and whether it is a JSON-LD document.
+ */
+public class Payload {
+
+    private final byte[] content;
+
+    private JsonNode json;
+
+    private Boolean jsonLd;
+
+    private Payload(byte[] content) {
+        this.content = content;
+    }
+
+    /**
+     * @param content the raw content, not copied.
+     * @return the payload.
+     */
+    public static Payload of(byte[] content) {
+        return new Payload(content);
+    }
+
+    /**
+     * @param content the raw content, read to its end.
+     * @return the payload.
+     * @throws IOException if the content cannot be read.
+     */
+    public static Payload of(InputStream content) throws IOException {
+        return new Payload(content.readAllBytes());
+    }
+
+    /**
+     * @param content the raw content, read to its end.
+     * @param maxSize the maximum number of bytes that can be read from the content.
+     * @return the payload.
+     * @throws it.extared.dpp.validator.exceptions.PayloadTooLargeException as soon as the content
+     *     is read past the limit, before buffering the rest of it.
+     * @throws IOException if the content cannot be read.
+     */
+    public static Payload of(InputStream content, long maxSize) throws IOException {
+        return of(new BoundedInputStream(content, maxSize));
+    }
+
+    /**
+     * @return a stream over the raw content from its start.
+     */
+    public InputStream openStream() {
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * @return true if the payload is empty.
+     */
+    public boolean isEmpty() {
+        return content.length == 0;
+    }
+
+    /**
+     * @return the number of bytes of the payload.
+     */
+    public long size() {
+        return content.length;
+    }
+
+    /**
+     * @return the JSON tree of the payload, parsed on the first call.
+     * @throws IOException if the payload is not a valid JSON.
+     */
+    public JsonNode asJson() throws IOException {
+        if (json == null) json = objectMapper().readTree(content);
+        return json;
+    }
+
+    /**
+     * @return true if the payload is a JSON object with a top level {@code @context}, detected on
+     *     the first call. A leading context is found reading the first key only, otherwise the JSON
+     *     tree is parsed, as a plain JSON validation needs it anyway.
+     * @throws IOException if the payload is not a valid JSON.
+     */
+    public boolean isJsonLd() throws IOException {
+        if (jsonLd == null) {
+            if (json == null && startsWithContext()) jsonLd = true;
+            else jsonLd = JsonLdUtils.isJsonLd(asJson());
+        }
+        return jsonLd;
+    }
+
+    private boolean startsWithContext() throws IOException {
+        try (InputStream in = openStream()) {
+            return JsonLdUtils.startsWithContext(in);
+        }
+    }
+}
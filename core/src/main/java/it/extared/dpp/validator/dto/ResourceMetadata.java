@@ -22,8 +22,10 @@ import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import java.time.Duration;
+import org.hibernate.validator.constraints.time.DurationMin;
 
-/** Dto for resource metadata (id, name, description, version). */
+/** Dto for resource metadata (id, name, description, version, validation timeout). */
 @JsonTypeInfo(
         use = JsonTypeInfo.Id.NAME,
         include = JsonTypeInfo.As.EXISTING_PROPERTY,
@@ -53,6 +55,9 @@ public class ResourceMetadata {
             message = "Version must be a valid version number (e.g., 1.0, 1.0.0, 1.2.3.4)")
     private String version;
 
+    @DurationMin(millis = 1, message = "Validation timeout must be positive")
+    private Duration validationTimeout;
+
     protected ResourceMetadata(
             String name, String description, String version, String metadataType) {
         this(metadataType);
@@ -132,4 +137,15 @@ public class ResourceMetadata {
     public void setVersion(String version) {
         this.version = version;
     }
+
+    /**
+     * @return the maximum duration of a validation using the resource, overriding the default one.
+     */
+    public Duration getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    public void setValidationTimeout(Duration validationTimeout) {
+        this.validationTimeout = validationTimeout;
+    }
 }
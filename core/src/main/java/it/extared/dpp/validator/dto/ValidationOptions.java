@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.dto;
+
+/**
+ * The options of a validation request.
+ *
+ * @param failFast true to stop at the first violation and report the outcome only, without the
+ *     invalid properties.
+ * @param maxViolations the maximum number of violations to collect, null for the configured one.
+ *     The validation of a JSON-LD stops once reached, while the JSON schema validator always
+ *     collects every violation and the report of a plain JSON is only truncated to this number.
+ */
+public record ValidationOptions(boolean failFast, Integer maxViolations) {
+
+    /** Collects every violation up to the configured maximum. */
+    public static final ValidationOptions DEFAULT = new ValidationOptions(false, null);
+
+    /**
+     * @param limit the configured maximum number of violations.
+     * @return the options with the number of violations to collect resolved, never above the limit
+     *     and one in fail-fast mode.
+     */
+    public ValidationOptions resolve(int limit) {
+        int resolved =
+                failFast
+                        ? 1
+                        : maxViolations == null
+                                ? limit
+                                : Math.max(1, Math.min(maxViolations, limit));
+        return new ValidationOptions(failFast, resolved);
+    }
+}
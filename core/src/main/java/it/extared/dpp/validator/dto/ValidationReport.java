@@ -32,6 +32,8 @@ public class ValidationReport {
 
     private List<InvalidProperty> invalidProperties;
 
+    private boolean truncated;
+
     public boolean isValid() {
         return valid;
     }
@@ -52,6 +54,14 @@ public class ValidationReport {
         return validationType;
     }
 
+    /**
+     * @return true if the validation stopped collecting violations before the end, thus the invalid
+     *     properties are incomplete or omitted.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -104,5 +114,10 @@ public class ValidationReport {
             report.validationType = validationType;
             return this;
         }
+
+        public Builder withTruncated(boolean truncated) {
+            report.truncated = truncated;
+            return this;
+        }
     }
 }
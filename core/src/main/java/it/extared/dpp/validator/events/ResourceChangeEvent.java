@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.events;
+
+import it.extared.dpp.validator.ValidationType;
+import java.util.Objects;
+
+/**
+ * CDI event fired when a validation resource is added or removed, possibly by another node of the
+ * cluster. Beans holding local copies of validation resources observe it to stay in sync.
+ *
+ * @param resourceType the validation type of the resource, null for {@link Operation#RESYNC}.
+ * @param operation the operation performed on the resource.
+ * @param id the unique numeric identifier of the resource.
+ * @param name the name of the resource, null if not known.
+ * @param version the version of the resource, null if not known.
+ */
+public record ResourceChangeEvent(
+        ValidationType resourceType, Operation operation, Long id, String name, String version) {
+
+    public enum Operation {
+        ADDED,
+        REMOVED,
+        /** Changes might have been missed, every local copy should be dropped or reloaded. */
+        RESYNC
+    }
+
+    public static ResourceChangeEvent resync() {
+        return new ResourceChangeEvent(null, Operation.RESYNC, null, null, null);
+    }
+
+    /**
+     * @param type a validation type.
+     * @return true if the event is of the given type or if it is a resync event.
+     */
+    public boolean concerns(ValidationType type) {
+        return resourceType == null || Objects.equals(type, resourceType);
+    }
+
+    public boolean isRemoval() {
+        return Objects.equals(Operation.REMOVED, operation);
+    }
+
+    public boolean isResync() {
+        return Objects.equals(Operation.RESYNC, operation);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.exceptions;
+
+import java.time.Duration;
+
+/** Exception when a validation stage does not complete within the validation deadline. */
+public class ValidationTimeoutException extends RuntimeException {
+
+    private final String stage;
+
+    public ValidationTimeoutException(String stage, Duration timeout) {
+        super("Validation stage %s did not complete within %s".formatted(stage, timeout));
+        this.stage = stage;
+    }
+
+    /**
+     * @return the name of the stage that timed out.
+     */
+    public String getStage() {
+        return stage;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jobs;
+
+import it.extared.dpp.validator.exceptions.InvalidOpException;
+import it.extared.dpp.validator.utils.ArchiveReader;
+import it.extared.dpp.validator.utils.NdjsonReader;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/** The formats in which the items of a validation job can be submitted. */
+public enum JobFormat {
+    /** One JSON or JSON-LD item per line. */
+    NDJSON("application/x-ndjson"),
+    /** One JSON or JSON-LD item per file of a ZIP archive. */
+    ZIP("application/zip");
+
+    private final String mimeType;
+
+    JobFormat(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    /**
+     * @param content the submitted content.
+     * @param maxItemSize the maximum size of an item.
+     * @return the items of the content, read on demand.
+     */
+    public Iterator<NdjsonReader.Line> items(InputStream content, long maxItemSize) {
+        return switch (this) {
+            case NDJSON -> new NdjsonReader(content, maxItemSize);
+            case ZIP -> new ArchiveReader(content, maxItemSize);
+        };
+    }
+
+    /**
+     * @param contentType the declared content type.
+     * @return the format of the content.
+     */
+    public static JobFormat fromContentType(String contentType) {
+        return Stream.of(values())
+                .filter(f -> contentType != null && contentType.contains(f.mimeType))
+                .findFirst()
+                .orElseThrow(
+                        () ->
+                                new InvalidOpException(
+                                        "Content type %s is not supported for validation jobs"
+                                                .formatted(contentType)));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jobs;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import it.extared.dpp.validator.dto.BulkValidationItem;
+import it.extared.dpp.validator.dto.PagedResult;
+import it.extared.dpp.validator.jobs.dto.ValidationJob;
+import it.extared.dpp.validator.utils.NdjsonReader;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/** Base interface for a repository of validation jobs, their items and their results. */
+public interface ValidationJobRepository {
+
+    /**
+     * Creates a job receiving its items.
+     *
+     * @param conn the SQL connection.
+     * @param notBefore the time before which the job is not run, null to run it as soon as
+     *     possible.
+     * @return the unique numeric identifier of the job.
+     */
+    Uni<Long> createJob(SqlConnection conn, OffsetDateTime notBefore);
+
+    /**
+     * Stores a batch of items of a job still to be validated.
+     *
+     * @param conn the SQL connection.
+     * @param jobId the unique numeric identifier of the job.
+     * @param items the items.
+     * @return nothing.
+     */
+    Uni<Void> addItems(SqlConnection conn, Long jobId, List<NdjsonReader.Line> items);
+
+    /**
+     * Marks the jobs whose items stopped being received as failed, deleting their items.
+     *
+     * @param conn the SQL connection.
+     * @param receiveTimeout the time without items after which a job is expired.
+     * @return the number of expired jobs.
+     */
+    Uni<Integer> expireReceiving(SqlConnection conn, Duration receiveTimeout);
+
+    /**
+     * Marks a job as received, waiting for a worker.
+     *
+     * @param conn the SQL connection.
+     * @param jobId the unique numeric identifier of the job.
+     * @param totalItems the number of items of the job.
+     * @return nothing.
+     */
+    Uni<Void> markPending(SqlConnection conn, Long jobId, long totalItems);
+
+    /**
+     * Claims the oldest job due to run, or a running job whose worker sent no heartbeat, skipping
+     * the ones being claimed by other workers.
+     *
+     * @param conn the SQL connection.
+     * @param staleAfter the time after which a running job without heartbeat can be claimed.
+     * @return the claimed job, null if none.
+     */
+    Uni<ValidationJob> claimJob(SqlConnection conn, Duration staleAfter);
+
+    /**
+     * Refreshes the heartbeat of running jobs, so that they are not claimed by other workers
+     * however long a batch takes.
+     *
+     * @param conn the SQL connection.
+     * @param jobIds the unique numeric identifiers of the jobs.
+     * @return nothing.
+     */
+    Uni<Void> heartbeat(SqlConnection conn, Collection<Long> jobIds);
+
+    /**
+     * @param conn the SQL connection.
+     * @param jobId the unique numeric identifier of the job.
+     * @param limit the maximum number of items returned.
+     * @return the items of the job still to be validated, in input order.
+     */
+    Uni<List<NdjsonReader.Line>> findPendingItems(SqlConnection conn, Long jobId, int limit);
+
+    /**
+     * Stores the results of a batch of items of a job and updates the progress of the job.
+     *
+     * @param conn the SQL connection, in a transaction.
+     * @param jobId the unique numeric identifier of the job.
+     * @param results the results.
+     * @return nothing.
+     */
+    Uni<Void> addResults(SqlConnection conn, Long jobId, List<BulkValidationItem> results);
+
+    /**
+     * Marks a job as completed.
+     *
+     * @param conn the SQL connection.
+     * @param jobId the unique numeric identifier of the job.
+     * @return nothing.
+     */
+    Uni<Void> markCompleted(SqlConnection conn, Long jobId);
+
+    /**
+     * Marks a job as failed.
+     *
+     * @param conn the SQL connection.
+     * @param jobId the unique numeric identifier of the job.
+     * @param error the reason of the failure.
+     * @return nothing.
+     */
+    Uni<Void> markFailed(SqlConnection conn, Long jobId, String error);
+
+    /**
+     * @param conn the SQL connection.
+     * @param jobId the unique numeric identifier of the job.
+     * @return the job, failing with a {@link it.extared.dpp.validator.exceptions.NotFoundException}
+     *     if not found.
+     */
+    Uni<ValidationJob> findById(SqlConnection conn, Long jobId);
+
+    /**
+     * @param conn the SQL connection.
+     * @param jobId the unique numeric identifier of the job.
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results returned.
+     * @return the results of the validated items of the job, in input order.
+     */
+    Uni<PagedResult<BulkValidationItem>> findResults(
+            SqlConnection conn, Long jobId, int offset, int limit);
+}
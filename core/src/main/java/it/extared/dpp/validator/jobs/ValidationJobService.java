@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jobs;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.mutiny.sqlclient.Pool;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.dto.BulkValidationItem;
+import it.extared.dpp.validator.dto.PagedResult;
+import it.extared.dpp.validator.jobs.dto.ValidationJob;
+import it.extared.dpp.validator.utils.NdjsonReader;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import org.jboss.logging.Logger;
+
+/**
+ * Submits the asynchronous validation jobs and reports their progress and results. The submitted
+ * items are stored in batches as they are received, without holding the whole content in memory,
+ * and validated in background by the {@link ValidationJobWorker}s.
+ */
+@ApplicationScoped
+public class ValidationJobService {
+
+    private static final Logger LOGGER = Logger.getLogger(ValidationJobService.class);
+
+    @Inject Pool pool;
+
+    @Inject ValidationJobRepository repository;
+
+    @Inject DppValidatorConfig config;
+
+    /**
+     * Stores the items of a new job, that is run by a worker once stored.
+     *
+     * @param content the items.
+     * @param format the format of the items.
+     * @param notBefore the time before which the job is not run, null to run it as soon as
+     *     possible.
+     * @return the job.
+     */
+    public Uni<ValidationJob> submit(
+            InputStream content, JobFormat format, OffsetDateTime notBefore) {
+        Iterator<NdjsonReader.Line> items =
+                format.items(content, config.maxPayloadSize().asLongValue());
+        return pool.withConnection(c -> repository.createJob(c, notBefore))
+                .flatMap(
+                        id ->
+                                receive(id, items)
+                                        .onFailure()
+                                        .call(
+                                                e ->
+                                                        pool.withConnection(
+                                                                c ->
+                                                                        repository.markFailed(
+                                                                                c,
+                                                                                id,
+                                                                                e.getMessage())))
+                                        .flatMap(
+                                                total ->
+                                                        pool.withConnection(
+                                                                c ->
+                                                                        repository.markPending(
+                                                                                c, id, total)))
+                                        .flatMap(v -> getJob(id)));
+    }
+
+    private Uni<Long> receive(Long jobId, Iterator<NdjsonReader.Line> items) {
+        debug(LOGGER, () -> "receiving the items of validation job %s".formatted(jobId));
+        return Multi.createFrom()
+                .<NdjsonReader.Line>iterable(() -> items)
+                // the items are read by blocking on the input
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .group()
+                .intoLists()
+                .of(config.jobs().batchSize())
+                .onItem()
+                .transformToUniAndConcatenate(
+                        batch ->
+                                pool.withConnection(c -> repository.addItems(c, jobId, batch))
+                                        .replaceWith(batch.size()))
+                .collect()
+                .with(Collectors.summingLong(Integer::longValue));
+    }
+
+    /**
+     * @param jobId the unique numeric identifier of the job.
+     * @return the job.
+     */
+    public Uni<ValidationJob> getJob(Long jobId) {
+        return pool.withConnection(c -> repository.findById(c, jobId));
+    }
+
+    /**
+     * @param jobId the unique numeric identifier of the job.
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results returned.
+     * @return the results of the validated items of the job, in input order.
+     */
+    public Uni<PagedResult<BulkValidationItem>> getResults(Long jobId, int offset, int limit) {
+        return getJob(jobId)
+                .flatMap(
+                        j ->
+                                pool.withConnection(
+                                        c -> repository.findResults(c, jobId, offset, limit)));
+    }
+
+    /**
+     * @param jobId the unique numeric identifier of the job.
+     * @return the job, emitted every {@link DppValidatorConfig.Jobs#progressInterval()} until
+     *     completed or failed.
+     */
+    public Multi<ValidationJob> watch(Long jobId) {
+        return Multi.createBy()
+                .repeating()
+                .uni(() -> getJob(jobId))
+                .withDelay(config.jobs().progressInterval())
+                .whilst(j -> !j.getStatus().isTerminal());
+    }
+}
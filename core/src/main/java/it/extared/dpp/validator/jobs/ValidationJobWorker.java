@@ -0,0 +1,208 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jobs;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.ValidatorService;
+import it.extared.dpp.validator.dto.BulkValidationItem;
+import it.extared.dpp.validator.exceptions.ServiceOverloadedException;
+import it.extared.dpp.validator.jobs.dto.ValidationJob;
+import it.extared.dpp.validator.utils.NdjsonReader;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.logging.Logger;
+
+/**
+ * Runs the pending validation jobs in background, up to {@link DppValidatorConfig.Jobs#workers()}
+ * at the same time. The jobs are claimed through the repository, so that each job is run by a
+ * single worker among the nodes of the cluster, and their items are validated in batches, storing
+ * the results of a batch before reading the next one. The heartbeat of the running jobs is
+ * refreshed every {@link DppValidatorConfig.Jobs#heartbeatInterval()}, whatever the duration of a
+ * batch, and a job whose worker died is resumed from its first item without a result. A job whose
+ * upload was interrupted is marked failed after {@link DppValidatorConfig.Jobs#receiveTimeout()}.
+ */
+@ApplicationScoped
+public class ValidationJobWorker {
+
+    private static final Logger LOGGER = Logger.getLogger(ValidationJobWorker.class);
+
+    @Inject Pool pool;
+
+    @Inject ValidationJobRepository repository;
+
+    @Inject ValidatorService validatorService;
+
+    @Inject DppValidatorConfig config;
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Claims a job due to run, if a worker is free.
+     *
+     * @return nothing, once the job is claimed.
+     */
+    @Scheduled(
+            every = "${validator.jobs.poll-interval:5s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> poll() {
+        if (!config.jobs().enabled()) return Uni.createFrom().voidItem();
+        if (running.incrementAndGet() > config.jobs().workers()) {
+            running.decrementAndGet();
+            return Uni.createFrom().voidItem();
+        }
+        return pool.withConnection(c -> repository.claimJob(c, config.jobs().staleAfter()))
+                .onItemOrFailure()
+                .invoke(
+                        (job, e) -> {
+                            if (job != null) start(job);
+                            else running.decrementAndGet();
+                        })
+                .replaceWithVoid();
+    }
+
+    /**
+     * Refreshes the heartbeat of the jobs run by this node.
+     *
+     * @return nothing, once refreshed.
+     */
+    @Scheduled(
+            every = "${validator.jobs.heartbeat-interval:30s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> heartbeat() {
+        if (claimed.isEmpty()) return Uni.createFrom().voidItem();
+        List<Long> jobIds = List.copyOf(claimed);
+        return pool.withConnection(c -> repository.heartbeat(c, jobIds))
+                .onFailure()
+                .invoke(
+                        e ->
+                                LOGGER.errorf(
+                                        e, "unable to refresh the heartbeat of jobs %s", jobIds));
+    }
+
+    /**
+     * Marks the jobs whose upload was interrupted as failed.
+     *
+     * @return nothing, once marked.
+     */
+    @Scheduled(
+            every = "${validator.jobs.poll-interval:5s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> expire() {
+        if (!config.jobs().enabled()) return Uni.createFrom().voidItem();
+        return pool.withConnection(
+                        c -> repository.expireReceiving(c, config.jobs().receiveTimeout()))
+                .invoke(
+                        expired -> {
+                            if (expired > 0)
+                                LOGGER.warnf(
+                                        "%s validation jobs not received in full expired", expired);
+                        })
+                .replaceWithVoid();
+    }
+
+    private void start(ValidationJob job) {
+        LOGGER.infof("running validation job %s", job.getId());
+        claimed.add(job.getId());
+        run(job.getId())
+                .onTermination()
+                .invoke(
+                        () -> {
+                            claimed.remove(job.getId());
+                            running.decrementAndGet();
+                        })
+                .subscribe()
+                .with(
+                        // a job is done: looks for the next one without waiting for the poll
+                        v -> poll().subscribe().with(x -> {}, this::logPollFailure),
+                        e -> LOGGER.errorf(e, "unable to run validation job %s", job.getId()));
+    }
+
+    private void logPollFailure(Throwable e) {
+        LOGGER.error("unable to poll the pending validation jobs", e);
+    }
+
+    private Uni<Void> run(Long jobId) {
+        return Multi.createBy()
+                .repeating()
+                .uni(() -> runBatch(jobId))
+                .whilst(validated -> validated > 0)
+                .collect()
+                .last()
+                .flatMap(v -> pool.withConnection(c -> repository.markCompleted(c, jobId)))
+                .invoke(() -> LOGGER.infof("validation job %s completed", jobId))
+                .onFailure()
+                .recoverWithUni(
+                        e -> {
+                            LOGGER.errorf(e, "validation job %s failed", jobId);
+                            return pool.withConnection(
+                                    c -> repository.markFailed(c, jobId, e.getMessage()));
+                        });
+    }
+
+    /** Validates the next batch of items of a job, returning how many were validated. */
+    private Uni<Integer> runBatch(Long jobId) {
+        return pool.withConnection(
+                        c -> repository.findPendingItems(c, jobId, config.jobs().batchSize()))
+                .flatMap(
+                        items -> {
+                            if (items.isEmpty()) return Uni.createFrom().item(0);
+                            debug(
+                                    LOGGER,
+                                    () ->
+                                            "validating %s items of job %s"
+                                                    .formatted(items.size(), jobId));
+                            return Multi.createFrom()
+                                    .iterable(items)
+                                    .onItem()
+                                    .transformToUni(this::validate)
+                                    .merge(config.jobs().concurrency())
+                                    .collect()
+                                    .asList()
+                                    .flatMap(
+                                            results ->
+                                                    pool.withTransaction(
+                                                            c ->
+                                                                    repository.addResults(
+                                                                            c, jobId, results)))
+                                    .replaceWith(items.size());
+                        });
+    }
+
+    private Uni<BulkValidationItem> validate(NdjsonReader.Line item) {
+        return validatorService
+                .validateLine(item)
+                // the jobs give way to the synchronous validations rather than being shed
+                .onFailure(ServiceOverloadedException.class)
+                .retry()
+                .withBackOff(config.admission().retryAfter())
+                .indefinitely()
+                .map(r -> new BulkValidationItem(item.number(), r))
+                .onFailure()
+                .recoverWithItem(e -> BulkValidationItem.failed(item.number(), e));
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jobs.dto;
+
+/** The status of a validation job. */
+public enum JobStatus {
+    /** The items of the job are being received. */
+    RECEIVING,
+    /** The job waits for a worker. */
+    PENDING,
+    /** The items of the job are being validated. */
+    RUNNING,
+    /** Every item of the job was validated. */
+    COMPLETED,
+    /** The job could not be received or run. */
+    FAILED;
+
+    /**
+     * @return true if the job will make no more progress.
+     */
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
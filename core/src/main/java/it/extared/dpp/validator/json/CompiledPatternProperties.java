@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import it.extared.dpp.validator.json.dto.PatternProperty;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The pattern properties of a schema with their regular expressions compiled once, rather than on
+ * every scoring of the schema.
+ */
+public class CompiledPatternProperties {
+
+    private static final CompiledPatternProperties EMPTY = new CompiledPatternProperties(List.of());
+
+    private final List<CompiledPattern> patterns;
+
+    private CompiledPatternProperties(List<CompiledPattern> patterns) {
+        this.patterns = patterns;
+    }
+
+    /**
+     * @param patternProperties the pattern properties of a schema.
+     * @return the compiled pattern properties.
+     * @throws PatternSyntaxException if a regular expression is not valid.
+     */
+    public static CompiledPatternProperties compile(List<PatternProperty> patternProperties) {
+        if (patternProperties == null || patternProperties.isEmpty()) return EMPTY;
+        return new CompiledPatternProperties(
+                patternProperties.stream()
+                        .map(
+                                pp ->
+                                        new CompiledPattern(
+                                                Pattern.compile(pp.getPatternRegex()),
+                                                Set.copyOf(pp.getRequiredSubPaths())))
+                        .toList());
+    }
+
+    public static CompiledPatternProperties empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Counts the input prefixes matching a pattern property regex and having all the pattern
+     * required sub paths. A prefix matched by several patterns counts once per pattern.
+     *
+     * @param input the input sub paths grouped by first path segment, see {@link
+     *     SimilarityScorer#groupByPrefix(Collection)}.
+     * @return the number of matched pattern properties.
+     */
+    public int countMatched(Map<String, Set<String>> input) {
+        int matched = 0;
+        for (CompiledPattern pattern : patterns) {
+            for (Map.Entry<String, Set<String>> e : input.entrySet()) {
+                if (pattern.regex.matcher(e.getKey()).matches()
+                        && e.getValue().containsAll(pattern.requiredSubPaths)) matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * @return the number of pattern properties.
+     */
+    public int size() {
+        return patterns.size();
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    /**
+     * @return the approximate size in bytes of the compiled patterns.
+     */
+    public int weight() {
+        int weight = 0;
+        for (CompiledPattern p : patterns) {
+            weight += 16 * p.regex.pattern().length();
+            for (String sub : p.requiredSubPaths) weight += sub.length();
+        }
+        return weight;
+    }
+
+    private record CompiledPattern(Pattern regex, Set<String> requiredSubPaths) {}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import it.extared.dpp.validator.MatchingEngine;
+import it.extared.dpp.validator.dto.MatchResult;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/** Matcher delegating the similarity matching to the {@link JsonSchemaRepository}. */
+@ApplicationScoped
+public class DatabaseJsonSchemaMatcher implements JsonSchemaMatcher {
+
+    @Inject Pool pool;
+
+    @Inject JsonSchemaRepository repository;
+
+    @Override
+    public Uni<MatchResult<JsonNode>> findBestMatch(Set<String> jsonProperties) {
+        return pool.withConnection(
+                conn -> repository.findBestMatch(conn, jsonProperties.toArray(new String[0])));
+    }
+
+    @Override
+    public Uni<MatchResult<JsonNode>> findByDiscriminator(
+            Map<String, String> discriminators, Set<String> jsonProperties) {
+        if (discriminators.isEmpty()) return Uni.createFrom().item(MatchResult.emptyResult());
+        return pool.withConnection(
+                conn ->
+                        repository.findByDiscriminator(
+                                conn,
+                                discriminators.keySet().toArray(new String[0]),
+                                discriminators.values().toArray(new String[0]),
+                                jsonProperties.toArray(new String[0])));
+    }
+
+    @Override
+    public boolean canHandle(MatchingEngine engine) {
+        return Objects.equals(MatchingEngine.DATABASE, engine);
+    }
+}
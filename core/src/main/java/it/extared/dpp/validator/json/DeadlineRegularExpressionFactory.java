@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import com.networknt.schema.regex.RegularExpression;
+import com.networknt.schema.regex.RegularExpressionFactory;
+import it.extared.dpp.validator.Deadline;
+import java.util.regex.Pattern;
+
+/**
+ * JDK regular expressions, as the networknt default ones, matched against a char sequence calling
+ * {@link Deadline#checkpoint()} on every read. A catastrophic backtracking of a {@code pattern} or
+ * {@code patternProperties} expression is thus cancelled once the validation deadline passes.
+ */
+public class DeadlineRegularExpressionFactory implements RegularExpressionFactory {
+
+    private static final DeadlineRegularExpressionFactory INSTANCE =
+            new DeadlineRegularExpressionFactory();
+
+    public static DeadlineRegularExpressionFactory getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public RegularExpression getRegularExpression(String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        return value -> pattern.matcher(new DeadlineCharSequence(value)).find();
+    }
+
+    private record DeadlineCharSequence(CharSequence value) implements CharSequence {
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            Deadline.checkpoint();
+            return value.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineCharSequence(value.subSequence(start, end));
+        }
+
+        @Override
+        public String toString() {
+            return value.toString();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.MatchingEngine;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.cache.ReloadableIndex;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import it.extared.dpp.validator.json.dto.SchemaIndexEntry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Matcher scoring the schemas against an in-memory {@link JsonSchemaIndex}, avoiding a database
+ * round trip per request. The index is loaded at startup and kept in sync through {@link
+ * ResourceChangeEvent}. Until the first load completes matching is delegated to the database.
+ */
+@ApplicationScoped
+public class InMemoryJsonSchemaMatcher implements JsonSchemaMatcher {
+
+    @Inject Pool pool;
+
+    @Inject JsonSchemaRepository repository;
+
+    @Inject DppValidatorConfig config;
+
+    @Inject DatabaseJsonSchemaMatcher fallback;
+
+    private ReloadableIndex<SchemaIndexEntry, JsonSchemaIndex> index;
+
+    @PostConstruct
+    void init() {
+        index =
+                new ReloadableIndex<>(
+                        "json schemas",
+                        JsonSchemaIndex::build,
+                        () -> pool.withConnection(c -> repository.findIndexEntries(c)),
+                        id -> pool.withConnection(c -> repository.findIndexEntry(c, id)),
+                        SchemaIndexEntry::getId);
+    }
+
+    @Override
+    public Uni<MatchResult<JsonNode>> findBestMatch(Set<String> jsonProperties) {
+        JsonSchemaIndex current = index.get();
+        if (current == null) return fallback.findBestMatch(jsonProperties);
+        return Uni.createFrom().item(() -> current.findBestMatch(jsonProperties));
+    }
+
+    @Override
+    public Uni<MatchResult<JsonNode>> findByDiscriminator(
+            Map<String, String> discriminators, Set<String> jsonProperties) {
+        JsonSchemaIndex current = index.get();
+        if (current == null) return fallback.findByDiscriminator(discriminators, jsonProperties);
+        return Uni.createFrom()
+                .item(() -> current.findByDiscriminator(discriminators, jsonProperties));
+    }
+
+    @Override
+    public boolean canHandle(MatchingEngine engine) {
+        return Objects.equals(MatchingEngine.IN_MEMORY, engine);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (isEnabled()) reload();
+    }
+
+    void onResourceChange(@Observes ResourceChangeEvent event) {
+        if (isEnabled() && event.concerns(ValidationType.PLAIN_JSON)) index.apply(event);
+    }
+
+    /** Reloads every entry of the index from the repository. */
+    void reload() {
+        index.reload();
+    }
+
+    /**
+     * @return the current index, null if not loaded yet.
+     */
+    public JsonSchemaIndex getIndex() {
+        return index.get();
+    }
+
+    private boolean isEnabled() {
+        return canHandle(config.matching().engine());
+    }
+}
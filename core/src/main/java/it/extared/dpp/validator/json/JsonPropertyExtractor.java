@@ -20,6 +20,7 @@ import static it.extared.dpp.validator.utils.CommonUtils.debug;
 import com.fasterxml.jackson.databind.JsonNode;
 import io.quarkus.runtime.util.StringUtil;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +38,24 @@ public class JsonPropertyExtractor {
         return paths;
     }
 
+    /**
+     * Extracts the scalar values of the root properties, the only ones that can act as a
+     * discriminator between schema variants.
+     *
+     * @param json the input JSON.
+     * @return the root scalar values by property name.
+     */
+    public Map<String, String> extractDiscriminatorCandidates(JsonNode json) {
+        Map<String, String> candidates = new HashMap<>();
+        if (json == null || !json.isObject()) return candidates;
+        for (Map.Entry<String, JsonNode> field : json.properties()) {
+            JsonNode value = field.getValue();
+            if (value.isValueNode() && !value.isNull())
+                candidates.put(field.getKey(), value.asText());
+        }
+        return candidates;
+    }
+
     private void extractPathsRecursive(JsonNode node, String currentPath, Set<String> paths) {
         if (node == null) return;
         debug(
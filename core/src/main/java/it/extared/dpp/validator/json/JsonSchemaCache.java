@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+import static it.extared.dpp.validator.utils.JsonUtils.JSON_TO_SCHEMA;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.ValidationMetrics;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.cache.ResourceKey;
+import it.extared.dpp.validator.cache.ValidationResourceCache;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+/** Cache of compiled {@link JsonSchema}, keyed by schema id, name and version. */
+@ApplicationScoped
+public class JsonSchemaCache {
+
+    public static final String CACHE_NAME = "json-schemas";
+
+    private static final Logger LOGGER = Logger.getLogger(JsonSchemaCache.class);
+
+    @Inject DppValidatorConfig config;
+
+    @Inject MeterRegistry registry;
+
+    @Inject ValidationMetrics metrics;
+
+    private ValidationResourceCache<JsonSchema> cache;
+
+    @PostConstruct
+    void init() {
+        cache =
+                new ValidationResourceCache<>(
+                        CACHE_NAME,
+                        config.cache().jsonSchemas(),
+                        s -> s.getSchemaNode().toString().length(),
+                        registry);
+    }
+
+    /**
+     * Returns the compiled schema for the match result, compiling the schema content it holds when
+     * not already cached.
+     *
+     * @param matchResult a match result holding the schema content.
+     * @return the compiled schema.
+     */
+    public JsonSchema getOrCompile(MatchResult<JsonNode> matchResult) {
+        return cache.get(ResourceKey.of(matchResult), k -> compile(k, matchResult));
+    }
+
+    /**
+     * @param key the key of the schema.
+     * @return the compiled schema if cached, null otherwise.
+     */
+    public JsonSchema getIfPresent(ResourceKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Evicts the compiled schema with the given unique numeric identifier.
+     *
+     * @param id the schema id.
+     */
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Evicts the compiled schema with the given name and version.
+     *
+     * @param name the schema name.
+     * @param version the schema version.
+     */
+    public void evict(String name, String version) {
+        cache.invalidate(name, version);
+    }
+
+    /**
+     * Keeps the cache in sync with the changes made by this or other nodes.
+     *
+     * @param event the resource change event.
+     */
+    void onResourceChange(@Observes ResourceChangeEvent event) {
+        if (event.concerns(ValidationType.PLAIN_JSON)) cache.apply(event);
+    }
+
+    public ValidationResourceCache<JsonSchema> getCache() {
+        return cache;
+    }
+
+    private JsonSchema compile(ResourceKey key, MatchResult<JsonNode> matchResult) {
+        debug(LOGGER, () -> "compiling json schema %s".formatted(key));
+        long start = System.nanoTime();
+        JsonSchema schema = JSON_TO_SCHEMA.apply(matchResult.getResource());
+        metrics.record(
+                ValidationMetrics.Stage.COMPILATION, ValidationType.PLAIN_JSON, matchResult, start);
+        return schema;
+    }
+}
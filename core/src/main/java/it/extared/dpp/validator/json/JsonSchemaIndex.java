@@ -0,0 +1,395 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import static it.extared.dpp.validator.json.SimilarityScorer.INPUT_PENALTY;
+import static it.extared.dpp.validator.json.SimilarityScorer.MAX_CANDIDATES;
+import static it.extared.dpp.validator.json.SimilarityScorer.MIN_FINAL_SCORE;
+import static it.extared.dpp.validator.json.SimilarityScorer.MIN_PRELIMINARY_SCORE;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import it.extared.dpp.validator.cache.ResourceIndex;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.dto.MatchType;
+import it.extared.dpp.validator.json.dto.SchemaIndexEntry;
+import java.util.*;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Immutable inverted index from required path to the schemas and variants requiring it, scoring
+ * candidates with the {@link SimilarityScorer} functions.
+ *
+ * <p>Paths are interned in a {@link PathDictionary} and the required paths of every schema and
+ * variant are kept as compressed bitmaps, so that the matched count is a bitmap intersection
+ * cardinality. Documents (the base required paths of a schema or of one of its variants) are
+ * numbered by ascending number of required paths, so that only the range of documents able to reach
+ * the minimum preliminary score given the input size is considered. The dictionary is shared by the
+ * incremental updates, and compacted once most of its paths are no longer required by a schema.
+ *
+ * <p>Variants having a discriminator are also indexed by discriminator path and value, so that an
+ * input carrying a known discriminator value is resolved without scoring the whole catalog.
+ */
+public class JsonSchemaIndex implements ResourceIndex<SchemaIndexEntry, JsonSchemaIndex> {
+
+    private static final Comparator<Candidate> BY_SCORE =
+            Comparator.comparingDouble((Candidate c) -> c.score)
+                    .thenComparing(c -> c.schema.id, Comparator.reverseOrder());
+
+    // the unused paths kept in the dictionary before compacting it, whatever the number of paths
+    private static final int MIN_UNUSED_PATHS = 1024;
+
+    private final PathDictionary dictionary;
+
+    private final Map<Long, IndexedSchema> schemas;
+
+    private final Documents base;
+
+    private final Documents variants;
+
+    // discriminator path -> discriminator value -> variants
+    private final Map<String, Map<String, List<Document>>> discriminated;
+
+    private JsonSchemaIndex(PathDictionary dictionary, Map<Long, IndexedSchema> schemas) {
+        this.dictionary = dictionary;
+        this.schemas = schemas;
+        List<Document> baseDocs = new ArrayList<>();
+        List<Document> variantDocs = new ArrayList<>();
+        Map<String, Map<String, List<Document>>> discriminated = new HashMap<>();
+        for (IndexedSchema s : schemas.values()) {
+            baseDocs.add(new Document(s, s.paths));
+            for (IndexedVariant v : s.variants) {
+                variantDocs.add(new Document(s, v.paths));
+                if (v.discriminatorPath != null && v.discriminatorValue != null)
+                    discriminated
+                            .computeIfAbsent(v.discriminatorPath, k -> new HashMap<>())
+                            .computeIfAbsent(v.discriminatorValue, k -> new ArrayList<>())
+                            .add(new Document(s, RoaringBitmap.or(s.paths, v.paths)));
+            }
+        }
+        this.discriminated = discriminated;
+        this.base = new Documents(baseDocs, dictionary.size(), false);
+        this.variants = new Documents(variantDocs, dictionary.size(), true);
+    }
+
+    /**
+     * @param entries the index entries of the schemas.
+     * @return a new index of the schemas, with its own path dictionary.
+     */
+    public static JsonSchemaIndex build(Collection<SchemaIndexEntry> entries) {
+        PathDictionary dictionary = new PathDictionary();
+        Map<Long, IndexedSchema> schemas = new HashMap<>();
+        for (SchemaIndexEntry e : entries) schemas.put(e.getId(), encode(e, dictionary));
+        return new JsonSchemaIndex(dictionary, schemas);
+    }
+
+    public static JsonSchemaIndex empty() {
+        return new JsonSchemaIndex(new PathDictionary(), Map.of());
+    }
+
+    /**
+     * @param entry the index entry of a schema.
+     * @return a new index including the schema, replacing the one with the same id if any.
+     */
+    public JsonSchemaIndex with(SchemaIndexEntry entry) {
+        return update(List.of(entry), List.of());
+    }
+
+    /**
+     * @param id the unique numeric identifier of a schema.
+     * @return a new index without the schema.
+     */
+    public JsonSchemaIndex without(Long id) {
+        if (!schemas.containsKey(id)) return this;
+        return update(List.of(), List.of(id));
+    }
+
+    @Override
+    public JsonSchemaIndex update(Collection<SchemaIndexEntry> upserts, Collection<Long> removals) {
+        Map<Long, IndexedSchema> copy = new HashMap<>(schemas);
+        removals.forEach(copy::remove);
+        for (SchemaIndexEntry e : upserts) copy.put(e.getId(), encode(e, dictionary));
+        RoaringBitmap live = new RoaringBitmap();
+        for (IndexedSchema s : copy.values()) {
+            live.or(s.paths);
+            for (IndexedVariant v : s.variants) live.or(v.paths);
+        }
+        int unused = dictionary.size() - live.getCardinality();
+        if (unused <= Math.max(live.getCardinality(), MIN_UNUSED_PATHS))
+            return new JsonSchemaIndex(dictionary, copy);
+        copy.replaceAll((id, s) -> s.renumber(live));
+        return new JsonSchemaIndex(dictionary.retain(live), copy);
+    }
+
+    /**
+     * @return the number of indexed schemas.
+     */
+    @Override
+    public int size() {
+        return schemas.size();
+    }
+
+    public PathDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Finds the schema best matching the input paths. The returned match result holds the schema
+     * identity but not its content.
+     *
+     * @param input the paths of the input JSON.
+     * @return the best match or an empty result if no schema is similar enough.
+     */
+    public MatchResult<JsonNode> findBestMatch(Set<String> input) {
+        int inputCount = input.size();
+        if (inputCount == 0 || schemas.isEmpty()) return MatchResult.emptyResult();
+
+        RoaringBitmap inputPaths = dictionary.lookup(input);
+        Map<IndexedSchema, Double> preliminary = new HashMap<>();
+        base.score(inputPaths, inputCount, preliminary);
+        variants.score(inputPaths, inputCount, preliminary);
+
+        PriorityQueue<Candidate> top = new PriorityQueue<>(MAX_CANDIDATES + 1, BY_SCORE);
+        preliminary.forEach(
+                (schema, score) -> {
+                    if (score < MIN_PRELIMINARY_SCORE) return;
+                    top.add(new Candidate(schema, score));
+                    if (top.size() > MAX_CANDIDATES) top.poll();
+                });
+        return refine(top, input, inputPaths)
+                .map(
+                        s ->
+                                new MatchResult<JsonNode>(
+                                        s.id, s.name, s.version, null, MatchType.SIMILARITY_MATCH))
+                .orElse(MatchResult.emptyResult());
+    }
+
+    /**
+     * Finds the schema having a variant whose discriminator value equals the one of the input,
+     * choosing by {@link SimilarityScorer#discriminatorScore(int, int, int)} when several variants
+     * match. The returned match result holds the schema identity but not its content.
+     *
+     * @param discriminators the root scalar values of the input by property name.
+     * @param input the paths of the input JSON.
+     * @return the match or an empty result if no discriminator matches.
+     */
+    public MatchResult<JsonNode> findByDiscriminator(
+            Map<String, String> discriminators, Set<String> input) {
+        if (discriminated.isEmpty() || discriminators.isEmpty()) return MatchResult.emptyResult();
+        RoaringBitmap inputPaths = null;
+        IndexedSchema best = null;
+        double bestScore = 0.0;
+        for (Map.Entry<String, Map<String, List<Document>>> e : discriminated.entrySet()) {
+            String value = discriminators.get(e.getKey());
+            List<Document> hits = value != null ? e.getValue().get(value) : null;
+            if (hits == null) continue;
+            if (inputPaths == null) inputPaths = dictionary.lookup(input);
+            for (Document d : hits) {
+                double score =
+                        SimilarityScorer.discriminatorScore(
+                                RoaringBitmap.andCardinality(d.paths, inputPaths),
+                                d.paths.getCardinality(),
+                                input.size());
+                if (score < MIN_PRELIMINARY_SCORE) continue;
+                // same tie break of the similarity match, the oldest schema wins
+                if (best == null
+                        || score > bestScore
+                        || (score == bestScore && d.schema.id < best.id)) {
+                    best = d.schema;
+                    bestScore = score;
+                }
+            }
+        }
+        if (best == null) return MatchResult.emptyResult();
+        return new MatchResult<>(
+                best.id, best.name, best.version, null, MatchType.DISCRIMINATOR_MATCH);
+    }
+
+    private Optional<IndexedSchema> refine(
+            Collection<Candidate> candidates, Set<String> input, RoaringBitmap inputPaths) {
+        Map<String, Set<String>> inputByPrefix = null;
+        Candidate best = null;
+        for (Candidate c : candidates) {
+            CompiledPatternProperties patterns = c.schema.patterns;
+            if (!patterns.isEmpty()) {
+                if (inputByPrefix == null) inputByPrefix = SimilarityScorer.groupByPrefix(input);
+                c.score =
+                        SimilarityScorer.refinedScore(
+                                RoaringBitmap.andCardinality(c.schema.paths, inputPaths),
+                                c.schema.paths.getCardinality(),
+                                patterns.countMatched(inputByPrefix),
+                                patterns.size(),
+                                input.size());
+            }
+            if (c.score >= MIN_FINAL_SCORE && (best == null || BY_SCORE.compare(c, best) > 0))
+                best = c;
+        }
+        return Optional.ofNullable(best).map(c -> c.schema);
+    }
+
+    private static IndexedSchema encode(SchemaIndexEntry entry, PathDictionary dictionary) {
+        List<IndexedVariant> variants =
+                entry.getMetadata().getVariants().stream()
+                        .map(
+                                v ->
+                                        new IndexedVariant(
+                                                dictionary.encode(v.getRequiredPaths()),
+                                                v.getDiscriminatorPath(),
+                                                v.getDiscriminatorValue()))
+                        .toList();
+        return new IndexedSchema(
+                entry.getId(),
+                entry.getName(),
+                entry.getVersion(),
+                dictionary.encode(entry.getMetadata().getRequiredPaths()),
+                variants,
+                CompiledPatternProperties.compile(entry.getMetadata().getPatternProperties()));
+    }
+
+    /**
+     * A schema with its required paths encoded and its pattern properties compiled, the paths
+     * themselves are not retained.
+     */
+    private record IndexedSchema(
+            Long id,
+            String name,
+            String version,
+            RoaringBitmap paths,
+            List<IndexedVariant> variants,
+            CompiledPatternProperties patterns) {
+
+        IndexedSchema renumber(RoaringBitmap live) {
+            return new IndexedSchema(
+                    id,
+                    name,
+                    version,
+                    PathDictionary.renumber(paths, live),
+                    variants.stream()
+                            .map(
+                                    v ->
+                                            new IndexedVariant(
+                                                    PathDictionary.renumber(v.paths, live),
+                                                    v.discriminatorPath,
+                                                    v.discriminatorValue))
+                            .toList(),
+                    patterns);
+        }
+
+        // identity semantics, ids are unique within an index
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    private record IndexedVariant(
+            RoaringBitmap paths, String discriminatorPath, String discriminatorValue) {}
+
+    private record Document(IndexedSchema schema, RoaringBitmap paths) {}
+
+    /** Documents of the same kind numbered by ascending required paths count. */
+    private static class Documents {
+
+        private final boolean variant;
+        private final IndexedSchema[] owners;
+        private final RoaringBitmap[] paths;
+        private final int[] required;
+        // document bitmaps indexed by path identifier
+        private final RoaringBitmap[] postings;
+
+        Documents(List<Document> docs, int dictionarySize, boolean variant) {
+            this.variant = variant;
+            List<Document> sorted =
+                    docs.stream()
+                            .filter(d -> !d.paths.isEmpty())
+                            .sorted(Comparator.comparingInt(d -> d.paths.getCardinality()))
+                            .toList();
+            owners = new IndexedSchema[sorted.size()];
+            paths = new RoaringBitmap[sorted.size()];
+            required = new int[sorted.size()];
+            postings = new RoaringBitmap[dictionarySize];
+            for (int d = 0; d < sorted.size(); d++) {
+                Document doc = sorted.get(d);
+                owners[d] = doc.schema;
+                paths[d] = doc.paths;
+                required[d] = doc.paths.getCardinality();
+                int docId = d;
+                doc.paths.forEach(
+                        (int p) -> {
+                            if (postings[p] == null) postings[p] = new RoaringBitmap();
+                            postings[p].add(docId);
+                        });
+            }
+            for (RoaringBitmap posting : postings) if (posting != null) posting.runOptimize();
+        }
+
+        void score(RoaringBitmap inputPaths, int inputCount, Map<IndexedSchema, Double> scores) {
+            // documents outside these bounds cannot reach the minimum score even matching fully
+            double t = MIN_PRELIMINARY_SCORE;
+            double penalty = variant ? 1.0 : INPUT_PENALTY;
+            int minRequired =
+                    Math.max(1, (int) Math.ceil(t * penalty * inputCount / (1 + t * penalty - t)));
+            int maxRequired = (int) Math.floor(inputCount / t);
+            int from = lowerBound(minRequired);
+            int to = lowerBound(maxRequired + 1);
+            if (from >= to) return;
+
+            List<RoaringBitmap> matching = new ArrayList<>();
+            inputPaths.forEach(
+                    (int p) -> {
+                        if (p < postings.length && postings[p] != null) matching.add(postings[p]);
+                    });
+            RoaringBitmap candidates =
+                    RoaringBitmap.or(matching.iterator(), (long) from, (long) to);
+            candidates.forEach(
+                    (int d) -> {
+                        int matched = RoaringBitmap.andCardinality(paths[d], inputPaths);
+                        double score =
+                                variant
+                                        ? SimilarityScorer.variantScore(
+                                                matched, required[d], inputCount)
+                                        : SimilarityScorer.baseScore(
+                                                matched, required[d], inputCount);
+                        scores.merge(owners[d], score, Math::max);
+                    });
+        }
+
+        private int lowerBound(int value) {
+            int lo = 0;
+            int hi = required.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (required[mid] < value) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    private static class Candidate {
+        final IndexedSchema schema;
+        double score;
+
+        Candidate(IndexedSchema schema, double score) {
+            this.schema = schema;
+            this.score = score;
+        }
+    }
+}
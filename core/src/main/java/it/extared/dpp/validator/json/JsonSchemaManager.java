@@ -23,8 +23,10 @@ import io.vertx.mutiny.sqlclient.Pool;
 import it.extared.dpp.validator.ValidationResourceManager;
 import it.extared.dpp.validator.ValidationType;
 import it.extared.dpp.validator.dto.*;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
 import it.extared.dpp.validator.json.dto.SchemaMetadata;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import java.io.IOException;
 import java.io.InputStream;
@@ -36,6 +38,7 @@ public class JsonSchemaManager implements ValidationResourceManager {
     @Inject JsonSchemaRepository repository;
     @Inject ObjectMapper objectMapper;
     @Inject JsonSchemaMetadataExtractor extractor;
+    @Inject Event<ResourceChangeEvent> events;
 
     @Override
     public Uni<Long> addValidationResource(ResourceMetadata resourceMetadata, InputStream resource)
@@ -43,7 +46,16 @@ public class JsonSchemaManager implements ValidationResourceManager {
         JsonNode node = objectMapper.readTree(resource);
         SchemaMetadata meta = extractor.extractMetadata(node);
         return pool.withTransaction(
-                conn -> repository.addJsonSchema(conn, resourceMetadata, meta, node));
+                        conn -> repository.addJsonSchema(conn, resourceMetadata, meta, node))
+                .invoke(
+                        id ->
+                                events.fire(
+                                        new ResourceChangeEvent(
+                                                ValidationType.PLAIN_JSON,
+                                                ResourceChangeEvent.Operation.ADDED,
+                                                id,
+                                                resourceMetadata.getName(),
+                                                resourceMetadata.getVersion())));
     }
 
     @Override
@@ -62,7 +74,16 @@ public class JsonSchemaManager implements ValidationResourceManager {
 
     @Override
     public Uni<Void> removeValidationResource(Long resourceId) {
-        return pool.withTransaction(c -> repository.deleteSchema(c, resourceId));
+        return pool.withTransaction(c -> repository.deleteSchema(c, resourceId))
+                .invoke(
+                        () ->
+                                events.fire(
+                                        new ResourceChangeEvent(
+                                                ValidationType.PLAIN_JSON,
+                                                ResourceChangeEvent.Operation.REMOVED,
+                                                resourceId,
+                                                null,
+                                                null)));
     }
 
     @Override
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.MatchingEngine;
+import it.extared.dpp.validator.dto.MatchResult;
+import java.util.Map;
+import java.util.Set;
+
+/** Base interface for the engines finding the schema best matching an input JSON. */
+public interface JsonSchemaMatcher {
+
+    /**
+     * Finds the schema best matching the input paths. The schema content held by the result might
+     * be null, in which case it has to be retrieved by name and version.
+     *
+     * @param jsonProperties the paths of the input JSON.
+     * @return the match result.
+     */
+    Uni<MatchResult<JsonNode>> findBestMatch(Set<String> jsonProperties);
+
+    /**
+     * Finds the schema having a variant whose discriminator value equals the one of the input. When
+     * several variants match the one best covering the input paths is returned. The schema content
+     * held by the result might be null, in which case it has to be retrieved by name and version.
+     *
+     * @param discriminators the root scalar values of the input JSON by property name.
+     * @param jsonProperties the paths of the input JSON.
+     * @return the match result, empty if no discriminator matches.
+     */
+    Uni<MatchResult<JsonNode>> findByDiscriminator(
+            Map<String, String> discriminators, Set<String> jsonProperties);
+
+    /**
+     * @param engine the configured matching engine.
+     * @return true if this matcher implements the engine.
+     */
+    boolean canHandle(MatchingEngine engine);
+}
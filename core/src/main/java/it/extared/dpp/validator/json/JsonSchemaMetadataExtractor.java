@@ -37,6 +37,9 @@ public class JsonSchemaMetadataExtractor {
         SchemaMetadata metadata = new SchemaMetadata();
         debug(LOGGER, () -> "extracting metadata from schema \n %s".formatted(schema));
         handleSchema(schema, metadata);
+        metadata.setMinHashSignature(MinHash.signature(metadata.getRequiredPaths()));
+        metadata.getVariants()
+                .forEach(v -> v.setMinHashSignature(MinHash.signature(v.getRequiredPaths())));
         return metadata;
     }
 
@@ -161,7 +164,7 @@ public class JsonSchemaMetadataExtractor {
             if (disc.has(PROPERTY_NAME_KEY)) {
                 JsonNode nodeDisc = disc.get(PROPERTY_NAME_KEY);
                 debug(LOGGER, () -> "found discriminator %s".formatted(nodeDisc));
-                return new DiscriminatorInfo(disc.asText());
+                return new DiscriminatorInfo(nodeDisc.asText());
             }
         }
 
@@ -22,7 +22,10 @@ import it.extared.dpp.validator.dto.MatchResult;
 import it.extared.dpp.validator.dto.PagedResult;
 import it.extared.dpp.validator.dto.ResourceMetadata;
 import it.extared.dpp.validator.dto.SearchDto;
+import it.extared.dpp.validator.json.dto.SchemaIndexEntry;
 import it.extared.dpp.validator.json.dto.SchemaMetadata;
+import java.time.Duration;
+import java.util.List;
 
 /** Base interface for a repository of JSON schema validation resources. */
 public interface JsonSchemaRepository {
@@ -61,6 +64,23 @@ public interface JsonSchemaRepository {
      */
     Uni<MatchResult<JsonNode>> findBestMatch(SqlConnection connection, String[] jsonProperties);
 
+    /**
+     * Find the schema having a variant whose discriminator path and value are among the ones of a
+     * JSON to validate. When several variants match the one best covering the json properties is
+     * returned. The schema content is not retrieved.
+     *
+     * @param connection the SQL connection.
+     * @param discriminatorPaths the root property names of the JSON to validate.
+     * @param discriminatorValues the root property values, in the same order of the names.
+     * @param jsonProperties the array of json properties.
+     * @return the match result, empty if no discriminator matches.
+     */
+    Uni<MatchResult<JsonNode>> findByDiscriminator(
+            SqlConnection connection,
+            String[] discriminatorPaths,
+            String[] discriminatorValues,
+            String[] jsonProperties);
+
     /**
      * Find a schema by name and version. Returns it as a {@link MatchResult<JsonNode>}
      *
@@ -89,4 +109,28 @@ public interface JsonSchemaRepository {
      * @return the retrieved schema as a raw JSON string.
      */
     Uni<String> findById(SqlConnection connection, Long id);
+
+    /**
+     * Retrieve the similarity matching metadata of every stored schema.
+     *
+     * @param connection the SQL connection.
+     * @return the index entries of the schemas.
+     */
+    Uni<List<SchemaIndexEntry>> findIndexEntries(SqlConnection connection);
+
+    /**
+     * Retrieve the similarity matching metadata of a schema by its unique numeric identifier.
+     *
+     * @param connection the SQL connection.
+     * @param id the unique numeric identifier of the schema.
+     * @return the index entry of the schema, null if not found.
+     */
+    Uni<SchemaIndexEntry> findIndexEntry(SqlConnection connection, Long id);
+
+    /**
+     * @param connection the SQL connection.
+     * @param id the unique numeric identifier of the schema.
+     * @return the validation timeout overriding the default one for the schema, null if not set.
+     */
+    Uni<Duration> findValidationTimeout(SqlConnection connection, Long id);
 }
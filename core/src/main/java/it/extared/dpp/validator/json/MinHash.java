@@ -0,0 +1,125 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * MinHash signatures of path sets and their LSH band keys. Two sets share at least one band key
+ * with probability {@code 1 - (1 - J^r)^b}, where J is their Jaccard similarity, r the rows per
+ * band and b the number of bands. Hash functions are seeded with constants, so signatures computed
+ * by any node are comparable.
+ */
+public final class MinHash {
+
+    /** Number of hash functions, thus of the signature length. */
+    public static final int SIGNATURE_SIZE = 128;
+
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+
+    static {
+        long state = 0x5DEECE66DL;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(state);
+        }
+    }
+
+    private MinHash() {}
+
+    /**
+     * @param paths a set of paths.
+     * @return the MinHash signature of the set, every slot is {@link Integer#MAX_VALUE} if empty.
+     */
+    public static int[] signature(Collection<String> paths) {
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String path : paths) {
+            long hash = hash(path);
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                int h = (int) mix(hash ^ SEEDS[i]);
+                if (h < signature[i]) signature[i] = h;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * @param signature a MinHash signature.
+     * @param rowsPerBand the number of signature slots per band, must divide {@link
+     *     #SIGNATURE_SIZE}.
+     * @return the distinct band keys of the signature, empty for the signature of an empty set.
+     */
+    public static int[] bandKeys(int[] signature, int rowsPerBand) {
+        if (rowsPerBand <= 0 || SIGNATURE_SIZE % rowsPerBand != 0)
+            throw new IllegalArgumentException(
+                    "rows per band must divide %s, got %s".formatted(SIGNATURE_SIZE, rowsPerBand));
+        if (Arrays.stream(signature).allMatch(h -> h == Integer.MAX_VALUE)) return new int[0];
+        Set<Integer> keys = new LinkedHashSet<>();
+        for (int band = 0; band < SIGNATURE_SIZE / rowsPerBand; band++) {
+            long key = band;
+            for (int r = 0; r < rowsPerBand; r++) {
+                key = mix(key * 31 + signature[band * rowsPerBand + r]);
+            }
+            keys.add((int) key);
+        }
+        return keys.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @param signatures MinHash signatures.
+     * @param rowsPerBand the number of signature slots per band.
+     * @return the distinct band keys of all the signatures.
+     */
+    public static int[] bandKeys(Collection<int[]> signatures, int rowsPerBand) {
+        return signatures.stream()
+                .flatMapToInt(s -> Arrays.stream(bandKeys(s, rowsPerBand)))
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * @param a a MinHash signature.
+     * @param b another MinHash signature.
+     * @return the estimated Jaccard similarity of the two sets.
+     */
+    public static double estimateJaccard(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) if (a[i] == b[i]) equal++;
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    private static long hash(String path) {
+        // FNV-1a over the UTF-8 bytes, independent from the JVM string hashing
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : path.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Interns JSON paths to dense int identifiers, so that sets of paths can be represented as
+ * compressed bitmaps and intersected by popcount. Identifiers are never reassigned, lookups are
+ * safe while other threads intern new paths. Only the paths of the indexed schemas are interned,
+ * the identifiers no longer used are dropped by {@link #retain(RoaringBitmap)} into a new
+ * dictionary.
+ */
+public class PathDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * @param path a path.
+     * @return the identifier of the path, assigning a new one if not yet interned.
+     */
+    public int intern(String path) {
+        return ids.computeIfAbsent(path, p -> nextId.getAndIncrement());
+    }
+
+    /**
+     * @param paths the paths to encode.
+     * @return the bitmap of the path identifiers, interning the unknown paths.
+     */
+    public RoaringBitmap encode(Collection<String> paths) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (String path : paths) bitmap.add(intern(path));
+        bitmap.runOptimize();
+        return bitmap;
+    }
+
+    /**
+     * @param paths the paths to look up.
+     * @return the bitmap of the identifiers of the known paths, unknown paths are skipped.
+     */
+    public RoaringBitmap lookup(Collection<String> paths) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (String path : paths) {
+            Integer id = ids.get(path);
+            if (id != null) bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @param live the identifiers still in use.
+     * @return a new dictionary of the paths with a live identifier, renumbered densely in the order
+     *     of their identifiers, see {@link #renumber(RoaringBitmap, RoaringBitmap)}.
+     */
+    public PathDictionary retain(RoaringBitmap live) {
+        PathDictionary retained = new PathDictionary();
+        ids.forEach(
+                (path, id) -> {
+                    if (live.contains(id)) retained.ids.put(path, (int) live.rank(id) - 1);
+                });
+        retained.nextId.set(live.getCardinality());
+        return retained;
+    }
+
+    /**
+     * @param bitmap identifiers of this dictionary, all of them live.
+     * @param live the identifiers retained, see {@link #retain(RoaringBitmap)}.
+     * @return the identifiers of the same paths in the retained dictionary.
+     */
+    public static RoaringBitmap renumber(RoaringBitmap bitmap, RoaringBitmap live) {
+        RoaringBitmap renumbered = new RoaringBitmap();
+        bitmap.forEach((int id) -> renumbered.add((int) live.rank(id) - 1));
+        renumbered.runOptimize();
+        return renumbered;
+    }
+
+    /**
+     * @return the number of interned paths.
+     */
+    public int size() {
+        return nextId.get();
+    }
+}
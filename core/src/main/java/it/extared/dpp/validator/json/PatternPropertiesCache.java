@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.cache.ResourceKey;
+import it.extared.dpp.validator.cache.ValidationResourceCache;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import it.extared.dpp.validator.json.dto.PatternProperty;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.function.Supplier;
+import org.jboss.logging.Logger;
+
+/** Cache of the {@link CompiledPatternProperties} of the schemas, keyed by id, name and version. */
+@ApplicationScoped
+public class PatternPropertiesCache {
+
+    public static final String CACHE_NAME = "pattern-properties";
+
+    private static final Logger LOGGER = Logger.getLogger(PatternPropertiesCache.class);
+
+    @Inject DppValidatorConfig config;
+
+    @Inject MeterRegistry registry;
+
+    private ValidationResourceCache<CompiledPatternProperties> cache;
+
+    @PostConstruct
+    void init() {
+        cache =
+                new ValidationResourceCache<>(
+                        CACHE_NAME,
+                        config.cache().patternProperties(),
+                        CompiledPatternProperties::weight,
+                        registry);
+    }
+
+    /**
+     * Returns the compiled pattern properties of a schema, compiling them when not already cached.
+     *
+     * @param key the key of the schema.
+     * @param patternProperties supplies the pattern properties of the schema.
+     * @return the compiled pattern properties.
+     */
+    public CompiledPatternProperties getOrCompile(
+            ResourceKey key, Supplier<List<PatternProperty>> patternProperties) {
+        return cache.get(
+                key,
+                k -> {
+                    debug(LOGGER, () -> "compiling pattern properties of schema %s".formatted(k));
+                    return CompiledPatternProperties.compile(patternProperties.get());
+                });
+    }
+
+    /**
+     * Keeps the cache in sync with the changes made by this or other nodes.
+     *
+     * @param event the resource change event.
+     */
+    void onResourceChange(@Observes ResourceChangeEvent event) {
+        if (event.concerns(ValidationType.PLAIN_JSON)) cache.apply(event);
+    }
+
+    public ValidationResourceCache<CompiledPatternProperties> getCache() {
+        return cache;
+    }
+}
@@ -16,24 +16,38 @@
 package it.extared.dpp.validator.json;
 
 import static it.extared.dpp.validator.utils.CommonUtils.debug;
-import static it.extared.dpp.validator.utils.JsonUtils.JSON_TO_SCHEMA;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.networknt.schema.JsonNodePath;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.OutputFormat;
 import com.networknt.schema.ValidationMessage;
 import io.quarkus.arc.Unremovable;
 import io.smallrye.mutiny.Uni;
 import io.vertx.mutiny.sqlclient.Pool;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.MatchingEngine;
+import it.extared.dpp.validator.ValidationDeadlines;
+import it.extared.dpp.validator.ValidationExecutor;
+import it.extared.dpp.validator.ValidationMetrics;
+import it.extared.dpp.validator.ValidationMetrics.Stage;
 import it.extared.dpp.validator.ValidationType;
 import it.extared.dpp.validator.Validator;
+import it.extared.dpp.validator.cache.ResourceKey;
+import it.extared.dpp.validator.cache.ValidationResultCache;
 import it.extared.dpp.validator.dto.InvalidProperty;
 import it.extared.dpp.validator.dto.MatchResult;
 import it.extared.dpp.validator.dto.MatchType;
+import it.extared.dpp.validator.dto.Payload;
+import it.extared.dpp.validator.dto.ValidationOptions;
 import it.extared.dpp.validator.dto.ValidationReport;
+import it.extared.dpp.validator.exceptions.InvalidOpException;
+import it.extared.dpp.validator.utils.CanonicalJsonHash;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.jboss.logging.Logger;
@@ -44,35 +58,188 @@ public class PlainJsonValidator implements Validator {
     @Inject Pool pool;
     @Inject JsonSchemaRepository repository;
     @Inject JsonPropertyExtractor extractor;
-    @Inject ObjectMapper objectMapper;
+    @Inject JsonSchemaCache schemaCache;
+    @Inject Instance<JsonSchemaMatcher> matchers;
+    @Inject DppValidatorConfig config;
+    @Inject ValidationExecutor executor;
+    @Inject ValidationDeadlines deadlines;
+    @Inject ValidationResultCache resultCache;
+    @Inject ValidationMetrics metrics;
 
     private static final Logger LOGGER = Logger.getLogger(PlainJsonValidator.class);
 
     @Override
-    public Uni<ValidationReport> validate(byte[] input) throws IOException {
+    public Uni<ValidationReport> validate(Payload input, ValidationOptions options)
+            throws IOException {
         debug(LOGGER, () -> "validating json by similarity match");
-        JsonNode jsonNode = objectMapper.readTree(input);
-        Set<String> paths = extractor.extractAllPaths(jsonNode);
-        Uni<MatchResult<JsonNode>> schema =
-                pool.withConnection(
-                        conn -> repository.findBestMatch(conn, paths.toArray(new String[0])));
-        return schema.map(s -> getValidationReport(jsonNode, s));
+        long start = System.nanoTime();
+        JsonSchemaMatcher matcher = selectMatcher();
+        return executor.submit("json-parse", deadlines.defaultDeadline(start), () -> parse(input))
+                .flatMap(
+                        parsed ->
+                                metrics.timeMatch(
+                                                ValidationType.PLAIN_JSON,
+                                                executor.awaitQuery(
+                                                        findMatch(
+                                                                        matcher,
+                                                                        parsed.node(),
+                                                                        parsed.paths())
+                                                                .flatMap(this::resolveSchema)),
+                                                ResolvedSchema::match)
+                                        .flatMap(s -> validateCached(parsed, s, options, start)));
     }
 
     @Override
-    public Uni<ValidationReport> validate(String resourceName, String version, byte[] input)
+    public Uni<ValidationReport> validate(
+            String resourceName, String version, Payload input, ValidationOptions options)
             throws IOException {
         debug(
                 LOGGER,
                 () -> "validating json by name %s and version %s".formatted(resourceName, version));
-        JsonNode jsonNode = objectMapper.readTree(input);
+        long start = System.nanoTime();
         Uni<MatchResult<JsonNode>> schema =
-                pool.withConnection(c -> repository.findByNameAndVersion(c, resourceName, version));
-        return schema.map(s -> getValidationReport(jsonNode, s));
+                metrics.timeMatch(
+                        ValidationType.PLAIN_JSON,
+                        executor.awaitQuery(
+                                pool.withConnection(
+                                        c ->
+                                                repository.findByNameAndVersion(
+                                                        c, resourceName, version))));
+        return schema.flatMap(
+                s ->
+                        executor.submit(
+                                        "json-parse",
+                                        deadlines.defaultDeadline(start),
+                                        () -> {
+                                            JsonNode jsonNode = parseJson(input);
+                                            return new ParsedInput(jsonNode, null, hash(jsonNode));
+                                        })
+                                .flatMap(
+                                        parsed ->
+                                                validateCached(
+                                                        parsed,
+                                                        new ResolvedSchema(s, null),
+                                                        options,
+                                                        start)));
+    }
+
+    private ParsedInput parse(Payload input) throws Exception {
+        JsonNode jsonNode = parseJson(input);
+        Set<String> paths =
+                metrics.time(
+                        Stage.PATH_EXTRACTION,
+                        ValidationType.PLAIN_JSON,
+                        null,
+                        () -> extractor.extractAllPaths(jsonNode));
+        return new ParsedInput(jsonNode, paths, hash(jsonNode));
+    }
+
+    /** Hashes the input only when needed to look up its cached report. */
+    private String hash(JsonNode jsonNode) {
+        return resultCache.isEnabled() ? CanonicalJsonHash.of(jsonNode) : null;
+    }
+
+    private JsonNode parseJson(Payload input) throws Exception {
+        JsonNode jsonNode =
+                metrics.time(Stage.PARSE, ValidationType.PLAIN_JSON, null, input::asJson);
+        metrics.recordPayloadSize(ValidationType.PLAIN_JSON, input.size());
+        return jsonNode;
+    }
+
+    /** Returns the cached report of the input validated against the schema, if any. */
+    private Uni<ValidationReport> validateCached(
+            ParsedInput parsed, ResolvedSchema schema, ValidationOptions options, long start) {
+        return resultCache.get(
+                ValidationType.PLAIN_JSON,
+                parsed.hash(),
+                schema.match(),
+                options,
+                () -> validateOnExecutor(parsed.node(), schema, options, start));
+    }
+
+    /** Validates the input on the worker pool, under the deadline of the matched schema. */
+    private Uni<ValidationReport> validateOnExecutor(
+            JsonNode input, ResolvedSchema schema, ValidationOptions options, long start) {
+        return executor.awaitQuery(
+                        deadlines.deadlineOf(
+                                ValidationType.PLAIN_JSON,
+                                schema.match(),
+                                start,
+                                repository::findValidationTimeout))
+                .flatMap(
+                        d ->
+                                executor.submit(
+                                        "json-schema-validation",
+                                        d,
+                                        () -> getValidationReport(input, schema, options)));
+    }
+
+    private JsonSchemaMatcher selectMatcher() {
+        MatchingEngine engine = config.matching().engine();
+        return matchers.stream()
+                .filter(m -> m.canHandle(engine))
+                .findFirst()
+                .orElseThrow(
+                        () ->
+                                new InvalidOpException(
+                                        "No json schema matcher found for engine %s"
+                                                .formatted(engine)));
+    }
+
+    /**
+     * Resolves the schema by the input discriminator values first, falling back to the similarity
+     * match when none is found.
+     */
+    private Uni<MatchResult<JsonNode>> findMatch(
+            JsonSchemaMatcher matcher, JsonNode jsonNode, Set<String> paths) {
+        if (!config.matching().discriminatorEnabled()) return matcher.findBestMatch(paths);
+        Map<String, String> discriminators = extractor.extractDiscriminatorCandidates(jsonNode);
+        return matcher.findByDiscriminator(discriminators, paths)
+                .flatMap(
+                        m -> {
+                            if (!m.hasNoTemplate()) return Uni.createFrom().item(m);
+                            debug(LOGGER, () -> "no discriminator match, matching by similarity");
+                            return matcher.findBestMatch(paths);
+                        });
+    }
+
+    /**
+     * Resolves the schema of a match result, taking the compiled schema from the cache when
+     * present, fetching the schema content when missing otherwise. The compiled schema is carried
+     * along, as it could be evicted from the cache before the validation.
+     */
+    private Uni<ResolvedSchema> resolveSchema(MatchResult<JsonNode> matchResult) {
+        if (matchResult.hasNoTemplate() || matchResult.getResource() != null)
+            return Uni.createFrom().item(new ResolvedSchema(matchResult, null));
+        JsonSchema compiled = schemaCache.getIfPresent(ResourceKey.of(matchResult));
+        if (compiled != null)
+            return Uni.createFrom().item(new ResolvedSchema(matchResult, compiled));
+        debug(
+                LOGGER,
+                () ->
+                        "retrieving content of matched schema %s - %s"
+                                .formatted(matchResult.getName(), matchResult.getVersion()));
+        return pool.withConnection(
+                        c ->
+                                repository.findByNameAndVersion(
+                                        c, matchResult.getName(), matchResult.getVersion()))
+                .map(
+                        m -> {
+                            m.setMatchType(matchResult.getMatchType());
+                            return new ResolvedSchema(m, null);
+                        });
     }
 
     private ValidationReport getValidationReport(
-            JsonNode input, MatchResult<JsonNode> matchResult) {
+            JsonNode input, ResolvedSchema resolved, ValidationOptions options) throws Exception {
+        ValidationReport report = validate(input, resolved, options);
+        metrics.recordReport(ValidationType.PLAIN_JSON, resolved.match(), report);
+        return report;
+    }
+
+    private ValidationReport validate(
+            JsonNode input, ResolvedSchema resolved, ValidationOptions options) throws Exception {
+        MatchResult<JsonNode> matchResult = resolved.match();
         if (Objects.equals(matchResult.getMatchType(), MatchType.NONE)) {
             return ValidationReport.builder()
                     .withValid(false)
@@ -81,36 +248,73 @@ public class PlainJsonValidator implements Validator {
                     .build();
         }
         debug(LOGGER, () -> "validating json %s and building report".formatted(input));
-        return asValidationReport(
-                matchResult, JSON_TO_SCHEMA.apply(matchResult.getResource()).validate(input));
+        JsonSchema schema =
+                resolved.compiled() != null
+                        ? resolved.compiled()
+                        : schemaCache.getOrCompile(matchResult);
+        if (options.failFast()) {
+            // the boolean output format stops the validation at the first violation
+            boolean valid =
+                    metrics.time(
+                            Stage.VALIDATION,
+                            ValidationType.PLAIN_JSON,
+                            matchResult,
+                            () -> schema.validate(input, OutputFormat.BOOLEAN));
+            return withResource(ValidationReport.builder().withValid(valid), matchResult)
+                    .withTruncated(!valid)
+                    .build();
+        }
+        // the schema validator offers no way to stop after a number of violations, every one is
+        // collected and the report truncated to the maximum
+        Set<ValidationMessage> messages =
+                metrics.time(
+                        Stage.VALIDATION,
+                        ValidationType.PLAIN_JSON,
+                        matchResult,
+                        () -> schema.validate(input));
+        return metrics.time(
+                Stage.REPORT,
+                ValidationType.PLAIN_JSON,
+                matchResult,
+                () -> asValidationReport(matchResult, messages, options.maxViolations()));
     }
 
     public ValidationReport asValidationReport(
-            MatchResult<JsonNode> matchResult, Set<ValidationMessage> validationMessages) {
+            MatchResult<JsonNode> matchResult,
+            Set<ValidationMessage> validationMessages,
+            int maxViolations) {
         ValidationReport.Builder builder = ValidationReport.builder();
         builder.withValid(validationMessages == null || validationMessages.isEmpty());
         if (validationMessages != null && !validationMessages.isEmpty()) {
             builder =
-                    builder.withInvalidProperties(
-                            validationMessages.stream()
-                                    .map(
-                                            m -> {
-                                                JsonNodePath path = m.getInstanceLocation();
-                                                return new InvalidProperty(
-                                                        path != null
-                                                                ? path + "." + m.getProperty()
-                                                                : m.getProperty(),
-                                                        m.getMessage());
-                                            })
-                                    .toList());
+                    builder.withTruncated(validationMessages.size() > maxViolations)
+                            .withInvalidProperties(
+                                    validationMessages.stream()
+                                            .limit(maxViolations)
+                                            .map(
+                                                    m -> {
+                                                        JsonNodePath path = m.getInstanceLocation();
+                                                        return new InvalidProperty(
+                                                                path != null
+                                                                        ? path
+                                                                                + "."
+                                                                                + m.getProperty()
+                                                                        : m.getProperty(),
+                                                                m.getMessage());
+                                                    })
+                                            .toList());
         }
-        builder.withMessage(
+        return withResource(builder, matchResult).build();
+    }
+
+    private ValidationReport.Builder withResource(
+            ValidationReport.Builder builder, MatchResult<JsonNode> matchResult) {
+        return builder.withMessage(
                         "Validation performed using template found by %s"
                                 .formatted(matchResult.getMatchType().name()))
                 .withResourceName(matchResult.getName())
                 .withResourceVersion(matchResult.getVersion())
                 .withValidationType(ValidationType.PLAIN_JSON);
-        return builder.build();
     }
 
     @Override
@@ -122,4 +326,13 @@ public class PlainJsonValidator implements Validator {
     public Integer priority() {
         return 99;
     }
+
+    private record ParsedInput(JsonNode node, Set<String> paths, String hash) {}
+
+    /**
+     * @param match the matched schema.
+     * @param compiled the compiled schema found in the cache while matching, null if the match
+     *     holds the schema content.
+     */
+    private record ResolvedSchema(MatchResult<JsonNode> match, JsonSchema compiled) {}
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Weighted Jaccard similarity used to match an input JSON against the stored schemas. Every
+ * matching engine relies on these functions, so that the same input is always matched to the same
+ * schema regardless of the engine.
+ */
+public final class SimilarityScorer {
+
+    /** Weight of the input paths not required by the schema. */
+    public static final double INPUT_PENALTY = 0.6;
+
+    /** Minimum base or variant score for a schema to be a candidate. */
+    public static final double MIN_PRELIMINARY_SCORE = 0.2;
+
+    /** Minimum score, after pattern properties refinement, for a candidate to be selected. */
+    public static final double MIN_FINAL_SCORE = 0.3;
+
+    /** Maximum number of candidates refined with pattern properties. */
+    public static final int MAX_CANDIDATES = 5;
+
+    private SimilarityScorer() {}
+
+    /**
+     * @param matched the number of required paths found in the input.
+     * @param required the number of required paths of the schema.
+     * @param inputCount the number of paths of the input.
+     * @return the score of the schema base required paths.
+     */
+    public static double baseScore(int matched, int required, int inputCount) {
+        if (required == 0) return 0.0;
+        return matched / (required + INPUT_PENALTY * (inputCount - matched));
+    }
+
+    /**
+     * @param matched the number of required paths of the variant found in the input.
+     * @param required the number of required paths of the variant.
+     * @param inputCount the number of paths of the input.
+     * @return the plain Jaccard score of a schema variant.
+     */
+    public static double variantScore(int matched, int required, int inputCount) {
+        if (required == 0) return 0.0;
+        return (double) matched / (required + inputCount - matched);
+    }
+
+    /**
+     * Scores a variant resolved by discriminator against the union of its own and its schema base
+     * required paths. It only ranks variants sharing the same discriminator value and filters out
+     * coincidental values, thus the preliminary threshold applies.
+     *
+     * @param matched the number of base and variant required paths found in the input.
+     * @param required the number of distinct base and variant required paths.
+     * @param inputCount the number of paths of the input.
+     * @return the score of the discriminated variant.
+     */
+    public static double discriminatorScore(int matched, int required, int inputCount) {
+        return baseScore(matched, required, inputCount);
+    }
+
+    /**
+     * @param matchedBase the number of base required paths found in the input.
+     * @param requiredBase the number of base required paths of the schema.
+     * @param matchedPatterns the number of pattern properties satisfied by the input.
+     * @param patternCount the number of pattern properties of the schema.
+     * @param inputCount the number of paths of the input.
+     * @return the final score of a schema having pattern properties.
+     */
+    public static double refinedScore(
+            int matchedBase,
+            int requiredBase,
+            int matchedPatterns,
+            int patternCount,
+            int inputCount) {
+        int totalMatched = matchedBase + matchedPatterns;
+        int totalRequired = requiredBase + patternCount;
+        return totalMatched / (totalRequired + INPUT_PENALTY * (inputCount - totalMatched));
+    }
+
+    /**
+     * Groups the input paths by first segment, once per request, so that pattern properties are
+     * matched against each distinct prefix once.
+     *
+     * @param paths the input paths.
+     * @return the sub paths of every first segment, empty for single segment paths.
+     */
+    public static Map<String, Set<String>> groupByPrefix(Collection<String> paths) {
+        Map<String, Set<String>> groups = new HashMap<>();
+        for (String path : paths) {
+            int dotIndex = path.indexOf('.');
+            if (dotIndex > 0) {
+                groups.computeIfAbsent(path.substring(0, dotIndex), k -> new HashSet<>())
+                        .add(path.substring(dotIndex + 1));
+            } else {
+                groups.computeIfAbsent(path, k -> new HashSet<>());
+            }
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.json.dto;
+
+/**
+ * The identity and the similarity matching metadata of a stored schema, without its content. Used
+ * to build in-memory matching indexes.
+ */
+public class SchemaIndexEntry {
+
+    private final Long id;
+    private final String name;
+    private final String version;
+    private final SchemaMetadata metadata;
+
+    public SchemaIndexEntry(Long id, String name, String version, SchemaMetadata metadata) {
+        this.id = id;
+        this.name = name;
+        this.version = version;
+        this.metadata = metadata;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public SchemaMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaIndexEntry{"
+                + "id="
+                + id
+                + ", name='"
+                + name
+                + '\''
+                + ", version='"
+                + version
+                + '\''
+                + ", metadata="
+                + metadata
+                + '}';
+    }
+}
@@ -29,6 +29,7 @@ public class SchemaMetadata {
     private boolean hasVariants = false;
     private List<SchemaVariant> variants = new ArrayList<>();
     private List<PatternProperty> patternProperties = new ArrayList<>();
+    private int[] minHashSignature;
 
     public Set<String> getRequiredPaths() {
         return requiredPaths;
@@ -62,6 +63,18 @@ public class SchemaMetadata {
         this.patternProperties = patternProperties;
     }
 
+    /**
+     * @return the MinHash signature of the required paths, see {@link
+     *     it.extared.dpp.validator.json.MinHash}.
+     */
+    public int[] getMinHashSignature() {
+        return minHashSignature;
+    }
+
+    public void setMinHashSignature(int[] minHashSignature) {
+        this.minHashSignature = minHashSignature;
+    }
+
     @Override
     public String toString() {
         return "SchemaMetadata{"
@@ -26,6 +26,7 @@ public class SchemaVariant {
     private Set<String> requiredPaths = new HashSet<>();
     private String discriminatorPath;
     private String discriminatorValue;
+    private int[] minHashSignature;
 
     public String getVariantType() {
         return variantType;
@@ -67,6 +68,18 @@ public class SchemaVariant {
         this.discriminatorValue = discriminatorValue;
     }
 
+    /**
+     * @return the MinHash signature of the required paths, see {@link
+     *     it.extared.dpp.validator.json.MinHash}.
+     */
+    public int[] getMinHashSignature() {
+        return minHashSignature;
+    }
+
+    public void setMinHashSignature(int[] minHashSignature) {
+        this.minHashSignature = minHashSignature;
+    }
+
     @Override
     public String toString() {
         return "SchemaVariant{"
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdErrorCode;
+import com.apicatalog.jsonld.document.Document;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.jsonld.http.media.MediaType;
+import com.apicatalog.jsonld.loader.DocumentLoader;
+import com.apicatalog.jsonld.loader.DocumentLoaderOptions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import it.extared.dpp.validator.DppValidatorConfig;
+import jakarta.json.JsonStructure;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import org.jboss.logging.Logger;
+
+/**
+ * A JSON-LD {@link DocumentLoader} keeping the remote contexts in a bounded LRU cache, so that they
+ * are not dereferenced on every validation. Contexts are resolved in this order:
+ *
+ * <ol>
+ *   <li>the seed directory, whose contexts never expire;
+ *   <li>the in-memory cache, fresh until the configured TTL elapses;
+ *   <li>the on-disk cache, whose contexts are revalidated before use;
+ *   <li>the origin, fetched over HTTP(S) with an {@code If-None-Match} request when the ETag of a
+ *       stale context is known.
+ * </ol>
+ *
+ * A stale context is served when its origin is unreachable, and in offline mode contexts are never
+ * fetched. Only http and https URLs are fetched, other schemes must be seeded.
+ */
+public class CachingDocumentLoader implements DocumentLoader {
+
+    public static final String CACHE_NAME = "jsonld-contexts";
+
+    private static final Logger LOGGER = Logger.getLogger(CachingDocumentLoader.class);
+
+    private static final String ACCEPT = "application/ld+json, application/json;q=0.9, */*;q=0.1";
+
+    private static final String ETAG_SUFFIX = ".etag";
+
+    private static final String INDEX_FILE = "index.jsonld";
+
+    private final DppValidatorConfig.JsonLdContexts config;
+
+    private final Cache<URI, CachedContext> cache;
+
+    private final HttpClient client;
+
+    /**
+     * @param config the configuration of the loader.
+     * @param registry the meter registry where to publish the cache statistics.
+     */
+    public CachingDocumentLoader(DppValidatorConfig.JsonLdContexts config, MeterRegistry registry) {
+        this.config = config;
+        this.cache = Caffeine.newBuilder().maximumSize(config.maximumSize()).recordStats().build();
+        this.client =
+                HttpClient.newBuilder()
+                        .followRedirects(HttpClient.Redirect.NORMAL)
+                        .connectTimeout(config.fetchTimeout())
+                        .build();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public Document loadDocument(URI url, DocumentLoaderOptions options) throws JsonLdError {
+        CachedContext context = cache.getIfPresent(url);
+        if (context == null) context = fromDirectories(url);
+        if (context != null && (context.isFresh() || config.offline())) {
+            cache.put(url, context);
+            return context.toDocument(url);
+        }
+        if (config.offline() || !isRemote(url))
+            throw new JsonLdError(
+                    JsonLdErrorCode.LOADING_DOCUMENT_FAILED,
+                    "JSON-LD context %s is not available locally".formatted(url));
+        try {
+            context = fetch(url, context);
+        } catch (IOException e) {
+            if (context == null) throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, e);
+            LOGGER.warnf("unable to revalidate JSON-LD context %s, serving it stale", url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, e);
+        }
+        cache.put(url, context);
+        return context.toDocument(url);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return the hit, miss and eviction statistics of the in-memory cache.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private CachedContext fromDirectories(URI url) throws JsonLdError {
+        Optional<Path> seeded = config.seedDirectory().flatMap(d -> resolve(d, url));
+        if (seeded.isPresent()) {
+            debug(LOGGER, () -> "loading seeded JSON-LD context %s".formatted(url));
+            return read(seeded.get(), Instant.MAX);
+        }
+        Optional<Path> cached = config.cacheDirectory().flatMap(d -> resolve(d, url));
+        if (cached.isPresent()) {
+            debug(LOGGER, () -> "loading JSON-LD context %s from disk cache".formatted(url));
+            // unknown freshness, revalidated before use unless offline
+            return read(cached.get(), Instant.MIN);
+        }
+        return null;
+    }
+
+    private CachedContext fetch(URI url, CachedContext stale)
+            throws IOException, InterruptedException, JsonLdError {
+        debug(LOGGER, () -> "fetching JSON-LD context %s".formatted(url));
+        HttpRequest.Builder request =
+                HttpRequest.newBuilder(url).timeout(config.fetchTimeout()).header("Accept", ACCEPT);
+        if (stale != null && stale.etag != null) request.header("If-None-Match", stale.etag);
+        HttpResponse<byte[]> response =
+                client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        Instant expiresAt = Instant.now().plus(config.ttl());
+        if (response.statusCode() == 304 && stale != null) {
+            debug(LOGGER, () -> "JSON-LD context %s not modified".formatted(url));
+            return stale.withExpiry(expiresAt);
+        }
+        if (response.statusCode() != 200)
+            throw new IOException(
+                    "unexpected status %s fetching JSON-LD context %s"
+                            .formatted(response.statusCode(), url));
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        CachedContext context = CachedContext.parse(response.body(), etag, expiresAt);
+        config.cacheDirectory().ifPresent(d -> persist(d, url, response.body(), etag));
+        return context;
+    }
+
+    private CachedContext read(Path file, Instant expiresAt) throws JsonLdError {
+        try {
+            Path etagFile = file.resolveSibling(file.getFileName() + ETAG_SUFFIX);
+            String etag = Files.exists(etagFile) ? Files.readString(etagFile).trim() : null;
+            return CachedContext.parse(Files.readAllBytes(file), etag, expiresAt);
+        } catch (IOException e) {
+            throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, e);
+        }
+    }
+
+    private void persist(Path dir, URI url, byte[] content, String etag) {
+        Path file = toPath(dir, url);
+        if (file == null) return;
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, content);
+            Path etagFile = file.resolveSibling(file.getFileName() + ETAG_SUFFIX);
+            if (etag != null) Files.writeString(etagFile, etag, StandardCharsets.UTF_8);
+            else Files.deleteIfExists(etagFile);
+        } catch (IOException e) {
+            LOGGER.warnf(e, "unable to persist JSON-LD context %s", url);
+        }
+    }
+
+    private static Optional<Path> resolve(Path dir, URI url) {
+        return Optional.ofNullable(toPath(dir, url)).filter(Files::isRegularFile);
+    }
+
+    // {dir}/{host}/{path}, null when the url cannot be mapped inside the directory
+    private static Path toPath(Path dir, URI url) {
+        if (url.getHost() == null) return null;
+        String path = url.getPath() == null ? "" : url.getPath();
+        if (path.isEmpty() || path.endsWith("/")) path += INDEX_FILE;
+        Path root = dir.toAbsolutePath().normalize();
+        Path file = root.resolve(url.getHost()).resolve(path.substring(1)).normalize();
+        return file.startsWith(root) ? file : null;
+    }
+
+    private static boolean isRemote(URI url) {
+        return "http".equalsIgnoreCase(url.getScheme())
+                || "https".equalsIgnoreCase(url.getScheme());
+    }
+
+    /** A parsed context, shared among documents since JSON structures are immutable. */
+    private static class CachedContext {
+
+        private final JsonStructure content;
+        private final String etag;
+        private final Instant expiresAt;
+
+        private CachedContext(JsonStructure content, String etag, Instant expiresAt) {
+            this.content = content;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+        }
+
+        static CachedContext parse(byte[] content, String etag, Instant expiresAt)
+                throws JsonLdError {
+            JsonStructure json =
+                    JsonDocument.of(MediaType.JSON_LD, new ByteArrayInputStream(content))
+                            .getJsonContent()
+                            .orElseThrow(
+                                    () ->
+                                            new JsonLdError(
+                                                    JsonLdErrorCode.LOADING_DOCUMENT_FAILED,
+                                                    "empty JSON-LD context"));
+            return new CachedContext(json, etag, expiresAt);
+        }
+
+        boolean isFresh() {
+            return Instant.now().isBefore(expiresAt);
+        }
+
+        CachedContext withExpiry(Instant expiresAt) {
+            return new CachedContext(content, etag, expiresAt);
+        }
+
+        // documents are mutable, a new one wraps the shared content on every load
+        Document toDocument(URI url) {
+            JsonDocument document = JsonDocument.of(MediaType.JSON_LD, content);
+            document.setDocumentUrl(url);
+            return document;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld;
+
+import it.extared.dpp.validator.Deadline;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.impl.WrappedGraph;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * Graph calling {@link Deadline#checkpoint()} on every lookup and on every triple iterated, so that
+ * a SHACL validation, including its SPARQL constraints, is cancelled once the validation deadline
+ * passes.
+ */
+class DeadlineGraph extends WrappedGraph {
+
+    DeadlineGraph(Graph base) {
+        super(base);
+    }
+
+    @Override
+    public ExtendedIterator<Triple> find(Triple triple) {
+        Deadline.checkpoint();
+        return super.find(triple).filterKeep(DeadlineGraph::checkpoint);
+    }
+
+    @Override
+    public ExtendedIterator<Triple> find(Node s, Node p, Node o) {
+        Deadline.checkpoint();
+        return super.find(s, p, o).filterKeep(DeadlineGraph::checkpoint);
+    }
+
+    @Override
+    public boolean contains(Node s, Node p, Node o) {
+        Deadline.checkpoint();
+        return super.contains(s, p, o);
+    }
+
+    @Override
+    public boolean contains(Triple triple) {
+        Deadline.checkpoint();
+        return super.contains(triple);
+    }
+
+    private static boolean checkpoint(Triple triple) {
+        Deadline.checkpoint();
+        return true;
+    }
+}
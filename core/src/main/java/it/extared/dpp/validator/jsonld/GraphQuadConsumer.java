@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld;
+
+import com.apicatalog.rdf.api.RdfQuadConsumer;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+/**
+ * Adds the quads emitted by the titanium RDF serialization to a Jena {@link Graph}. Only the
+ * default graph is retained, as done by the Jena reader when parsing into a graph. Blank node
+ * labels are scoped to the consumer instance.
+ */
+class GraphQuadConsumer implements RdfQuadConsumer {
+
+    private final Graph graph;
+
+    private final Map<String, Node> blankNodes = new HashMap<>();
+
+    GraphQuadConsumer(Graph graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public RdfQuadConsumer quad(
+            String subject,
+            String predicate,
+            String object,
+            String datatype,
+            String language,
+            String direction,
+            String graphName) {
+        if (graphName != null) return this;
+        graph.add(
+                resource(subject),
+                resource(predicate),
+                object(object, datatype, language, direction));
+        return this;
+    }
+
+    private Node object(String value, String datatype, String language, String direction) {
+        if (RdfQuadConsumer.isLiteral(datatype, language, direction)) {
+            if (language == null)
+                return NodeFactory.createLiteralDT(
+                        value, TypeMapper.getInstance().getSafeTypeByName(datatype));
+            if (direction == null) return NodeFactory.createLiteralLang(value, language);
+            return NodeFactory.createLiteralDirLang(value, language, direction);
+        }
+        return resource(value);
+    }
+
+    private Node resource(String value) {
+        if (RdfQuadConsumer.isBlank(value))
+            return blankNodes.computeIfAbsent(value, k -> NodeFactory.createBlankNode());
+        return NodeFactory.createURI(value);
+    }
+}
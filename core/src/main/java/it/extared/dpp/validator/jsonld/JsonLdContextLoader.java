@@ -0,0 +1,42 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.extared.dpp.validator.DppValidatorConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/** Holds the {@link CachingDocumentLoader} shared by every JSON-LD expansion. */
+@ApplicationScoped
+public class JsonLdContextLoader {
+
+    @Inject DppValidatorConfig config;
+
+    @Inject MeterRegistry registry;
+
+    private CachingDocumentLoader loader;
+
+    @PostConstruct
+    void init() {
+        loader = new CachingDocumentLoader(config.jsonldContexts(), registry);
+    }
+
+    public CachingDocumentLoader getDocumentLoader() {
+        return loader;
+    }
+}
@@ -18,17 +18,14 @@ package it.extared.dpp.validator.jsonld;
 import static it.extared.dpp.validator.utils.CommonUtils.debug;
 import static it.extared.dpp.validator.utils.JsonLdUtils.extractNamespace;
 
-import com.apicatalog.jsonld.JsonLd;
-import com.apicatalog.jsonld.JsonLdError;
-import com.apicatalog.jsonld.document.JsonDocument;
 import io.quarkus.runtime.util.StringUtil;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.unchecked.Unchecked;
-import it.extared.dpp.validator.exceptions.InvalidOpException;
 import it.extared.dpp.validator.jsonld.dto.InputJsonLdMetadata;
+import it.extared.dpp.validator.jsonld.dto.ParsedJsonLd;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.json.*;
-import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import org.jboss.logging.Logger;
@@ -38,29 +35,26 @@ public class JsonLdMetadataExtractor {
 
     private static final Logger LOGGER = Logger.getLogger(JsonLdMetadataExtractor.class);
 
+    @Inject JsonLdPipeline pipeline;
+
     public Uni<InputJsonLdMetadata> extractMetadataDeferred(String jsonLd) {
-        return Uni.createFrom()
-                .deferred(Unchecked.supplier(() -> Uni.createFrom().item(extractMetadata(jsonLd))));
+        return pipeline.parseDeferred(jsonLd.getBytes(StandardCharsets.UTF_8))
+                .map(this::extractMetadata);
     }
 
-    private InputJsonLdMetadata extractMetadata(String jsonLd) throws JsonLdError {
+    /**
+     * @param parsed the parsed JSON-LD input.
+     * @return the metadata used to look up the SHACL template, extracted from the already expanded
+     *     input.
+     */
+    public InputJsonLdMetadata extractMetadata(ParsedJsonLd parsed) {
         InputJsonLdMetadata metadata = new InputJsonLdMetadata();
 
-        JsonDocument document = JsonDocument.of(new StringReader(jsonLd));
-
-        metadata.setContextUri(
-                document.getContextUrl() != null ? document.getContextUrl().toString() : null);
+        metadata.setContextUri(parsed.contextUri() != null ? parsed.contextUri().toString() : null);
 
-        JsonStructure structure =
-                document.getJsonContent()
-                        .orElseThrow(
-                                () ->
-                                        new InvalidOpException(
-                                                "The input json-ld seems to be empty"));
-        String vocab = extractVocabFromExpanded(structure);
+        String vocab = extractVocabFromExpanded(parsed.content());
         metadata.setVocabularyUri(vocab);
-        debug(LOGGER, () -> "expanding json-ld");
-        JsonArray expanded = JsonLd.expand(document).get();
+        JsonArray expanded = parsed.expanded();
 
         String type = extractTypeFromExpanded(expanded);
         debug(LOGGER, () -> "extracted type from json-ld is %s".formatted(type));
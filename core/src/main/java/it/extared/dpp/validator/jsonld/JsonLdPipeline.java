@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import com.apicatalog.jsonld.JsonLd;
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdOptions;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.jsonld.processor.ToRdfProcessor;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.unchecked.Unchecked;
+import it.extared.dpp.validator.exceptions.InvalidOpException;
+import it.extared.dpp.validator.jsonld.dto.ParsedJsonLd;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonStructure;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphMemFactory;
+import org.jboss.logging.Logger;
+
+/**
+ * Parses and expands a JSON-LD input once. The expanded form is then used both to extract the
+ * matching metadata and to build the RDF graph, without handing the raw bytes to the Jena reader
+ * that would parse and expand them again.
+ */
+@ApplicationScoped
+public class JsonLdPipeline {
+
+    private static final Logger LOGGER = Logger.getLogger(JsonLdPipeline.class);
+
+    @Inject JsonLdContextLoader contextLoader;
+
+    public Uni<ParsedJsonLd> parseDeferred(byte[] input) {
+        return Uni.createFrom()
+                .deferred(
+                        Unchecked.supplier(
+                                () ->
+                                        Uni.createFrom()
+                                                .item(parse(new ByteArrayInputStream(input)))));
+    }
+
+    /**
+     * @param input the JSON-LD input, decoded as UTF-8 while parsed.
+     * @return the parsed and expanded input.
+     * @throws JsonLdError if the input cannot be parsed or expanded.
+     */
+    public ParsedJsonLd parse(InputStream input) throws JsonLdError {
+        JsonDocument document =
+                JsonDocument.of(new InputStreamReader(input, StandardCharsets.UTF_8));
+        JsonStructure content =
+                document.getJsonContent()
+                        .orElseThrow(
+                                () ->
+                                        new InvalidOpException(
+                                                "The input json-ld seems to be empty"));
+        debug(LOGGER, () -> "expanding json-ld");
+        JsonArray expanded =
+                JsonLd.expand(document).loader(contextLoader.getDocumentLoader()).get();
+        return new ParsedJsonLd(document.getContextUrl(), content, expanded);
+    }
+
+    /**
+     * Streams the expanded form of the input into a new in-memory graph.
+     *
+     * @param parsed the parsed input.
+     * @return the RDF graph of the input.
+     * @throws JsonLdError if the expanded form cannot be converted to RDF.
+     */
+    public Graph toGraph(ParsedJsonLd parsed) throws JsonLdError {
+        Graph graph = GraphMemFactory.createDefaultGraph();
+        ToRdfProcessor.toRdf(new GraphQuadConsumer(graph), parsed.expanded(), new JsonLdOptions());
+        return graph;
+    }
+}
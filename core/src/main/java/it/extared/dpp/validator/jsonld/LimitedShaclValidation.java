@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.shacl.Shapes;
+import org.apache.jena.shacl.ValidationReport;
+import org.apache.jena.shacl.engine.ValidationContext;
+import org.apache.jena.shacl.parser.Shape;
+import org.apache.jena.shacl.validation.VLib;
+import org.apache.jena.shacl.validation.ValidationListener;
+import org.apache.jena.shacl.validation.event.ConstraintEvaluatedEvent;
+import org.apache.jena.shacl.validation.event.ValidationEvent;
+
+/**
+ * Runs a plain SHACL validation, as {@link org.apache.jena.shacl.ShaclValidator} does, stopping
+ * once a given number of constraints is violated instead of evaluating every constraint on every
+ * focus node. The report holds the violations collected up to the stop.
+ */
+class LimitedShaclValidation implements ValidationListener {
+
+    private final int maxViolations;
+
+    private ValidationContext context;
+
+    private int violations;
+
+    private LimitedShaclValidation(int maxViolations) {
+        this.maxViolations = maxViolations;
+    }
+
+    /**
+     * @param report the report of the violations collected.
+     * @param truncated true if the validation stopped before evaluating every constraint.
+     */
+    record Result(ValidationReport report, boolean truncated) {}
+
+    /**
+     * @param shapes the shapes to validate the data against.
+     * @param data the data graph.
+     * @param maxViolations the number of violated constraints after which the validation stops.
+     * @return the validation result.
+     */
+    static Result validate(Shapes shapes, Graph data, int maxViolations) {
+        LimitedShaclValidation listener = new LimitedShaclValidation(maxViolations);
+        ValidationContext context = ValidationContext.create(shapes, data, listener);
+        listener.context = context;
+        try {
+            for (Shape shape : shapes.getTargetShapes())
+                for (Node focusNode : VLib.focusNodes(data, shape))
+                    VLib.validateShape(context, data, shape, focusNode);
+        } catch (LimitReachedException e) {
+            return new Result(context.generateReport(), true);
+        }
+        return new Result(context.generateReport(), false);
+    }
+
+    @Override
+    public void onValidationEvent(ValidationEvent event) {
+        // constraints nested in logical constraints (e.g. sh:or) are evaluated in their own context
+        // and are not violations by themselves
+        if (event instanceof ConstraintEvaluatedEvent evaluated
+                && !evaluated.isValid()
+                && event.getValidationContext() == context
+                && ++violations >= maxViolations) throw new LimitReachedException();
+    }
+
+    private static class LimitReachedException extends RuntimeException {
+        LimitReachedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -19,25 +19,33 @@ import static it.extared.dpp.validator.utils.CommonUtils.debug;
 
 import io.quarkus.runtime.util.StringUtil;
 import io.smallrye.mutiny.Uni;
-import io.vertx.mutiny.core.Vertx;
 import io.vertx.mutiny.sqlclient.Pool;
+import it.extared.dpp.validator.ValidationDeadlines;
+import it.extared.dpp.validator.ValidationExecutor;
+import it.extared.dpp.validator.ValidationMetrics;
+import it.extared.dpp.validator.ValidationMetrics.Stage;
 import it.extared.dpp.validator.ValidationType;
 import it.extared.dpp.validator.Validator;
+import it.extared.dpp.validator.cache.ResourceKey;
+import it.extared.dpp.validator.cache.ValidationResultCache;
 import it.extared.dpp.validator.dto.InvalidProperty;
 import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.dto.Payload;
+import it.extared.dpp.validator.dto.ValidationOptions;
 import it.extared.dpp.validator.dto.ValidationReport;
 import it.extared.dpp.validator.exceptions.NotFoundException;
 import it.extared.dpp.validator.jsonld.dto.InputJsonLdMetadata;
+import it.extared.dpp.validator.jsonld.dto.ParsedJsonLd;
+import it.extared.dpp.validator.jsonld.dto.ShaclTemplateContent;
+import it.extared.dpp.validator.utils.CanonicalJsonHash;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.rdf.model.*;
-import org.apache.jena.shacl.ShaclValidator;
 import org.apache.jena.shacl.Shapes;
 import org.jboss.logging.Logger;
 
@@ -48,76 +56,213 @@ public class SemanticValidator implements Validator {
 
     @Inject ShaclTemplateRepository repository;
 
+    @Inject ShaclShapesCache shapesCache;
+
+    @Inject ShaclTemplateRouter router;
+
+    @Inject JsonLdPipeline pipeline;
+
     @Inject Pool pool;
 
-    @Inject Vertx vertx;
+    @Inject ValidationExecutor executor;
+
+    @Inject ValidationDeadlines deadlines;
+
+    @Inject ValidationResultCache resultCache;
+
+    @Inject ValidationMetrics metrics;
 
     private static final Logger LOGGER = Logger.getLogger(SemanticValidator.class);
 
     @Override
-    public Uni<ValidationReport> validate(byte[] input) throws IOException {
+    public Uni<ValidationReport> validate(Payload input, ValidationOptions options)
+            throws IOException {
         debug(LOGGER, () -> "validating by smart match");
-        Uni<InputJsonLdMetadata> metadata = extractor.extractMetadataDeferred(new String(input));
-        metadata = vertx.executeBlocking(metadata);
-        return metadata.flatMap(m -> findTemplateAndValidate(input, m));
+        long start = System.nanoTime();
+        return parse(input, true, start).flatMap(p -> findTemplateAndValidate(p, options, start));
     }
 
     @Override
-    public Uni<ValidationReport> validate(String resourceName, String version, byte[] input)
+    public Uni<ValidationReport> validate(
+            String resourceName, String version, Payload input, ValidationOptions options)
             throws IOException {
         debug(
                 LOGGER,
                 () -> "validating by name %s and version %s".formatted(resourceName, version));
-        Uni<MatchResult<String>> matchResult =
-                pool.withConnection(c -> repository.findByNameAndVersion(c, resourceName, version));
-        return matchResult.map(m -> getValidationReport(input, m));
+        long start = System.nanoTime();
+        Uni<MatchResult<ShaclTemplateContent>> matchResult =
+                metrics.timeMatch(
+                        ValidationType.RDF,
+                        executor.awaitQuery(
+                                pool.withConnection(
+                                        c ->
+                                                repository.findContentByNameAndVersion(
+                                                        c, resourceName, version))));
+        return matchResult.flatMap(
+                m ->
+                        parse(input, false, start)
+                                .flatMap(
+                                        p ->
+                                                validateCached(
+                                                        p,
+                                                        new ResolvedTemplate(m, null),
+                                                        options,
+                                                        start)));
+    }
+
+    /**
+     * Parses the input on the worker pool, hashing its content and extracting its metadata when
+     * asked for.
+     */
+    private Uni<ParsedInput> parse(Payload input, boolean withMetadata, long start) {
+        return executor.submit(
+                "jsonld-parse",
+                deadlines.defaultDeadline(start),
+                () -> {
+                    ParsedJsonLd parsed =
+                            metrics.time(
+                                    Stage.PARSE,
+                                    ValidationType.RDF,
+                                    null,
+                                    () -> pipeline.parse(input.openStream()));
+                    metrics.recordPayloadSize(ValidationType.RDF, input.size());
+                    // the input is hashed only when needed to look up its cached report
+                    String hash =
+                            resultCache.isEnabled() ? CanonicalJsonHash.of(parsed.content()) : null;
+                    InputJsonLdMetadata metadata =
+                            withMetadata
+                                    ? metrics.time(
+                                            Stage.METADATA_EXTRACTION,
+                                            ValidationType.RDF,
+                                            null,
+                                            () -> extractor.extractMetadata(parsed))
+                                    : null;
+                    return new ParsedInput(parsed, hash, metadata);
+                });
     }
 
     private Uni<ValidationReport> findTemplateAndValidate(
-            byte[] input, InputJsonLdMetadata metadata) {
-        Uni<MatchResult<String>> matchResult =
-                pool.withConnection(
-                        c ->
-                                repository
-                                        .findBestMatch(c, metadata)
+            ParsedInput parsed, ValidationOptions options, long start) {
+        Uni<ResolvedTemplate> template =
+                metrics.timeMatch(
+                        ValidationType.RDF,
+                        executor.awaitQuery(
+                                router.findBestMatch(parsed.metadata())
                                         .flatMap(
                                                 r -> {
                                                     if (r.hasNoTemplate()) {
                                                         throw new NotFoundException(
                                                                 "No template suitable to validate the input was found");
                                                     }
-                                                    return Uni.createFrom().item(r);
-                                                }));
-        return matchResult.map(m -> getValidationReport(input, m));
+                                                    return resolveTemplate(r);
+                                                })),
+                        ResolvedTemplate::match);
+        return template.flatMap(t -> validateCached(parsed, t, options, start));
     }
 
-    private ValidationReport getValidationReport(byte[] input, MatchResult<String> matchResult) {
-        ValidationReport.Builder report = validate(input, matchResult);
-        return report.withMessage(
-                        "Validation performed using template found by %s"
-                                .formatted(matchResult.getMatchType().name()))
-                .build();
+    /** Returns the cached report of the input validated against the template, if any. */
+    private Uni<ValidationReport> validateCached(
+            ParsedInput parsed, ResolvedTemplate template, ValidationOptions options, long start) {
+        return resultCache.get(
+                ValidationType.RDF,
+                parsed.hash(),
+                template.match(),
+                options,
+                () -> validateOnExecutor(parsed.parsed(), template, options, start));
     }
 
-    private ValidationReport.Builder validate(byte[] inputData, MatchResult<String> match) {
-        Model dataModel = ModelFactory.createDefaultModel();
-        dataModel.read(new ByteArrayInputStream(inputData), null, "JSON-LD");
-        Graph dataGraph = dataModel.getGraph();
-        Model shapesModel = ModelFactory.createDefaultModel();
-        shapesModel.read(new ByteArrayInputStream(match.getResource().getBytes()), null, "TURTLE");
-        Graph shapesGraph = shapesModel.getGraph();
-        Shapes shapes = Shapes.parse(shapesGraph);
-        org.apache.jena.shacl.ValidationReport report =
-                ShaclValidator.get().validate(shapes, dataGraph);
-
-        return asDto(match, report);
+    /** Validates the input on the worker pool, under the deadline of the matched template. */
+    private Uni<ValidationReport> validateOnExecutor(
+            ParsedJsonLd input, ResolvedTemplate template, ValidationOptions options, long start) {
+        return executor.awaitQuery(
+                        deadlines.deadlineOf(
+                                ValidationType.RDF,
+                                template.match(),
+                                start,
+                                repository::findValidationTimeout))
+                .flatMap(
+                        d ->
+                                executor.submit(
+                                        "shacl-validation",
+                                        d,
+                                        () -> getValidationReport(input, template, options)));
+    }
+
+    /**
+     * Resolves the template of a ranked match result, taking the parsed shapes from the cache when
+     * present, loading the template content otherwise. The parsed shapes are carried along, as they
+     * could be evicted from the cache before the validation.
+     */
+    private Uni<ResolvedTemplate> resolveTemplate(MatchResult<String> matchResult) {
+        Shapes shapes = shapesCache.getIfPresent(ResourceKey.of(matchResult));
+        if (shapes != null)
+            return Uni.createFrom()
+                    .item(
+                            new ResolvedTemplate(
+                                    new MatchResult<>(
+                                            matchResult.getId(),
+                                            matchResult.getName(),
+                                            matchResult.getVersion(),
+                                            null,
+                                            matchResult.getMatchType()),
+                                    shapes));
+        debug(
+                LOGGER,
+                () ->
+                        "retrieving content of matched template %s - %s"
+                                .formatted(matchResult.getName(), matchResult.getVersion()));
+        return pool.withConnection(
+                        c ->
+                                repository.findContentByNameAndVersion(
+                                        c, matchResult.getName(), matchResult.getVersion()))
+                .map(
+                        m -> {
+                            m.setMatchType(matchResult.getMatchType());
+                            return new ResolvedTemplate(m, null);
+                        });
+    }
+
+    private ValidationReport getValidationReport(
+            ParsedJsonLd parsed, ResolvedTemplate template, ValidationOptions options)
+            throws Exception {
+        MatchResult<ShaclTemplateContent> matchResult = template.match();
+        ValidationReport.Builder builder = validate(parsed, template, options);
+        ValidationReport report =
+                builder.withMessage(
+                                "Validation performed using template found by %s"
+                                        .formatted(matchResult.getMatchType().name()))
+                        .build();
+        metrics.recordReport(ValidationType.RDF, matchResult, report);
+        return report;
+    }
+
+    private ValidationReport.Builder validate(
+            ParsedJsonLd parsed, ResolvedTemplate template, ValidationOptions options)
+            throws Exception {
+        MatchResult<ShaclTemplateContent> match = template.match();
+        Shapes shapes =
+                template.shapes() != null ? template.shapes() : shapesCache.getOrParse(match);
+        LimitedShaclValidation.Result result =
+                metrics.time(
+                        Stage.VALIDATION,
+                        ValidationType.RDF,
+                        match,
+                        () -> {
+                            Graph dataGraph = new DeadlineGraph(pipeline.toGraph(parsed));
+                            return LimitedShaclValidation.validate(
+                                    shapes, dataGraph, options.maxViolations());
+                        });
+        return metrics.time(
+                Stage.REPORT, ValidationType.RDF, match, () -> asDto(match, result, options));
     }
 
     private ValidationReport.Builder asDto(
-            MatchResult<String> match, org.apache.jena.shacl.ValidationReport jenaReport) {
+            MatchResult<?> match, LimitedShaclValidation.Result result, ValidationOptions options) {
+        org.apache.jena.shacl.ValidationReport jenaReport = result.report();
+        boolean valid = jenaReport.conforms() && !result.truncated();
         ValidationReport.Builder builder = ValidationReport.builder();
-        builder.withValid(jenaReport.conforms());
-        if (!jenaReport.conforms()) {
+        builder.withValid(valid).withTruncated(result.truncated());
+        if (!valid && !options.failFast()) {
             List<InvalidProperty> invalidProperties = new ArrayList<>();
             Model reportModel = jenaReport.getModel();
 
@@ -128,6 +273,10 @@ public class SemanticValidator implements Validator {
                             reportModel.getProperty("http://www.w3.org/ns/shacl#result"),
                             (RDFNode) null);
             while (resultIter.hasNext()) {
+                if (invalidProperties.size() == options.maxViolations()) {
+                    builder.withTruncated(true);
+                    break;
+                }
                 Resource resultNode = resultIter.next().getResource();
                 invalidProperties.add(extractViolation(resultNode, reportModel));
             }
@@ -182,4 +331,18 @@ public class SemanticValidator implements Validator {
     public Integer priority() {
         return 99;
     }
+
+    /**
+     * @param parsed the parsed input.
+     * @param hash the canonical hash of the input, null if not needed.
+     * @param metadata the metadata of the input, null when validating by name and version.
+     */
+    private record ParsedInput(ParsedJsonLd parsed, String hash, InputJsonLdMetadata metadata) {}
+
+    /**
+     * @param match the matched template.
+     * @param shapes the parsed shapes found in the cache while matching, null if the match holds
+     *     the template content.
+     */
+    private record ResolvedTemplate(MatchResult<ShaclTemplateContent> match, Shapes shapes) {}
 }
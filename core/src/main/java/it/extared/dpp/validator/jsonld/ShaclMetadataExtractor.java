@@ -20,9 +20,7 @@ import static it.extared.dpp.validator.utils.JsonLdUtils.extractNamespace;
 
 import it.extared.dpp.validator.jsonld.dto.ShaclShapeMetadata;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.io.StringReader;
 import java.util.*;
-import org.apache.jena.graph.Graph;
 import org.apache.jena.rdf.model.*;
 import org.apache.jena.shacl.Shapes;
 import org.apache.jena.shacl.engine.Target;
@@ -38,11 +36,11 @@ public class ShaclMetadataExtractor {
     private static final Logger LOGGER = Logger.getLogger(ShaclMetadataExtractor.class);
 
     public List<ShaclShapeMetadata> extractAllShapes(String shacl) {
-        Model model = ModelFactory.createDefaultModel();
-        model.read(new StringReader(shacl), null, "TURTLE");
-        Graph graph = model.getGraph();
+        return extractAllShapes(ShaclShapesCache.parse(shacl));
+    }
 
-        Shapes shapes = Shapes.parse(graph);
+    public List<ShaclShapeMetadata> extractAllShapes(Shapes shapes) {
+        Model model = ModelFactory.createModelForGraph(shapes.getGraph());
 
         List<ShaclShapeMetadata> allMetadata = new ArrayList<>();
 
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.ValidationMetrics;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.cache.ResourceKey;
+import it.extared.dpp.validator.cache.ValidationResourceCache;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import it.extared.dpp.validator.jsonld.dto.ShaclTemplateContent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.shacl.Shapes;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.jboss.logging.Logger;
+
+/**
+ * Cache of parsed SHACL {@link Shapes}, keyed by template id, name and version. Parsed shapes are
+ * immutable and can be shared among concurrent validations.
+ */
+@ApplicationScoped
+public class ShaclShapesCache {
+
+    public static final String CACHE_NAME = "shacl-shapes";
+
+    // rough estimation of the memory used by a parsed triple
+    private static final long APPROX_TRIPLE_SIZE = 256;
+
+    private static final Logger LOGGER = Logger.getLogger(ShaclShapesCache.class);
+
+    @Inject DppValidatorConfig config;
+
+    @Inject MeterRegistry registry;
+
+    @Inject ValidationMetrics metrics;
+
+    private ValidationResourceCache<Shapes> cache;
+
+    @PostConstruct
+    void init() {
+        cache =
+                new ValidationResourceCache<>(
+                        CACHE_NAME,
+                        config.cache().shaclShapes(),
+                        ShaclShapesCache::weigh,
+                        registry);
+    }
+
+    /**
+     * Returns the parsed shapes for the match result, decoding the template content it holds when
+     * not already cached.
+     *
+     * @param matchResult a match result holding the SHACL template content.
+     * @return the parsed shapes.
+     */
+    public Shapes getOrParse(MatchResult<ShaclTemplateContent> matchResult) {
+        return cache.get(ResourceKey.of(matchResult), k -> parse(k, matchResult));
+    }
+
+    /**
+     * @param key the key of the template.
+     * @return the parsed shapes if cached, null otherwise.
+     */
+    public Shapes getIfPresent(ResourceKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * @param key the key of the template.
+     * @param shapes the parsed shapes of the template.
+     */
+    public void put(ResourceKey key, Shapes shapes) {
+        cache.put(key, shapes);
+    }
+
+    /**
+     * Evicts the shapes of the template with the given unique numeric identifier.
+     *
+     * @param id the template id.
+     */
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Evicts the shapes of the template with the given name and version.
+     *
+     * @param name the template name.
+     * @param version the template version.
+     */
+    public void evict(String name, String version) {
+        cache.invalidate(name, version);
+    }
+
+    /**
+     * Keeps the cache in sync with the changes made by this or other nodes.
+     *
+     * @param event the resource change event.
+     */
+    void onResourceChange(@Observes ResourceChangeEvent event) {
+        if (event.concerns(ValidationType.RDF)) cache.apply(event);
+    }
+
+    public ValidationResourceCache<Shapes> getCache() {
+        return cache;
+    }
+
+    private static int weigh(Shapes shapes) {
+        return (int) Math.min(Integer.MAX_VALUE, shapes.getGraph().size() * APPROX_TRIPLE_SIZE);
+    }
+
+    private Shapes parse(ResourceKey key, MatchResult<ShaclTemplateContent> matchResult) {
+        debug(LOGGER, () -> "parsing shacl template %s".formatted(key));
+        long start = System.nanoTime();
+        ShaclTemplateContent content = matchResult.getResource();
+        Shapes shapes = content.isBinary() ? parse(content.binary()) : parse(content.turtle());
+        metrics.record(ValidationMetrics.Stage.COMPILATION, ValidationType.RDF, matchResult, start);
+        return shapes;
+    }
+
+    /**
+     * Parses a SHACL template in Turtle format.
+     *
+     * @param template the template.
+     * @return the parsed shapes.
+     */
+    public static Shapes parse(String template) {
+        Model shapesModel = ModelFactory.createDefaultModel();
+        shapesModel.read(new StringReader(template), null, "TURTLE");
+        return Shapes.parse(shapesModel.getGraph());
+    }
+
+    /**
+     * Parses a SHACL template in RDF Thrift format, as produced by {@link #toBinary(Shapes)}.
+     *
+     * @param template the encoded template.
+     * @return the parsed shapes.
+     */
+    public static Shapes parse(byte[] template) {
+        Graph graph = GraphFactory.createDefaultGraph();
+        RDFParser.source(new ByteArrayInputStream(template)).lang(Lang.RDFTHRIFT).parse(graph);
+        return Shapes.parse(graph);
+    }
+
+    /**
+     * Encodes the graph of parsed shapes in RDF Thrift format, that is loaded without the cost of
+     * parsing Turtle.
+     *
+     * @param shapes the parsed shapes.
+     * @return the encoded shapes graph.
+     */
+    public static byte[] toBinary(Shapes shapes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RDFDataMgr.write(out, shapes.getGraph(), RDFFormat.RDF_THRIFT);
+        return out.toByteArray();
+    }
+}
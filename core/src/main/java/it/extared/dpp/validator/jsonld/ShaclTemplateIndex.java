@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld;
+
+import it.extared.dpp.validator.cache.ResourceIndex;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.dto.MatchType;
+import it.extared.dpp.validator.jsonld.dto.InputJsonLdMetadata;
+import it.extared.dpp.validator.jsonld.dto.TemplateIndexEntry;
+import java.util.*;
+
+/**
+ * Immutable routing index from target class, context URI and vocabulary URI to the SHACL templates
+ * declaring them. Lookups follow the precedence of the database match: exact type first, then
+ * context URI, then vocabulary URI. Among templates matching with the same precedence the oldest,
+ * i.e. the one with the lowest id, wins.
+ */
+public class ShaclTemplateIndex implements ResourceIndex<TemplateIndexEntry, ShaclTemplateIndex> {
+
+    private static final ShaclTemplateIndex EMPTY = new ShaclTemplateIndex(Map.of());
+
+    private final Map<Long, TemplateIndexEntry> templates;
+
+    private final Map<String, TreeSet<Long>> byTargetClass = new HashMap<>();
+
+    private final Map<String, TreeSet<Long>> byContextUri = new HashMap<>();
+
+    private final Map<String, TreeSet<Long>> byVocabularyUri = new HashMap<>();
+
+    private ShaclTemplateIndex(Map<Long, TemplateIndexEntry> templates) {
+        this.templates = templates;
+        for (TemplateIndexEntry t : templates.values()) {
+            t.getTargetClasses().forEach(c -> add(byTargetClass, c, t.getId()));
+            add(byContextUri, t.getContextUri(), t.getId());
+            t.getVocabularyUris().forEach(v -> add(byVocabularyUri, v, t.getId()));
+        }
+    }
+
+    /**
+     * @param entries the index entries of the templates.
+     * @return a new index of the templates.
+     */
+    public static ShaclTemplateIndex build(Collection<TemplateIndexEntry> entries) {
+        Map<Long, TemplateIndexEntry> templates = new HashMap<>();
+        for (TemplateIndexEntry e : entries) templates.put(e.getId(), e);
+        return new ShaclTemplateIndex(templates);
+    }
+
+    public static ShaclTemplateIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param entry the index entry of a template.
+     * @return a new index including the template, replacing the one with the same id if any.
+     */
+    public ShaclTemplateIndex with(TemplateIndexEntry entry) {
+        return update(List.of(entry), List.of());
+    }
+
+    /**
+     * @param id the unique numeric identifier of a template.
+     * @return a new index without the template.
+     */
+    public ShaclTemplateIndex without(Long id) {
+        if (!templates.containsKey(id)) return this;
+        return update(List.of(), List.of(id));
+    }
+
+    @Override
+    public ShaclTemplateIndex update(
+            Collection<TemplateIndexEntry> upserts, Collection<Long> removals) {
+        Map<Long, TemplateIndexEntry> copy = new HashMap<>(templates);
+        removals.forEach(copy::remove);
+        for (TemplateIndexEntry e : upserts) copy.put(e.getId(), e);
+        return new ShaclTemplateIndex(copy);
+    }
+
+    /**
+     * @return the number of indexed templates.
+     */
+    @Override
+    public int size() {
+        return templates.size();
+    }
+
+    /**
+     * Finds the template best matching the input metadata. The returned match result holds the
+     * template identity but not its content.
+     *
+     * @param metadata the metadata extracted from the input JSON-LD.
+     * @return the best match or an empty result if no template matches.
+     */
+    public MatchResult<String> findBestMatch(InputJsonLdMetadata metadata) {
+        MatchResult<String> result =
+                lookup(byTargetClass, metadata.getType(), MatchType.EXACT_TYPE_MATCH);
+        if (result == null)
+            result = lookup(byContextUri, metadata.getContextUri(), MatchType.CONTEXT_URI_MATCH);
+        if (result == null)
+            result =
+                    lookup(
+                            byVocabularyUri,
+                            metadata.getVocabularyUri(),
+                            MatchType.VOCABULARY_MATCH);
+        return result != null ? result : MatchResult.emptyResult();
+    }
+
+    private MatchResult<String> lookup(
+            Map<String, TreeSet<Long>> routes, String key, MatchType matchType) {
+        if (key == null) return null;
+        TreeSet<Long> ids = routes.get(key);
+        if (ids == null) return null;
+        TemplateIndexEntry t = templates.get(ids.first());
+        return new MatchResult<>(t.getId(), t.getName(), t.getVersion(), null, matchType);
+    }
+
+    private static void add(Map<String, TreeSet<Long>> routes, String key, Long id) {
+        if (key != null) routes.computeIfAbsent(key, k -> new TreeSet<>()).add(id);
+    }
+}
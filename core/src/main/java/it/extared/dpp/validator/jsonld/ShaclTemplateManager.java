@@ -20,14 +20,19 @@ import io.smallrye.mutiny.Uni;
 import io.vertx.mutiny.sqlclient.Pool;
 import it.extared.dpp.validator.ValidationResourceManager;
 import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.cache.ResourceKey;
 import it.extared.dpp.validator.dto.*;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
 import it.extared.dpp.validator.jsonld.dto.ShaclShapeMetadata;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
+import org.apache.jena.shacl.Shapes;
 
 @ApplicationScoped
 public class ShaclTemplateManager implements ValidationResourceManager {
@@ -40,22 +45,56 @@ public class ShaclTemplateManager implements ValidationResourceManager {
 
     @Inject ObjectMapper objectMapper;
 
+    @Inject ShaclShapesCache shapesCache;
+
+    @Inject Event<ResourceChangeEvent> events;
+
     @Override
     public Uni<Long> addValidationResource(ResourceMetadata resourceMetadata, InputStream resource)
             throws IOException {
         byte[] content = resource.readAllBytes();
-        String strContent = new String(content);
-        List<ShaclShapeMetadata> metadataList =
-                metadataExtractor.extractAllShapes(new String(content));
+        String strContent = new String(content, StandardCharsets.UTF_8);
+        Shapes shapes = ShaclShapesCache.parse(strContent);
+        List<ShaclShapeMetadata> metadataList = metadataExtractor.extractAllShapes(shapes);
+        byte[] binaryContent = ShaclShapesCache.toBinary(shapes);
         return pool.withTransaction(
-                c ->
-                        shaclTemplateRepository.addShaclTemplate(
-                                c, resourceMetadata, metadataList, strContent));
+                        c ->
+                                shaclTemplateRepository.addShaclTemplate(
+                                        c,
+                                        resourceMetadata,
+                                        metadataList,
+                                        strContent,
+                                        binaryContent))
+                .invoke(
+                        id -> {
+                            shapesCache.put(
+                                    new ResourceKey(
+                                            id,
+                                            resourceMetadata.getName(),
+                                            resourceMetadata.getVersion()),
+                                    shapes);
+                            events.fire(
+                                    new ResourceChangeEvent(
+                                            ValidationType.RDF,
+                                            ResourceChangeEvent.Operation.ADDED,
+                                            id,
+                                            resourceMetadata.getName(),
+                                            resourceMetadata.getVersion()));
+                        });
     }
 
     @Override
     public Uni<Void> removeValidationResource(Long resourceId) {
-        return pool.withConnection(c -> shaclTemplateRepository.deleteTemplate(c, resourceId));
+        return pool.withTransaction(c -> shaclTemplateRepository.deleteTemplate(c, resourceId))
+                .invoke(
+                        () ->
+                                events.fire(
+                                        new ResourceChangeEvent(
+                                                ValidationType.RDF,
+                                                ResourceChangeEvent.Operation.REMOVED,
+                                                resourceId,
+                                                null,
+                                                null)));
     }
 
     @Override
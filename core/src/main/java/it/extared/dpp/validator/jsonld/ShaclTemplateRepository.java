@@ -23,6 +23,9 @@ import it.extared.dpp.validator.dto.ResourceMetadata;
 import it.extared.dpp.validator.dto.SearchDto;
 import it.extared.dpp.validator.jsonld.dto.InputJsonLdMetadata;
 import it.extared.dpp.validator.jsonld.dto.ShaclShapeMetadata;
+import it.extared.dpp.validator.jsonld.dto.ShaclTemplateContent;
+import it.extared.dpp.validator.jsonld.dto.TemplateIndexEntry;
+import java.time.Duration;
 import java.util.List;
 
 /** Base interface for a SHACL template repository. */
@@ -67,6 +70,18 @@ public interface ShaclTemplateRepository {
      */
     Uni<MatchResult<String>> findByNameAndVersion(SqlConnection conn, String name, String version);
 
+    /**
+     * Find a template by its associated name and version, with the content to load it for a
+     * validation: its RDF Thrift encoding, falling back to the Turtle source when not stored.
+     *
+     * @param conn the SQL connection.
+     * @param name the name associated to the template.
+     * @param version the version associated to the template.
+     * @return the match result containing the template content.
+     */
+    Uni<MatchResult<ShaclTemplateContent>> findContentByNameAndVersion(
+            SqlConnection conn, String name, String version);
+
     /**
      * Persists a shacl template content together with its resource metadata and content metadata.
      *
@@ -74,13 +89,15 @@ public interface ShaclTemplateRepository {
      * @param resourceMetadata the resource metadata.
      * @param metadataList the metadata of the SHACL shapes.
      * @param template the SHACL template.
+     * @param binaryTemplate the RDF Thrift encoding of the parsed template.
      * @return the unique numeric identifier of the template.
      */
     Uni<Long> addShaclTemplate(
             SqlConnection conn,
             ResourceMetadata resourceMetadata,
             List<ShaclShapeMetadata> metadataList,
-            String template);
+            String template,
+            byte[] binaryTemplate);
 
     /**
      * Retrieve a SHACL template as a string.
@@ -90,4 +107,24 @@ public interface ShaclTemplateRepository {
      * @return the SHACL template as a string.
      */
     Uni<String> findById(SqlConnection connection, Long id);
+
+    /**
+     * @param connection the SQL connection.
+     * @return the routing metadata of every stored template.
+     */
+    Uni<List<TemplateIndexEntry>> findIndexEntries(SqlConnection connection);
+
+    /**
+     * @param connection the SQL connection.
+     * @param id the unique numeric identifier of the template.
+     * @return the routing metadata of the template, null if not found.
+     */
+    Uni<TemplateIndexEntry> findIndexEntry(SqlConnection connection, Long id);
+
+    /**
+     * @param connection the SQL connection.
+     * @param id the unique numeric identifier of the template.
+     * @return the validation timeout overriding the default one for the template, null if not set.
+     */
+    Uni<Duration> findValidationTimeout(SqlConnection connection, Long id);
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld;
+
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.MatchingEngine;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.cache.ReloadableIndex;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import it.extared.dpp.validator.jsonld.dto.InputJsonLdMetadata;
+import it.extared.dpp.validator.jsonld.dto.TemplateIndexEntry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.Objects;
+
+/**
+ * Routes an input JSON-LD to the SHACL template validating it. With the in-memory matching engine
+ * templates are routed through a {@link ShaclTemplateIndex} loaded at startup and kept in sync
+ * through {@link ResourceChangeEvent}, otherwise, or until the first load completes, through the
+ * {@link ShaclTemplateRepository}.
+ */
+@ApplicationScoped
+public class ShaclTemplateRouter {
+
+    @Inject Pool pool;
+
+    @Inject ShaclTemplateRepository repository;
+
+    @Inject DppValidatorConfig config;
+
+    private ReloadableIndex<TemplateIndexEntry, ShaclTemplateIndex> index;
+
+    @PostConstruct
+    void init() {
+        index =
+                new ReloadableIndex<>(
+                        "shacl templates",
+                        ShaclTemplateIndex::build,
+                        () -> pool.withConnection(c -> repository.findIndexEntries(c)),
+                        id -> pool.withConnection(c -> repository.findIndexEntry(c, id)),
+                        TemplateIndexEntry::getId);
+    }
+
+    /**
+     * Finds the template best matching the input metadata. The template content held by the result
+     * might be null, in which case it has to be retrieved by name and version.
+     *
+     * @param metadata the metadata extracted from the input JSON-LD.
+     * @return the match result.
+     */
+    public Uni<MatchResult<String>> findBestMatch(InputJsonLdMetadata metadata) {
+        ShaclTemplateIndex current = index.get();
+        if (current == null) return pool.withConnection(c -> repository.findBestMatch(c, metadata));
+        return Uni.createFrom().item(() -> current.findBestMatch(metadata));
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (isEnabled()) reload();
+    }
+
+    void onResourceChange(@Observes ResourceChangeEvent event) {
+        if (isEnabled() && event.concerns(ValidationType.RDF)) index.apply(event);
+    }
+
+    /** Reloads every entry of the index from the repository. */
+    void reload() {
+        index.reload();
+    }
+
+    /**
+     * @return the current index, null if not loaded yet.
+     */
+    public ShaclTemplateIndex getIndex() {
+        return index.get();
+    }
+
+    private boolean isEnabled() {
+        return Objects.equals(MatchingEngine.IN_MEMORY, config.matching().engine());
+    }
+}
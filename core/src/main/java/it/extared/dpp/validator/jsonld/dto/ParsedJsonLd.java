@@ -0,0 +1,30 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld.dto;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonStructure;
+import java.net.URI;
+
+/**
+ * A JSON-LD input parsed and expanded once, from which both the matching metadata and the RDF graph
+ * are derived.
+ *
+ * @param contextUri the context url of the document, if any.
+ * @param content the JSON content as read from the input.
+ * @param expanded the expanded form of the content.
+ */
+public record ParsedJsonLd(URI contextUri, JsonStructure content, JsonArray expanded) {}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld.dto;
+
+/**
+ * The content of a stored SHACL template as loaded for validation: the pre-parsed RDF Thrift
+ * encoding of its shapes graph, or the Turtle source for templates stored before the binary form
+ * was introduced.
+ *
+ * @param binary the RDF Thrift encoding of the shapes graph, null if not stored.
+ * @param turtle the Turtle source, set only when the binary form is missing.
+ */
+public record ShaclTemplateContent(byte[] binary, String turtle) {
+
+    public boolean isBinary() {
+        return binary != null;
+    }
+}
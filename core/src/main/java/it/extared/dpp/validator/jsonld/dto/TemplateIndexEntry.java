@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.jsonld.dto;
+
+import java.util.Set;
+
+/**
+ * The identity and the routing metadata of a stored SHACL template, without its content. Used to
+ * build in-memory routing indexes.
+ */
+public class TemplateIndexEntry {
+
+    private final Long id;
+    private final String name;
+    private final String version;
+    private final String contextUri;
+    private final Set<String> targetClasses;
+    private final Set<String> vocabularyUris;
+
+    public TemplateIndexEntry(
+            Long id,
+            String name,
+            String version,
+            String contextUri,
+            Set<String> targetClasses,
+            Set<String> vocabularyUris) {
+        this.id = id;
+        this.name = name;
+        this.version = version;
+        this.contextUri = contextUri;
+        this.targetClasses = targetClasses;
+        this.vocabularyUris = vocabularyUris;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getContextUri() {
+        return contextUri;
+    }
+
+    public Set<String> getTargetClasses() {
+        return targetClasses;
+    }
+
+    public Set<String> getVocabularyUris() {
+        return vocabularyUris;
+    }
+
+    @Override
+    public String toString() {
+        return "TemplateIndexEntry{"
+                + "id="
+                + id
+                + ", name='"
+                + name
+                + '\''
+                + ", version='"
+                + version
+                + '\''
+                + ", contextUri='"
+                + contextUri
+                + '\''
+                + ", targetClasses="
+                + targetClasses
+                + ", vocabularyUris="
+                + vocabularyUris
+                + '}';
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads the files of a ZIP archive one at a time as the items of a bulk validation, numbered by
+ * their position in the archive, so that only the file being read is held in memory. Directories
+ * are skipped. A file larger than the maximum size is discarded while reading it and returned
+ * without content.
+ */
+public class ArchiveReader implements Iterator<NdjsonReader.Line> {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ZipInputStream input;
+
+    private final long maxEntrySize;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private long entryNumber;
+
+    private NdjsonReader.Line next;
+
+    public ArchiveReader(InputStream input, long maxEntrySize) {
+        this.input = new ZipInputStream(input);
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readEntry();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public NdjsonReader.Line next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        NdjsonReader.Line entry = next;
+        next = null;
+        return entry;
+    }
+
+    private NdjsonReader.Line readEntry() throws IOException {
+        ZipEntry entry = input.getNextEntry();
+        while (entry != null && entry.isDirectory()) entry = input.getNextEntry();
+        if (entry == null) return null;
+        entryNumber++;
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        long size = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            size += read;
+            if (size <= maxEntrySize) content.write(buffer, 0, read);
+        }
+        if (size > maxEntrySize) return new NdjsonReader.Line(entryNumber, null);
+        return new NdjsonReader.Line(entryNumber, content.toByteArray());
+    }
+}
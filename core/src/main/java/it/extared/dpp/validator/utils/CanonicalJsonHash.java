@@ -0,0 +1,171 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashes a JSON document independently of the order of the keys of its objects and of its
+ * whitespace. The document is digested with SHA-256 as a length prefixed encoding of its values,
+ * with the keys of each object sorted.
+ *
+ * <p>Numbers are hashed as the validators read them, since a validation can depend on their
+ * notation: JSON-LD maps an integer to {@code xsd:integer} and a decimal to {@code xsd:double}, and
+ * a schema can compare numbers by their representation. Integral and decimal numbers are encoded
+ * with different tags, and a decimal as the unscaled value and the scale of its decimal form, not
+ * stripped of its trailing zeros, so that {@code 1} and {@code 1.0} get different hashes. The
+ * encoding size is bounded by the digits of the number whatever its exponent.
+ */
+public final class CanonicalJsonHash {
+
+    private final MessageDigest digest;
+
+    private CanonicalJsonHash() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @param node a JSON document parsed by Jackson.
+     * @return the hex encoded canonical hash of the document.
+     */
+    public static String of(JsonNode node) {
+        CanonicalJsonHash hash = new CanonicalJsonHash();
+        hash.update(node);
+        return hash.hex();
+    }
+
+    /**
+     * @param value a JSON document parsed as a Jakarta JSON value.
+     * @return the hex encoded canonical hash of the document.
+     */
+    public static String of(JsonValue value) {
+        CanonicalJsonHash hash = new CanonicalJsonHash();
+        hash.update(value);
+        return hash.hex();
+    }
+
+    private void update(JsonNode node) {
+        switch (node.getNodeType()) {
+            case OBJECT -> {
+                List<String> keys = new ArrayList<>(node.size());
+                for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) keys.add(it.next());
+                keys.sort(null);
+                tag('o', keys.size());
+                for (String key : keys) {
+                    string(key);
+                    update(node.get(key));
+                }
+            }
+            case ARRAY -> {
+                tag('a', node.size());
+                for (JsonNode element : node) update(element);
+            }
+            case STRING -> string(node.textValue());
+            case NUMBER -> {
+                if (node.isIntegralNumber()) integral(node.bigIntegerValue());
+                // a double out of range is read by Jackson as an infinity, with no decimal form
+                else if ((node.isDouble() || node.isFloat())
+                        && !Double.isFinite(node.doubleValue())) nonFinite(node.doubleValue());
+                else decimal(node.decimalValue());
+            }
+            case BOOLEAN -> tag(node.booleanValue() ? 't' : 'f', 0);
+            default -> tag('z', 0);
+        }
+    }
+
+    private void update(JsonValue value) {
+        switch (value.getValueType()) {
+            case OBJECT -> {
+                JsonObject object = value.asJsonObject();
+                List<String> keys = new ArrayList<>(object.keySet());
+                keys.sort(null);
+                tag('o', keys.size());
+                for (String key : keys) {
+                    string(key);
+                    update(object.get(key));
+                }
+            }
+            case ARRAY -> {
+                JsonArray array = value.asJsonArray();
+                tag('a', array.size());
+                for (JsonValue element : array) update(element);
+            }
+            case STRING -> string(((JsonString) value).getString());
+            case NUMBER -> {
+                // the decimal form read by the JSON-LD processor, integral if its scale is zero
+                JsonNumber number = (JsonNumber) value;
+                if (number.isIntegral()) integral(number.bigIntegerValue());
+                else decimal(number.bigDecimalValue());
+            }
+            case TRUE -> tag('t', 0);
+            case FALSE -> tag('f', 0);
+            default -> tag('z', 0);
+        }
+    }
+
+    private void tag(char type, int size) {
+        digest.update((byte) type);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(size).array());
+    }
+
+    private void string(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        tag('s', bytes.length);
+        digest.update(bytes);
+    }
+
+    private void integral(BigInteger value) {
+        ascii('i', value.toString());
+    }
+
+    private void decimal(BigDecimal value) {
+        // the plain notation of a number with a large exponent would be huge
+        ascii('n', value.unscaledValue() + "e" + value.scale());
+    }
+
+    private void nonFinite(double value) {
+        ascii('d', Double.toString(value));
+    }
+
+    private void ascii(char type, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        tag(type, bytes.length);
+        digest.update(bytes);
+    }
+
+    private String hex() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -15,7 +15,11 @@
  */
 package it.extared.dpp.validator.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.InputStream;
 
 public class JsonLdUtils {
 
@@ -27,6 +31,22 @@ public class JsonLdUtils {
         return jsonNode.has(CONTEXT);
     }
 
+    /**
+     * Reads the first key of a JSON object, where most JSON-LD documents declare their {@code
+     * @context}, without reading the rest of the input.
+     *
+     * @param input the JSON input.
+     * @return true if the input is a JSON object whose first key is {@code @context}.
+     * @throws IOException if the start of the input is not a valid JSON.
+     */
+    public static boolean startsWithContext(InputStream input) throws IOException {
+        try (JsonParser parser = JsonUtils.objectMapper().createParser(input)) {
+            return parser.nextToken() == JsonToken.START_OBJECT
+                    && parser.nextToken() == JsonToken.FIELD_NAME
+                    && CONTEXT.equals(parser.currentName());
+        }
+    }
+
     public static String extractNamespace(String uri) {
         if (uri == null) return null;
 
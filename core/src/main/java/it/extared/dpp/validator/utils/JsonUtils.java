@@ -15,15 +15,14 @@
  */
 package it.extared.dpp.validator.utils;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SchemaValidatorsConfig;
 import com.networknt.schema.SpecVersion;
-import io.vertx.core.json.JsonObject;
+import it.extared.dpp.validator.json.DeadlineRegularExpressionFactory;
 import jakarta.enterprise.inject.spi.CDI;
-import java.util.Map;
 import java.util.function.Function;
 
 public class JsonUtils {
@@ -61,28 +60,19 @@ public class JsonUtils {
     public static final String REQUIRED_KEY = "required";
 
     public static final Function<JsonNode, JsonSchema> JSON_TO_SCHEMA =
-            jn -> JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V202012).getSchema(jn);
-
-    public static Map<String, Object> toMap(JsonNode node) {
-        return objectMapper().convertValue(node, new TypeReference<Map<String, Object>>() {});
-    }
+            jn ->
+                    JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V202012)
+                            .getSchema(
+                                    jn,
+                                    SchemaValidatorsConfig.builder()
+                                            .regularExpressionFactory(
+                                                    DeadlineRegularExpressionFactory.getInstance())
+                                            .build());
 
     public static boolean nodeIsNotNull(JsonNode node) {
         return node != null && !node.isNull() && !node.isMissingNode();
     }
 
-    public static JsonObject toVertxJson(JsonNode node) {
-        return new JsonObject(toMap(node));
-    }
-
-    public static JsonObject toVertxJson(String content) {
-        return new JsonObject(content);
-    }
-
-    public static JsonNode fromVertxJson(JsonObject object) {
-        return objectMapper().convertValue(object.getMap(), JsonNode.class);
-    }
-
     public static ObjectMapper objectMapper() {
         return CDI.current().select(ObjectMapper.class).get();
     }
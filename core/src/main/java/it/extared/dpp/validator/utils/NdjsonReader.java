@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extared.dpp.validator.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the lines of a newline delimited JSON stream one at a time, so that only the line being
+ * read is held in memory. Blank lines are skipped but counted, so that the line numbers match the
+ * ones of the input. A line longer than the maximum size is discarded while reading it and returned
+ * without content.
+ */
+public class NdjsonReader implements Iterator<NdjsonReader.Line> {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream input;
+
+    private final long maxLineSize;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int pos;
+
+    private int limit;
+
+    private boolean eof;
+
+    private long lineNumber;
+
+    private Line next;
+
+    public NdjsonReader(InputStream input, long maxLineSize) {
+        this.input = input;
+        this.maxLineSize = maxLineSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Line next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Line line = next;
+        next = null;
+        return line;
+    }
+
+    private Line readLine() throws IOException {
+        while (!eof) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            long size = 0;
+            boolean terminated = false;
+            while (!terminated && fill()) {
+                int end = pos;
+                while (end < limit && buffer[end] != '\n') end++;
+                terminated = end < limit;
+                size += end - pos;
+                if (size <= maxLineSize) content.write(buffer, pos, end - pos);
+                pos = terminated ? end + 1 : end;
+            }
+            if (!terminated && size == 0) return null;
+            lineNumber++;
+            if (size > maxLineSize) return new Line(lineNumber, null);
+            byte[] bytes = content.toByteArray();
+            if (!isBlank(bytes)) return new Line(lineNumber, bytes);
+        }
+        return null;
+    }
+
+    private boolean fill() throws IOException {
+        if (pos < limit) return true;
+        int read = input.read(buffer);
+        if (read == -1) {
+            eof = true;
+            return false;
+        }
+        pos = 0;
+        limit = read;
+        return true;
+    }
+
+    private static boolean isBlank(byte[] bytes) {
+        for (byte b : bytes) if (!Character.isWhitespace(b)) return false;
+        return true;
+    }
+
+    /**
+     * A line of the stream.
+     *
+     * @param number the 1-based number of the line in the stream.
+     * @param content the content of the line, null if longer than the maximum size.
+     */
+    public record Line(long number, byte[] content) {
+
+        public boolean isTooLarge() {
+            return content == null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import it.extared.dpp.validator.AdmissionController;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.dto.ValidationReport;
+import it.extared.dpp.validator.exceptions.ServiceOverloadedException;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@TestProfile(AdmissionControllerTest.AdmissionProfile.class)
+public class AdmissionControllerTest {
+
+    @Inject AdmissionController admission;
+
+    @Test
+    public void queuesAndRejectsBeyondLimits() {
+        CompletableFuture<ValidationReport> running = new CompletableFuture<>();
+        UniAssertSubscriber<ValidationReport> first =
+                admission
+                        .admit(
+                                ValidationType.PLAIN_JSON,
+                                () -> Uni.createFrom().completionStage(running))
+                        .subscribe()
+                        .withSubscriber(UniAssertSubscriber.create());
+        UniAssertSubscriber<ValidationReport> queued =
+                admission
+                        .admit(ValidationType.PLAIN_JSON, AdmissionControllerTest::report)
+                        .subscribe()
+                        .withSubscriber(UniAssertSubscriber.create());
+        UniAssertSubscriber<ValidationReport> rejected =
+                admission
+                        .admit(ValidationType.PLAIN_JSON, AdmissionControllerTest::report)
+                        .subscribe()
+                        .withSubscriber(UniAssertSubscriber.create());
+
+        ServiceOverloadedException e =
+                assertInstanceOf(
+                        ServiceOverloadedException.class, rejected.awaitFailure().getFailure());
+        assertEquals(Duration.ofSeconds(3), e.getRetryAfter());
+        assertEquals(1, admission.queued(ValidationType.PLAIN_JSON));
+
+        // another validation type is not affected
+        admission
+                .admit(ValidationType.RDF, AdmissionControllerTest::report)
+                .subscribe()
+                .withSubscriber(UniAssertSubscriber.create())
+                .awaitItem();
+
+        ValidationReport report = ValidationReport.builder().withValid(true).build();
+        running.complete(report);
+        assertSame(report, first.awaitItem().getItem());
+        assertTrue(queued.awaitItem().getItem().isValid());
+        assertEquals(0, admission.inFlight(ValidationType.PLAIN_JSON));
+    }
+
+    @Test
+    public void rejectsAfterQueueTimeout() {
+        CompletableFuture<ValidationReport> running = new CompletableFuture<>();
+        admission
+                .admit(ValidationType.PLAIN_JSON, () -> Uni.createFrom().completionStage(running))
+                .subscribe()
+                .withSubscriber(UniAssertSubscriber.create());
+        UniAssertSubscriber<ValidationReport> timedOut =
+                admission
+                        .admit(ValidationType.PLAIN_JSON, AdmissionControllerTest::report)
+                        .subscribe()
+                        .withSubscriber(UniAssertSubscriber.create());
+
+        timedOut.awaitFailure(Duration.ofSeconds(5))
+                .assertFailedWith(ServiceOverloadedException.class);
+        assertEquals(0, admission.queued(ValidationType.PLAIN_JSON));
+        running.complete(ValidationReport.builder().withValid(true).build());
+        assertEquals(0, admission.inFlight(ValidationType.PLAIN_JSON));
+    }
+
+    private static Uni<ValidationReport> report() {
+        return Uni.createFrom().item(ValidationReport.builder().withValid(true).build());
+    }
+
+    public static class AdmissionProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "validator.admission.plain-json.max-concurrent", "1",
+                    "validator.admission.plain-json.queue-size", "1",
+                    "validator.admission.plain-json.queue-timeout", "1s",
+                    "validator.admission.retry-after", "3s");
+        }
+    }
+}
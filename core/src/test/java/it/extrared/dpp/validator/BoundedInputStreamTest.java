@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.extared.dpp.validator.exceptions.PayloadTooLargeException;
+import it.extared.dpp.validator.utils.BoundedInputStream;
+import it.extared.dpp.validator.utils.CommonUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.jupiter.api.Test;
+
+public class BoundedInputStreamTest {
+
+    @Test
+    public void readsPayloadWithinLimit() throws IOException {
+        byte[] payload = CommonUtils.readJsonBytes("valid-battery.json");
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(payload), payload.length);
+        assertArrayEquals(payload, in.readAllBytes());
+    }
+
+    @Test
+    public void failsWhileParsingPayloadOverLimit() {
+        byte[] payload = CommonUtils.readJsonBytes("valid-battery.json");
+        InputStream in =
+                new BoundedInputStream(new ByteArrayInputStream(payload), payload.length - 1);
+        assertThrows(PayloadTooLargeException.class, () -> new ObjectMapper().readTree(in));
+    }
+
+    @Test
+    public void resetRestoresCount() throws IOException {
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(new byte[8]), 8);
+        in.mark(8);
+        assertEquals(8, in.readAllBytes().length);
+        in.reset();
+        assertEquals(8, in.readAllBytes().length);
+    }
+}
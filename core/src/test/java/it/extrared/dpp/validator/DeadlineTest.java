@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import it.extared.dpp.validator.Deadline;
+import it.extared.dpp.validator.exceptions.ValidationTimeoutException;
+import it.extared.dpp.validator.utils.JsonUtils;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class DeadlineTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void cancelsCatastrophicPatternMatching() throws Exception {
+        JsonSchema schema =
+                JsonUtils.JSON_TO_SCHEMA.apply(
+                        objectMapper.readTree(
+                                "{\"type\": \"string\", \"pattern\": \"(.*a){12}$\"}"));
+        JsonNode input = objectMapper.valueToTree("a".repeat(40) + "!");
+        Deadline deadline = Deadline.of(Duration.ofMillis(200), System.nanoTime());
+        long start = System.nanoTime();
+        ValidationTimeoutException e =
+                assertThrows(
+                        ValidationTimeoutException.class,
+                        () -> deadline.run("json-schema-validation", () -> schema.validate(input)));
+        assertEquals("json-schema-validation", e.getStage());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toSeconds() < 5);
+    }
+
+    @Test
+    public void runsStageWithinDeadline() throws Exception {
+        JsonSchema schema =
+                JsonUtils.JSON_TO_SCHEMA.apply(
+                        objectMapper.readTree(
+                                "{\"type\": \"string\", \"pattern\": \"(.*a){12}$\"}"));
+        JsonNode input = objectMapper.valueToTree("a".repeat(64));
+        Deadline deadline = Deadline.of(Duration.ofSeconds(5), System.nanoTime());
+        assertTrue(deadline.run("json-schema-validation", () -> schema.validate(input)).isEmpty());
+    }
+
+    @Test
+    public void failsStageStartedPastDeadline() {
+        Deadline deadline = Deadline.of(Duration.ofSeconds(1), System.nanoTime() - 2_000_000_000L);
+        ValidationTimeoutException e =
+                assertThrows(
+                        ValidationTimeoutException.class,
+                        () -> deadline.run("shacl-validation", () -> "never run"));
+        assertEquals("shacl-validation", e.getStage());
+    }
+
+    @Test
+    public void ignoresCheckpointsOutsideStages() {
+        for (int i = 0; i < 1024; i++) Deadline.checkpoint();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.extared.dpp.validator.utils.NdjsonReader;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class NdjsonReaderTest {
+
+    @Test
+    public void readsLinesSkippingBlankOnes() {
+        List<NdjsonReader.Line> lines = read("{\"a\":1}\n\n  \r\n{\"b\":2}\r\n{\"c\":3}", 64);
+        assertEquals(List.of(1L, 4L, 5L), lines.stream().map(NdjsonReader.Line::number).toList());
+        assertEquals("{\"a\":1}", asString(lines.get(0)));
+        assertEquals("{\"b\":2}\r", asString(lines.get(1)));
+        assertEquals("{\"c\":3}", asString(lines.get(2)));
+    }
+
+    @Test
+    public void readsLinesLongerThanBuffer() {
+        String value = "x".repeat(20_000);
+        List<NdjsonReader.Line> lines =
+                read("{\"v\":\"%s\"}\n{\"w\":1}\n".formatted(value), 30_000);
+        assertEquals(2, lines.size());
+        assertEquals("{\"v\":\"%s\"}".formatted(value), asString(lines.get(0)));
+        assertEquals("{\"w\":1}", asString(lines.get(1)));
+    }
+
+    @Test
+    public void discardsLinesOverMaxSize() {
+        List<NdjsonReader.Line> lines =
+                read("{\"v\":\"%s\"}\n{\"w\":1}".formatted("x".repeat(100)), 16);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).isTooLarge());
+        assertEquals(2L, lines.get(1).number());
+        assertEquals("{\"w\":1}", asString(lines.get(1)));
+    }
+
+    private static List<NdjsonReader.Line> read(String ndjson, long maxLineSize) {
+        NdjsonReader reader =
+                new NdjsonReader(
+                        new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                        maxLineSize);
+        List<NdjsonReader.Line> lines = new ArrayList<>();
+        reader.forEachRemaining(lines::add);
+        return lines;
+    }
+
+    private static String asString(NdjsonReader.Line line) {
+        return new String(line.content(), StandardCharsets.UTF_8);
+    }
+}
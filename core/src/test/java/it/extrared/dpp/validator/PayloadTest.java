@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import it.extared.dpp.validator.dto.Payload;
+import it.extared.dpp.validator.exceptions.PayloadTooLargeException;
+import it.extared.dpp.validator.utils.CommonUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class PayloadTest {
+
+    @Test
+    public void parsesJsonOnce() throws IOException {
+        Payload payload = payload(CommonUtils.readJsonBytes("valid-battery.json"));
+        assertSame(payload.asJson(), payload.asJson());
+        assertFalse(payload.isJsonLd());
+    }
+
+    @Test
+    public void detectsJsonLd() throws IOException {
+        assertTrue(payload(CommonUtils.readJsonLdString("vehicle-ld.json")).isJsonLd());
+        // a leading context is detected without reading the rest of the payload
+        assertTrue(payload("{\"@context\": {}, \"id\": [").isJsonLd());
+        assertTrue(
+                payload("{\"id\": {\"nested\": [1, {\"@context\": 2}]}, \"@context\": {}}")
+                        .isJsonLd());
+        assertFalse(payload("{\"id\": {\"@context\": {}}}").isJsonLd());
+        assertFalse(payload("[{\"@context\": {}}]").isJsonLd());
+    }
+
+    @Test
+    public void rereadsRawContent() throws IOException {
+        byte[] content = CommonUtils.readJsonLdString("vehicle-ld.json").getBytes();
+        Payload payload = payload(content);
+        assertTrue(payload.isJsonLd());
+        try (InputStream in = payload.openStream()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        try (InputStream in = payload.openStream()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void countsSize() throws IOException {
+        byte[] content = CommonUtils.readJsonBytes("valid-battery.json");
+        Payload payload = payload(content);
+        payload.asJson();
+        assertEquals(content.length, payload.size());
+        try (InputStream in = payload.openStream()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void failsPastMaximumSize() {
+        byte[] content = CommonUtils.readJsonBytes("valid-battery.json");
+        assertThrows(
+                PayloadTooLargeException.class,
+                () -> Payload.of(new ByteArrayInputStream(content), content.length / 2));
+    }
+
+    @Test
+    public void failsReadingPastMaximumSize() {
+        // a body of unknown length is not buffered past the limit
+        InputStream endless =
+                new InputStream() {
+                    @Override
+                    public int read() {
+                        return ' ';
+                    }
+                };
+        assertThrows(PayloadTooLargeException.class, () -> Payload.of(endless, 1024));
+    }
+
+    private static Payload payload(String content) {
+        return payload(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Payload payload(byte[] content) {
+        return Payload.of(content);
+    }
+}
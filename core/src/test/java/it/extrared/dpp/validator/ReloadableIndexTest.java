@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.cache.ReloadableIndex;
+import it.extared.dpp.validator.cache.ResourceIndex;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+public class ReloadableIndexTest {
+
+    @Test
+    public void dropsEntryLoadedBeforeItsRemoval() {
+        CompletableFuture<Long> load = new CompletableFuture<>();
+        ReloadableIndex<Long, IdIndex> index =
+                new ReloadableIndex<>(
+                        "ids",
+                        IdIndex::new,
+                        () -> Uni.createFrom().item(List.of(1L)),
+                        id -> Uni.createFrom().completionStage(load),
+                        id -> id);
+        index.reload();
+        index.apply(event(ResourceChangeEvent.Operation.ADDED, 2L));
+        index.apply(event(ResourceChangeEvent.Operation.REMOVED, 2L));
+        // the entry read before the removal was committed completes late
+        load.complete(2L);
+        assertEquals(Set.of(1L), index.get().ids());
+    }
+
+    @Test
+    public void reloadsAfterFailedUpdate() {
+        AtomicBoolean fail = new AtomicBoolean();
+        AtomicReference<List<Long>> stored = new AtomicReference<>(List.of(1L));
+        ReloadableIndex<Long, IdIndex> index =
+                new ReloadableIndex<>(
+                        "ids",
+                        ids -> new IdIndex(ids, fail),
+                        () -> Uni.createFrom().item(stored.get()),
+                        id -> Uni.createFrom().item(id),
+                        id -> id);
+        index.reload();
+        fail.set(true);
+        stored.set(List.of(1L, 2L));
+        // the change lost by the failed update is picked up by the reload
+        index.apply(event(ResourceChangeEvent.Operation.ADDED, 2L));
+        assertEquals(Set.of(1L, 2L), index.get().ids());
+    }
+
+    private static ResourceChangeEvent event(ResourceChangeEvent.Operation operation, Long id) {
+        return new ResourceChangeEvent(ValidationType.PLAIN_JSON, operation, id, null, null);
+    }
+
+    private record IdIndex(Set<Long> ids, AtomicBoolean fail)
+            implements ResourceIndex<Long, IdIndex> {
+
+        IdIndex(Collection<Long> ids) {
+            this(ids, new AtomicBoolean());
+        }
+
+        IdIndex(Collection<Long> ids, AtomicBoolean fail) {
+            this(new TreeSet<>(ids), fail);
+        }
+
+        @Override
+        public IdIndex update(Collection<Long> upserts, Collection<Long> removals) {
+            if (fail.get()) throw new IllegalStateException("update failed");
+            Set<Long> updated = new TreeSet<>(ids);
+            updated.addAll(upserts);
+            updated.removeAll(removals);
+            return new IdIndex(updated, fail);
+        }
+
+        @Override
+        public int size() {
+            return ids.size();
+        }
+    }
+}
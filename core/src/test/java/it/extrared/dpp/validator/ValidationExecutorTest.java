@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import it.extared.dpp.validator.Deadline;
+import it.extared.dpp.validator.ValidationExecutor;
+import it.extared.dpp.validator.exceptions.ValidationTimeoutException;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class ValidationExecutorTest {
+
+    @Inject ValidationExecutor executor;
+
+    @Inject MeterRegistry registry;
+
+    @Test
+    public void runsStageOnWorkerThread() {
+        String threadName =
+                executor.submit("test", () -> Thread.currentThread().getName())
+                        .await()
+                        .atMost(Duration.ofSeconds(5));
+        assertTrue(threadName.startsWith("dpp-validation-worker-"));
+        assertEquals(
+                0.0, registry.get("executor.queued").tag("name", "validation").gauge().value());
+    }
+
+    @Test
+    public void propagatesStageFailure() {
+        IllegalStateException e =
+                assertThrows(
+                        IllegalStateException.class,
+                        () ->
+                                executor.<String>submit(
+                                                "test",
+                                                () -> {
+                                                    throw new IllegalStateException("broken input");
+                                                })
+                                        .await()
+                                        .atMost(Duration.ofSeconds(5)));
+        assertEquals("broken input", e.getMessage());
+    }
+
+    @Test
+    public void failsStagePastDeadline() {
+        Deadline deadline = Deadline.of(Duration.ofMillis(100), System.nanoTime());
+        ValidationTimeoutException e =
+                assertThrows(
+                        ValidationTimeoutException.class,
+                        () ->
+                                executor.submit(
+                                                "slow-stage",
+                                                deadline,
+                                                () -> {
+                                                    Thread.sleep(1000);
+                                                    return "late";
+                                                })
+                                        .await()
+                                        .atMost(Duration.ofSeconds(5)));
+        assertEquals("slow-stage", e.getStage());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import it.extared.dpp.validator.dto.BulkValidationItem;
+import it.extared.dpp.validator.dto.PagedResult;
+import it.extared.dpp.validator.jobs.JobFormat;
+import it.extared.dpp.validator.jobs.ValidationJobService;
+import it.extared.dpp.validator.jobs.dto.JobStatus;
+import it.extared.dpp.validator.jobs.dto.ValidationJob;
+import it.extared.dpp.validator.utils.CommonUtils;
+import jakarta.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@TestProfile(ValidationJobServiceTest.JobsProfile.class)
+public class ValidationJobServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Inject ValidationJobService jobService;
+
+    @Inject ObjectMapper objectMapper;
+
+    public static class JobsProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "validator.jobs.poll-interval", "100ms",
+                    "validator.jobs.progress-interval", "100ms",
+                    "validator.jobs.batch-size", "2");
+        }
+    }
+
+    @Test
+    public void runsNdjsonJob() throws IOException {
+        String ndjson =
+                String.join(
+                        "\n",
+                        objectMapper
+                                .readTree(CommonUtils.readJsonBytes("valid-battery.json"))
+                                .toString(),
+                        objectMapper
+                                .readTree(CommonUtils.readJsonLdString("vehicle-ld.json"))
+                                .toString(),
+                        objectMapper
+                                .readTree(CommonUtils.readJsonBytes("invalid-battery.json"))
+                                .toString());
+        ValidationJob job = submit(ndjson.getBytes(), JobFormat.NDJSON, null);
+        assertEquals(3L, job.getTotalItems());
+
+        ValidationJob done = awaitTermination(job);
+        assertEquals(JobStatus.COMPLETED, done.getStatus());
+        assertEquals(3, done.getProcessedItems());
+        assertEquals(1, done.getInvalidItems());
+
+        PagedResult<BulkValidationItem> results =
+                jobService.getResults(job.getId(), 0, 10).await().atMost(TIMEOUT);
+        assertEquals(3L, results.getTotalElements());
+        assertEquals(1L, results.getElements().get(0).getLine());
+        assertTrue(results.getElements().get(0).getReport().isValid());
+        assertTrue(results.getElements().get(1).getReport().isValid());
+        assertFalse(results.getElements().get(2).getReport().isValid());
+    }
+
+    @Test
+    public void runsArchiveJob() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry("dpps/"));
+            zip.putNextEntry(new ZipEntry("dpps/battery.json"));
+            zip.write(CommonUtils.readJsonBytes("valid-battery.json"));
+            zip.putNextEntry(new ZipEntry("dpps/broken.json"));
+            zip.write("{".getBytes());
+        }
+        ValidationJob job = submit(archive.toByteArray(), JobFormat.ZIP, null);
+        assertEquals(2L, job.getTotalItems());
+
+        ValidationJob done = awaitTermination(job);
+        assertEquals(JobStatus.COMPLETED, done.getStatus());
+        assertEquals(1, done.getInvalidItems());
+    }
+
+    @Test
+    public void delaysJobUntilNotBefore() {
+        ValidationJob job =
+                submit("{}".getBytes(), JobFormat.NDJSON, OffsetDateTime.now().plusDays(1));
+        assertEquals(JobStatus.PENDING, job.getStatus());
+        ValidationJob later =
+                jobService
+                        .watch(job.getId())
+                        .select()
+                        .first(3)
+                        .collect()
+                        .last()
+                        .await()
+                        .atMost(TIMEOUT);
+        assertEquals(JobStatus.PENDING, later.getStatus());
+    }
+
+    private ValidationJob submit(byte[] content, JobFormat format, OffsetDateTime notBefore) {
+        return jobService
+                .submit(new ByteArrayInputStream(content), format, notBefore)
+                .await()
+                .atMost(TIMEOUT);
+    }
+
+    private ValidationJob awaitTermination(ValidationJob job) {
+        return jobService.watch(job.getId()).collect().last().await().atMost(TIMEOUT);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.vertx.RunOnVertxContext;
+import io.quarkus.test.vertx.UniAsserter;
+import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.ValidatorService;
+import it.extared.dpp.validator.cache.ValidationResultCache;
+import it.extared.dpp.validator.dto.Payload;
+import it.extared.dpp.validator.dto.ValidationReport;
+import it.extared.dpp.validator.utils.CommonUtils;
+import jakarta.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class ValidationMetricsTest {
+
+    @Inject ValidatorService service;
+
+    @Inject ValidationResultCache resultCache;
+
+    @Inject MeterRegistry registry;
+
+    private final SimpleMeterRegistry recorded = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        ((CompositeMeterRegistry) registry).add(recorded);
+        resultCache.invalidateAll();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ((CompositeMeterRegistry) registry).remove(recorded);
+    }
+
+    @Test
+    @RunOnVertxContext
+    public void testJSONValidationStages(UniAsserter uniAsserter) throws IOException {
+        byte[] content = CommonUtils.readJsonBytes("invalid-battery.json");
+        Uni<ValidationReport> reportUni =
+                service.validate(
+                        Payload.of(new ByteArrayInputStream(content)), ValidationType.PLAIN_JSON);
+        uniAsserter.assertThat(
+                () -> reportUni,
+                vr -> {
+                    for (String stage :
+                            new String[] {
+                                "parse", "path-extraction", "match", "validation", "report"
+                            }) assertEquals(1, stageCount(ValidationType.PLAIN_JSON, stage), stage);
+                    assertEquals(
+                            content.length,
+                            recorded.get("validation.payload.size")
+                                    .tag("type", ValidationType.PLAIN_JSON.name())
+                                    .summary()
+                                    .totalAmount());
+                    assertEquals(
+                            10,
+                            recorded.get("validation.violations")
+                                    .tag("type", ValidationType.PLAIN_JSON.name())
+                                    .summary()
+                                    .totalAmount());
+                    assertEquals(
+                            1,
+                            recorded.get("validation.reports")
+                                    .tag("type", ValidationType.PLAIN_JSON.name())
+                                    .tag("outcome", "invalid")
+                                    .counter()
+                                    .count());
+                    // the reports are tagged with the schema used, not the histograms
+                    assertNotEquals(
+                            "none",
+                            recorded.get("validation.reports")
+                                    .tag("type", ValidationType.PLAIN_JSON.name())
+                                    .counter()
+                                    .getId()
+                                    .getTag("resource"));
+                    assertNull(
+                            recorded.get("validation.stage")
+                                    .tag("stage", "validation")
+                                    .timer()
+                                    .getId()
+                                    .getTag("resource"));
+                });
+    }
+
+    @Test
+    @RunOnVertxContext
+    public void testJSONLDValidationStages(UniAsserter uniAsserter) throws IOException {
+        byte[] content = CommonUtils.readJsonLdString("vehicle-ld.json").getBytes();
+        Uni<ValidationReport> reportUni =
+                service.validate(Payload.of(new ByteArrayInputStream(content)), ValidationType.RDF);
+        uniAsserter.assertThat(
+                () -> reportUni,
+                vr -> {
+                    for (String stage :
+                            new String[] {
+                                "parse", "metadata-extraction", "match", "validation", "report"
+                            }) assertEquals(1, stageCount(ValidationType.RDF, stage), stage);
+                    assertEquals(
+                            content.length,
+                            recorded.get("validation.payload.size")
+                                    .tag("type", ValidationType.RDF.name())
+                                    .summary()
+                                    .totalAmount());
+                });
+    }
+
+    private long stageCount(ValidationType type, String stage) {
+        return recorded
+                .find("validation.stage")
+                .tag("type", type.name())
+                .tag("stage", stage)
+                .timers()
+                .stream()
+                .mapToLong(t -> t.count())
+                .sum();
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Uni;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.cache.ValidationResultCache;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.dto.MatchType;
+import it.extared.dpp.validator.dto.ValidationOptions;
+import it.extared.dpp.validator.dto.ValidationReport;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import it.extared.dpp.validator.utils.CanonicalJsonHash;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class ValidationResultCacheTest {
+
+    @Inject ValidationResultCache resultCache;
+
+    @Inject Event<ResourceChangeEvent> events;
+
+    @Test
+    public void testCanonicalHash() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree("{\"a\": 1, \"b\": {\"c\": [1.50, \"x\"], \"d\": null}}");
+        JsonNode reordered = mapper.readTree("{\"b\":{\"d\":null,\"c\":[1.5,\"x\"]},\"a\":1}");
+        JsonNode different = mapper.readTree("{\"a\": 1, \"b\": {\"c\": [\"x\", 1.5]}}");
+        assertEquals(CanonicalJsonHash.of(first), CanonicalJsonHash.of(reordered));
+        assertNotEquals(CanonicalJsonHash.of(first), CanonicalJsonHash.of(different));
+        try (StringReader reader = new StringReader(first.toString())) {
+            assertEquals(
+                    CanonicalJsonHash.of(first),
+                    CanonicalJsonHash.of(Json.createReader(reader).readValue()));
+        }
+    }
+
+    @Test
+    public void testCanonicalHashKeepsIntegersApartFromDecimals() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        assertNotEquals(
+                CanonicalJsonHash.of(mapper.readTree("{\"a\": 1}")),
+                CanonicalJsonHash.of(mapper.readTree("{\"a\": 1.0}")));
+        // as validated as JSON-LD, where 1 is an xsd:integer and 1.0 an xsd:double
+        try (StringReader integer = new StringReader("{\"a\": 1}");
+                StringReader decimal = new StringReader("{\"a\": 1.0}")) {
+            assertNotEquals(
+                    CanonicalJsonHash.of(Json.createReader(integer).readValue()),
+                    CanonicalJsonHash.of(Json.createReader(decimal).readValue()));
+        }
+    }
+
+    @Test
+    public void testCanonicalHashOfLargeNumbers() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        // read by Jackson as an infinite double
+        JsonNode infinite = mapper.readTree("{\"a\": 1e400}");
+        assertNotEquals(
+                CanonicalJsonHash.of(infinite),
+                CanonicalJsonHash.of(mapper.readTree("{\"a\": -1e400}")));
+        try (StringReader reader = new StringReader("{\"a\": 1e999999999}")) {
+            // hashed without expanding the number to its plain notation
+            assertNotNull(CanonicalJsonHash.of(Json.createReader(reader).readValue()));
+        }
+    }
+
+    @Test
+    public void testSingleFlightAndHit() {
+        MatchResult<?> match = match(200L);
+        AtomicInteger validations = new AtomicInteger();
+        Uni<ValidationReport> validation =
+                Uni.createFrom()
+                        .item(() -> report(validations.incrementAndGet()))
+                        .onItem()
+                        .delayIt()
+                        .by(Duration.ofMillis(200));
+
+        Uni<ValidationReport> first =
+                resultCache.get(
+                        ValidationType.PLAIN_JSON,
+                        "hash-1",
+                        match,
+                        ValidationOptions.DEFAULT,
+                        () -> validation);
+        Uni<ValidationReport> second =
+                resultCache.get(
+                        ValidationType.PLAIN_JSON,
+                        "hash-1",
+                        match,
+                        ValidationOptions.DEFAULT,
+                        () -> validation);
+        var reports = Uni.combine().all().unis(first, second).asTuple().await().indefinitely();
+        assertEquals(1, validations.get());
+        assertEquals(reports.getItem1().getMessage(), reports.getItem2().getMessage());
+
+        resultCache
+                .get(
+                        ValidationType.PLAIN_JSON,
+                        "hash-1",
+                        match,
+                        ValidationOptions.DEFAULT,
+                        () -> validation)
+                .await()
+                .indefinitely();
+        assertEquals(1, validations.get());
+
+        resultCache
+                .get(
+                        ValidationType.PLAIN_JSON,
+                        "hash-2",
+                        match,
+                        ValidationOptions.DEFAULT,
+                        () -> validation)
+                .await()
+                .indefinitely();
+        assertEquals(2, validations.get());
+    }
+
+    @Test
+    public void testFailureNotCached() {
+        MatchResult<?> match = match(201L);
+        AtomicInteger validations = new AtomicInteger();
+        Uni<ValidationReport> failing =
+                Uni.createFrom()
+                        .failure(
+                                () -> {
+                                    validations.incrementAndGet();
+                                    return new IllegalStateException("failed");
+                                });
+        for (int i = 0; i < 2; i++) {
+            assertThrows(
+                    IllegalStateException.class,
+                    () ->
+                            resultCache
+                                    .get(
+                                            ValidationType.RDF,
+                                            "hash",
+                                            match,
+                                            ValidationOptions.DEFAULT,
+                                            () -> failing)
+                                    .await()
+                                    .indefinitely());
+        }
+        assertEquals(2, validations.get());
+    }
+
+    @Test
+    public void testEvictOnRemovalEvent() {
+        MatchResult<?> match = match(202L);
+        AtomicInteger validations = new AtomicInteger();
+        Uni<ValidationReport> validation =
+                Uni.createFrom().item(() -> report(validations.incrementAndGet()));
+        resultCache
+                .get(
+                        ValidationType.PLAIN_JSON,
+                        "hash",
+                        match,
+                        ValidationOptions.DEFAULT,
+                        () -> validation)
+                .await()
+                .indefinitely();
+
+        events.fire(
+                new ResourceChangeEvent(
+                        ValidationType.RDF,
+                        ResourceChangeEvent.Operation.REMOVED,
+                        202L,
+                        "results",
+                        "1.0.0"));
+        resultCache
+                .get(
+                        ValidationType.PLAIN_JSON,
+                        "hash",
+                        match,
+                        ValidationOptions.DEFAULT,
+                        () -> validation)
+                .await()
+                .indefinitely();
+        assertEquals(1, validations.get());
+
+        events.fire(
+                new ResourceChangeEvent(
+                        ValidationType.PLAIN_JSON,
+                        ResourceChangeEvent.Operation.REMOVED,
+                        202L,
+                        "results",
+                        "1.0.0"));
+        resultCache
+                .get(
+                        ValidationType.PLAIN_JSON,
+                        "hash",
+                        match,
+                        ValidationOptions.DEFAULT,
+                        () -> validation)
+                .await()
+                .indefinitely();
+        assertEquals(2, validations.get());
+    }
+
+    private static MatchResult<?> match(Long id) {
+        return new MatchResult<>(id, "results", "1.0.0", null, MatchType.NAME_AND_VERSION);
+    }
+
+    private static ValidationReport report(int run) {
+        return ValidationReport.builder().withValid(true).withMessage("run " + run).build();
+    }
+}
@@ -29,6 +29,10 @@ import it.extared.dpp.validator.utils.CommonUtils;
 import jakarta.inject.Inject;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
@@ -43,7 +47,10 @@ public class ValidatorServiceTest {
     public void testJSONValidation(UniAsserter uniAsserter) throws IOException {
         Uni<ValidationReport> reportUni =
                 service.validate(
-                        CommonUtils.readJsonBytes("valid-battery.json"), ValidationType.PLAIN_JSON);
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonBytes("valid-battery.json"))),
+                        ValidationType.PLAIN_JSON);
         uniAsserter.assertTrue(() -> reportUni.map(ValidationReport::isValid));
     }
 
@@ -52,7 +59,9 @@ public class ValidatorServiceTest {
     public void testFailingJSONValidation(UniAsserter uniAsserter) throws IOException {
         Uni<ValidationReport> reportUni =
                 service.validate(
-                        CommonUtils.readJsonBytes("invalid-battery.json"),
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonBytes("invalid-battery.json"))),
                         ValidationType.PLAIN_JSON);
         uniAsserter.assertThat(
                 () -> reportUni,
@@ -62,6 +71,44 @@ public class ValidatorServiceTest {
                 });
     }
 
+    @Test
+    @RunOnVertxContext
+    public void testFailFastJSONValidation(UniAsserter uniAsserter) throws IOException {
+        Uni<ValidationReport> reportUni =
+                service.validate(
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonBytes("invalid-battery.json"))),
+                        ValidationType.PLAIN_JSON,
+                        new ValidationOptions(true, null));
+        uniAsserter.assertThat(
+                () -> reportUni,
+                vr -> {
+                    assertFalse(vr.isValid());
+                    assertTrue(vr.isTruncated());
+                    assertNull(vr.getInvalidProperties());
+                });
+    }
+
+    @Test
+    @RunOnVertxContext
+    public void testMaxViolationsJSONValidation(UniAsserter uniAsserter) throws IOException {
+        Uni<ValidationReport> reportUni =
+                service.validate(
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonBytes("invalid-battery.json"))),
+                        ValidationType.PLAIN_JSON,
+                        new ValidationOptions(false, 3));
+        uniAsserter.assertThat(
+                () -> reportUni,
+                vr -> {
+                    assertFalse(vr.isValid());
+                    assertTrue(vr.isTruncated());
+                    assertEquals(3, vr.getInvalidProperties().size());
+                });
+    }
+
     @Test
     @RunOnVertxContext
     public void testJSONValidationByNameAndVersion(UniAsserter uniAsserter) throws IOException {
@@ -69,11 +116,49 @@ public class ValidatorServiceTest {
                 service.validate(
                         "battery_passport",
                         "1.0.0",
-                        CommonUtils.readJsonBytes("valid-battery.json"),
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonBytes("valid-battery.json"))),
                         ValidationType.PLAIN_JSON);
         uniAsserter.assertTrue(() -> reportUni.map(ValidationReport::isValid));
     }
 
+    @Test
+    @RunOnVertxContext
+    public void testBulkValidation(UniAsserter uniAsserter) throws IOException {
+        String ndjson =
+                String.join(
+                        "\n",
+                        objectMapper
+                                .readTree(CommonUtils.readJsonBytes("valid-battery.json"))
+                                .toString(),
+                        objectMapper
+                                .readTree(CommonUtils.readJsonLdString("vehicle-ld.json"))
+                                .toString(),
+                        "",
+                        "not a json");
+        Uni<List<BulkValidationItem>> itemsUni =
+                service.validateBulk(new ByteArrayInputStream(ndjson.getBytes()))
+                        .collect()
+                        .asList();
+        uniAsserter.assertThat(
+                () -> itemsUni,
+                items -> {
+                    Map<Long, ValidationReport> reports =
+                            items.stream()
+                                    .collect(
+                                            Collectors.toMap(
+                                                    BulkValidationItem::getLine,
+                                                    BulkValidationItem::getReport));
+                    assertEquals(Set.of(1L, 2L, 4L), reports.keySet());
+                    assertTrue(reports.get(1L).isValid());
+                    assertEquals(ValidationType.PLAIN_JSON, reports.get(1L).getValidationType());
+                    assertTrue(reports.get(2L).isValid());
+                    assertEquals(ValidationType.RDF, reports.get(2L).getValidationType());
+                    assertFalse(reports.get(4L).isValid());
+                });
+    }
+
     @Test
     @RunOnVertxContext
     public void testAddSchema(UniAsserter uniAsserter) throws IOException {
@@ -130,7 +215,10 @@ public class ValidatorServiceTest {
     public void testJSONLDValidation(UniAsserter uniAsserter) throws IOException {
         Uni<ValidationReport> reportUni =
                 service.validate(
-                        CommonUtils.readJsonLdString("vehicle-ld.json").getBytes(),
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonLdString("vehicle-ld.json")
+                                                .getBytes())),
                         ValidationType.RDF);
         uniAsserter.assertTrue(() -> reportUni.map(ValidationReport::isValid));
     }
@@ -140,7 +228,10 @@ public class ValidatorServiceTest {
     public void testFailingJSONLDValidation(UniAsserter uniAsserter) throws IOException {
         Uni<ValidationReport> reportUni =
                 service.validate(
-                        CommonUtils.readJsonLdString("invalid-vehicle-ld.json").getBytes(),
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonLdString("invalid-vehicle-ld.json")
+                                                .getBytes())),
                         ValidationType.RDF);
         uniAsserter.assertThat(
                 () -> reportUni,
@@ -150,6 +241,26 @@ public class ValidatorServiceTest {
                 });
     }
 
+    @Test
+    @RunOnVertxContext
+    public void testFailFastJSONLDValidation(UniAsserter uniAsserter) throws IOException {
+        Uni<ValidationReport> reportUni =
+                service.validate(
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonLdString("invalid-vehicle-ld.json")
+                                                .getBytes())),
+                        ValidationType.RDF,
+                        new ValidationOptions(true, null));
+        uniAsserter.assertThat(
+                () -> reportUni,
+                vr -> {
+                    assertFalse(vr.isValid());
+                    assertTrue(vr.isTruncated());
+                    assertNull(vr.getInvalidProperties());
+                });
+    }
+
     @Test
     @RunOnVertxContext
     public void testJSONLDValidationByNameAndVersion(UniAsserter uniAsserter) throws IOException {
@@ -157,7 +268,10 @@ public class ValidatorServiceTest {
                 service.validate(
                         "Vehicle DPP",
                         "1.0.0",
-                        CommonUtils.readJsonLdString("vehicle-ld.json").getBytes(),
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonLdString("vehicle-ld.json")
+                                                .getBytes())),
                         ValidationType.RDF);
         uniAsserter.assertTrue(() -> reportUni.map(ValidationReport::isValid));
     }
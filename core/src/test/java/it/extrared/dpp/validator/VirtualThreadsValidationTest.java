@@ -0,0 +1,129 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.vertx.RunOnVertxContext;
+import io.quarkus.test.vertx.UniAsserter;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import it.extared.dpp.validator.ValidationExecutor;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.ValidatorService;
+import it.extared.dpp.validator.dto.Payload;
+import it.extared.dpp.validator.dto.ValidationReport;
+import it.extared.dpp.validator.utils.CommonUtils;
+import jakarta.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@TestProfile(VirtualThreadsValidationTest.VirtualThreadsProfile.class)
+public class VirtualThreadsValidationTest {
+
+    @Inject ValidatorService service;
+
+    @Inject ValidationExecutor executor;
+
+    @Test
+    public void stagesRunOnVirtualThreads() {
+        assertTrue(executor.runsOnVirtualThreads());
+        assertTrue(
+                executor.submit("test", () -> Thread.currentThread().isVirtual())
+                        .await()
+                        .atMost(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void stagesFollowingQueriesStayOnTheValidationThread() {
+        assertTrue(
+                executor.submit(
+                                "test",
+                                () -> {
+                                    Thread validation = Thread.currentThread();
+                                    // a query completing on another thread
+                                    Uni<Integer> query =
+                                            Uni.createFrom()
+                                                    .item(1)
+                                                    .emitOn(Infrastructure.getDefaultWorkerPool());
+                                    return executor.awaitQuery(query)
+                                                    .flatMap(
+                                                            i ->
+                                                                    executor.submit(
+                                                                            "next",
+                                                                            Thread::currentThread))
+                                                    .await()
+                                                    .indefinitely()
+                                            == validation;
+                                })
+                        .await()
+                        .atMost(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    @RunOnVertxContext
+    public void testJSONValidation(UniAsserter uniAsserter) throws IOException {
+        Uni<ValidationReport> reportUni =
+                service.validate(
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonBytes("valid-battery.json"))),
+                        ValidationType.PLAIN_JSON);
+        uniAsserter.assertTrue(() -> reportUni.map(ValidationReport::isValid));
+    }
+
+    @Test
+    @RunOnVertxContext
+    public void testFailingJSONLDValidation(UniAsserter uniAsserter) throws IOException {
+        Uni<ValidationReport> reportUni =
+                service.validate(
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonLdString("invalid-vehicle-ld.json")
+                                                .getBytes())),
+                        ValidationType.RDF);
+        uniAsserter.assertFalse(() -> reportUni.map(ValidationReport::isValid));
+    }
+
+    @Test
+    @RunOnVertxContext
+    public void testJSONLDValidationByNameAndVersion(UniAsserter uniAsserter) throws IOException {
+        Uni<ValidationReport> reportUni =
+                service.validate(
+                        "Vehicle DPP",
+                        "1.0.0",
+                        Payload.of(
+                                new ByteArrayInputStream(
+                                        CommonUtils.readJsonLdString("vehicle-ld.json")
+                                                .getBytes())),
+                        ValidationType.RDF);
+        uniAsserter.assertTrue(() -> reportUni.map(ValidationReport::isValid));
+    }
+
+    public static class VirtualThreadsProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("validator.executor.mode", "virtual-threads");
+        }
+    }
+}
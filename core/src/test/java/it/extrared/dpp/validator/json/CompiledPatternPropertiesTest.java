@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.extared.dpp.validator.json.CompiledPatternProperties;
+import it.extared.dpp.validator.json.SimilarityScorer;
+import it.extared.dpp.validator.json.dto.PatternProperty;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class CompiledPatternPropertiesTest {
+
+    @Test
+    public void testCountMatched() {
+        CompiledPatternProperties patterns =
+                CompiledPatternProperties.compile(
+                        List.of(
+                                pattern("^lang_[a-z]{2}$", "", List.of("label")),
+                                pattern("^code_[0-9]+$", "", List.of())));
+        Map<String, Set<String>> input =
+                SimilarityScorer.groupByPrefix(
+                        Set.of("lang_en.label", "lang_it.note", "code_12", "other.label"));
+
+        assertEquals(2, patterns.size());
+        assertEquals(2, patterns.countMatched(input));
+    }
+
+    @Test
+    public void testBackreferencesAndNamedGroups() {
+        CompiledPatternProperties patterns =
+                CompiledPatternProperties.compile(
+                        List.of(
+                                pattern("^(a)\\1$", "", List.of()),
+                                pattern("^(?<x>b)c$", "", List.of())));
+        Map<String, Set<String>> input = SimilarityScorer.groupByPrefix(Set.of("aa", "bc", "ab"));
+
+        assertEquals(2, patterns.countMatched(input));
+    }
+
+    @Test
+    public void testEmpty() {
+        CompiledPatternProperties patterns = CompiledPatternProperties.compile(List.of());
+        assertTrue(patterns.isEmpty());
+        assertEquals(0, patterns.countMatched(SimilarityScorer.groupByPrefix(Set.of("a.b"))));
+    }
+
+    private static PatternProperty pattern(String regex, String prefix, List<String> required) {
+        PatternProperty pp = new PatternProperty();
+        pp.setPatternRegex(regex);
+        pp.setPathPrefix(prefix);
+        pp.setRequiredSubPaths(required);
+        return pp;
+    }
+}
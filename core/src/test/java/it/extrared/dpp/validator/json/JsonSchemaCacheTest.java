@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.networknt.schema.JsonSchema;
+import io.quarkus.test.junit.QuarkusTest;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.cache.ResourceKey;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.dto.MatchType;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import it.extared.dpp.validator.json.JsonSchemaCache;
+import it.extared.dpp.validator.utils.CommonUtils;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class JsonSchemaCacheTest {
+
+    @Inject JsonSchemaCache schemaCache;
+
+    @Inject Event<ResourceChangeEvent> events;
+
+    @Test
+    public void testCompileOnceAndEvict() {
+        JsonNode schema = CommonUtils.readJsonSchemaNode("test-schema-simple.json");
+        MatchResult<JsonNode> match =
+                new MatchResult<>(100L, "cached", "1.0.0", schema, MatchType.NAME_AND_VERSION);
+        CacheStats before = schemaCache.getCache().stats();
+
+        JsonSchema first = schemaCache.getOrCompile(match);
+        JsonSchema second = schemaCache.getOrCompile(match);
+        assertSame(first, second);
+
+        CacheStats after = schemaCache.getCache().stats().minus(before);
+        assertEquals(1, after.missCount());
+        assertEquals(1, after.hitCount());
+
+        schemaCache.evict(100L);
+        assertNull(schemaCache.getIfPresent(ResourceKey.of(match)));
+    }
+
+    @Test
+    public void testEvictOnRemovalEvent() {
+        JsonNode schema = CommonUtils.readJsonSchemaNode("test-schema-simple.json");
+        MatchResult<JsonNode> match =
+                new MatchResult<>(101L, "notified", "1.0.0", schema, MatchType.NAME_AND_VERSION);
+        schemaCache.getOrCompile(match);
+
+        events.fire(
+                new ResourceChangeEvent(
+                        ValidationType.RDF,
+                        ResourceChangeEvent.Operation.REMOVED,
+                        101L,
+                        "notified",
+                        "1.0.0"));
+        assertNotNull(schemaCache.getIfPresent(ResourceKey.of(match)));
+
+        events.fire(
+                new ResourceChangeEvent(
+                        ValidationType.PLAIN_JSON,
+                        ResourceChangeEvent.Operation.REMOVED,
+                        101L,
+                        "notified",
+                        "1.0.0"));
+        assertNull(schemaCache.getIfPresent(ResourceKey.of(match)));
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.quarkus.test.junit.QuarkusTest;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.dto.MatchType;
+import it.extared.dpp.validator.json.CompiledPatternProperties;
+import it.extared.dpp.validator.json.JsonPropertyExtractor;
+import it.extared.dpp.validator.json.JsonSchemaIndex;
+import it.extared.dpp.validator.json.JsonSchemaMetadataExtractor;
+import it.extared.dpp.validator.json.SimilarityScorer;
+import it.extared.dpp.validator.json.dto.SchemaIndexEntry;
+import it.extared.dpp.validator.json.dto.SchemaMetadata;
+import it.extared.dpp.validator.json.dto.SchemaVariant;
+import it.extared.dpp.validator.utils.CommonUtils;
+import jakarta.inject.Inject;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class JsonSchemaIndexTest {
+
+    @Inject JsonSchemaMetadataExtractor metadataExtractor;
+
+    @Inject JsonPropertyExtractor propertyExtractor;
+
+    @Test
+    public void testMatchTestSchemas() {
+        List<SchemaIndexEntry> entries = new ArrayList<>();
+        long id = 1;
+        for (String name :
+                List.of(
+                        "test-schema-simple.json",
+                        "test-schema-variants.json",
+                        "test-schema-pattern-props.json")) {
+            SchemaMetadata metadata =
+                    metadataExtractor.extractMetadata(CommonUtils.readJsonSchemaNode(name));
+            entries.add(new SchemaIndexEntry(id++, name, "1.0.0", metadata));
+        }
+        JsonSchemaIndex index = JsonSchemaIndex.build(entries);
+        assertEquals(3, index.size());
+
+        Set<String> paths =
+                propertyExtractor.extractAllPaths(CommonUtils.readJsonNode("valid-battery.json"));
+        MatchResult<JsonNode> result = index.findBestMatch(paths);
+        assertEquals(MatchType.SIMILARITY_MATCH, result.getMatchType());
+        assertNotNull(result.getId());
+        assertNull(result.getResource());
+        assertEquals(bruteForceBestMatch(entries, paths), result.getId());
+
+        assertTrue(index.findBestMatch(Set.of("unrelated.path")).hasNoTemplate());
+        assertTrue(JsonSchemaIndex.empty().findBestMatch(paths).hasNoTemplate());
+    }
+
+    @Test
+    public void testSameResultAsFullScan() {
+        Random random = new Random(42);
+        List<String> vocabulary = IntStream.range(0, 200).mapToObj(i -> "root.path" + i).toList();
+        List<SchemaIndexEntry> entries = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            SchemaMetadata metadata = new SchemaMetadata();
+            metadata.setRequiredPaths(randomPaths(random, vocabulary, 1 + random.nextInt(40)));
+            if (random.nextInt(4) == 0) {
+                metadata.setHasVariants(true);
+                for (int v = 0; v < 1 + random.nextInt(3); v++) {
+                    SchemaVariant variant = new SchemaVariant();
+                    variant.setVariantIndex(v);
+                    variant.setRequiredPaths(
+                            randomPaths(random, vocabulary, 1 + random.nextInt(40)));
+                    metadata.getVariants().add(variant);
+                }
+            }
+            entries.add(new SchemaIndexEntry(id, "schema" + id, "1.0.0", metadata));
+        }
+        JsonSchemaIndex index = JsonSchemaIndex.build(entries);
+        for (int i = 0; i < 200; i++) {
+            Set<String> input = randomPaths(random, vocabulary, 1 + random.nextInt(60));
+            assertEquals(bruteForceBestMatch(entries, input), index.findBestMatch(input).getId());
+        }
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        SchemaMetadata first = new SchemaMetadata();
+        first.setRequiredPaths(Set.of("a", "b", "c"));
+        SchemaMetadata second = new SchemaMetadata();
+        second.setRequiredPaths(Set.of("a", "b", "d", "e"));
+        JsonSchemaIndex index =
+                JsonSchemaIndex.build(List.of(new SchemaIndexEntry(1L, "first", "1", first)));
+        assertEquals(3, index.getDictionary().size());
+
+        JsonSchemaIndex updated = index.with(new SchemaIndexEntry(2L, "second", "1", second));
+        assertEquals(2, updated.size());
+        assertEquals(5, updated.getDictionary().size());
+        assertEquals(2L, updated.findBestMatch(Set.of("a", "b", "d", "e")).getId());
+        // the previous snapshot is unaffected
+        assertEquals(1L, index.findBestMatch(Set.of("a", "b", "d", "e")).getId());
+
+        JsonSchemaIndex removed = updated.without(2L);
+        assertEquals(1, removed.size());
+        assertEquals(1L, removed.findBestMatch(Set.of("a", "b", "d", "e")).getId());
+    }
+
+    @Test
+    public void testDictionaryCompactedOnUpdates() {
+        JsonSchemaIndex index = JsonSchemaIndex.empty();
+        for (long id = 1; id <= 200; id++) {
+            long current = id;
+            SchemaMetadata metadata = new SchemaMetadata();
+            metadata.setRequiredPaths(
+                    IntStream.range(0, 20)
+                            .mapToObj(p -> "schema%s.path%s".formatted(current, p))
+                            .collect(Collectors.toSet()));
+            // a single schema at a time, the paths of the removed ones are no longer used
+            index =
+                    index.update(
+                            List.of(new SchemaIndexEntry(id, "schema" + id, "1", metadata)),
+                            id > 1 ? List.of(id - 1) : List.of());
+            assertTrue(index.getDictionary().size() <= 1024 + 2 * 20);
+        }
+        assertEquals(1, index.size());
+        Set<String> input =
+                IntStream.range(0, 20)
+                        .mapToObj(p -> "schema200.path" + p)
+                        .collect(Collectors.toSet());
+        assertEquals(200L, index.findBestMatch(input).getId());
+    }
+
+    @Test
+    public void testDiscriminatorMatch() {
+        SchemaMetadata vehicles = new SchemaMetadata();
+        vehicles.setRequiredPaths(Set.of("id", "kind"));
+        vehicles.setHasVariants(true);
+        vehicles.getVariants().add(variant("kind", "car", "doors"));
+        vehicles.getVariants().add(variant("kind", "truck", "axles"));
+        SchemaMetadata animals = new SchemaMetadata();
+        animals.setRequiredPaths(Set.of("species", "kind"));
+        animals.setHasVariants(true);
+        animals.getVariants().add(variant("kind", "car", "legs"));
+        JsonSchemaIndex index =
+                JsonSchemaIndex.build(
+                        List.of(
+                                new SchemaIndexEntry(1L, "vehicles", "1", vehicles),
+                                new SchemaIndexEntry(2L, "animals", "1", animals)));
+
+        // both schemas have a "car" variant, the one best covering the input wins
+        MatchResult<JsonNode> result =
+                index.findByDiscriminator(
+                        Map.of("kind", "car", "id", "x1"), Set.of("id", "kind", "doors"));
+        assertEquals(MatchType.DISCRIMINATOR_MATCH, result.getMatchType());
+        assertEquals(1L, result.getId());
+        assertEquals(
+                2L,
+                index.findByDiscriminator(Map.of("kind", "car"), Set.of("species", "kind", "legs"))
+                        .getId());
+
+        assertTrue(
+                index.findByDiscriminator(Map.of("kind", "bike"), Set.of("id", "kind"))
+                        .hasNoTemplate());
+        // a coincidental discriminator value is not enough
+        assertTrue(
+                index.findByDiscriminator(
+                                Map.of("kind", "truck"), Set.of("kind", "a", "b", "c", "d", "e"))
+                        .hasNoTemplate());
+        assertTrue(
+                index.without(1L)
+                        .findByDiscriminator(Map.of("kind", "truck"), Set.of("id", "kind", "axles"))
+                        .hasNoTemplate());
+    }
+
+    private static SchemaVariant variant(String path, String value, String... required) {
+        SchemaVariant variant = new SchemaVariant();
+        variant.setDiscriminatorPath(path);
+        variant.setDiscriminatorValue(value);
+        variant.setRequiredPaths(Set.of(required));
+        return variant;
+    }
+
+    private Set<String> randomPaths(Random random, List<String> vocabulary, int size) {
+        return random.ints(size, 0, vocabulary.size())
+                .mapToObj(vocabulary::get)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    // scores every schema, the way the database engine does
+    private Long bruteForceBestMatch(List<SchemaIndexEntry> entries, Set<String> input) {
+        record Scored(SchemaIndexEntry entry, double score) {}
+        Comparator<Scored> byScore =
+                Comparator.comparingDouble(Scored::score)
+                        .thenComparing(s -> s.entry().getId(), Comparator.reverseOrder());
+        List<Scored> top =
+                entries.stream()
+                        .map(
+                                e -> {
+                                    SchemaMetadata m = e.getMetadata();
+                                    double score =
+                                            SimilarityScorer.baseScore(
+                                                    matched(m.getRequiredPaths(), input),
+                                                    m.getRequiredPaths().size(),
+                                                    input.size());
+                                    for (SchemaVariant v : m.getVariants())
+                                        score =
+                                                Math.max(
+                                                        score,
+                                                        SimilarityScorer.variantScore(
+                                                                matched(
+                                                                        v.getRequiredPaths(),
+                                                                        input),
+                                                                v.getRequiredPaths().size(),
+                                                                input.size()));
+                                    return new Scored(e, score);
+                                })
+                        .filter(s -> s.score() >= SimilarityScorer.MIN_PRELIMINARY_SCORE)
+                        .sorted(byScore.reversed())
+                        .limit(SimilarityScorer.MAX_CANDIDATES)
+                        .toList();
+        return top.stream()
+                .map(
+                        s -> {
+                            SchemaMetadata m = s.entry().getMetadata();
+                            if (m.getPatternProperties().isEmpty()) return s;
+                            return new Scored(
+                                    s.entry(),
+                                    SimilarityScorer.refinedScore(
+                                            matched(m.getRequiredPaths(), input),
+                                            m.getRequiredPaths().size(),
+                                            CompiledPatternProperties.compile(
+                                                            m.getPatternProperties())
+                                                    .countMatched(
+                                                            SimilarityScorer.groupByPrefix(input)),
+                                            m.getPatternProperties().size(),
+                                            input.size()));
+                        })
+                .filter(s -> s.score() >= SimilarityScorer.MIN_FINAL_SCORE)
+                .max(byScore)
+                .map(s -> s.entry().getId())
+                .orElse(null);
+    }
+
+    private int matched(Set<String> required, Set<String> input) {
+        return (int) required.stream().filter(input::contains).count();
+    }
+}
@@ -18,6 +18,7 @@ package it.extrared.dpp.validator.json;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.quarkus.test.junit.QuarkusTest;
 import it.extared.dpp.validator.json.JsonSchemaMetadataExtractor;
 import it.extared.dpp.validator.json.dto.SchemaMetadata;
@@ -58,4 +59,26 @@ public class JsonSchemaMetadataExtractorTest {
         assertFalse(schema.isHasVariants());
         assertEquals(4, schema.getPatternProperties().size());
     }
+
+    @Test
+    public void testExplicitDiscriminator() throws JsonProcessingException {
+        SchemaMetadata schema =
+                extractor.extractMetadata(
+                        new ObjectMapper()
+                                .readTree(
+                                        """
+                                        {
+                                          "type": "object",
+                                          "discriminator": {"propertyName": "kind"},
+                                          "oneOf": [
+                                            {"properties": {"kind": {"const": "car"}}},
+                                            {"properties": {"kind": {"enum": ["truck"]}}}
+                                          ]
+                                        }
+                                        """));
+        assertEquals(2, schema.getVariants().size());
+        assertEquals("kind", schema.getVariants().get(0).getDiscriminatorPath());
+        assertEquals("car", schema.getVariants().get(0).getDiscriminatorValue());
+        assertEquals("truck", schema.getVariants().get(1).getDiscriminatorValue());
+    }
 }
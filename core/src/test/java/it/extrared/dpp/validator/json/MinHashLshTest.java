@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.extared.dpp.validator.json.JsonSchemaIndex;
+import it.extared.dpp.validator.json.MinHash;
+import it.extared.dpp.validator.json.dto.SchemaIndexEntry;
+import it.extared.dpp.validator.json.dto.SchemaMetadata;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the schema matched scoring every schema with the one matched scoring only the schemas
+ * sharing an LSH band with the input, on a small synthetic catalog of product category schemas.
+ */
+public class MinHashLshTest {
+
+    private static final int CATEGORIES = 20;
+    private static final int SCHEMAS_PER_CATEGORY = 10;
+    private static final int CATEGORY_PATHS = 60;
+    private static final int QUERIES = 100;
+    private static final int ROWS_PER_BAND = 2;
+
+    @Test
+    public void testSignatureEstimatesJaccard() {
+        Set<String> a = IntStream.range(0, 100).mapToObj(i -> "p" + i).collect(Collectors.toSet());
+        Set<String> b = IntStream.range(50, 150).mapToObj(i -> "p" + i).collect(Collectors.toSet());
+        // exact jaccard is 50/150
+        double estimate = MinHash.estimateJaccard(MinHash.signature(a), MinHash.signature(b));
+        assertEquals(1.0 / 3, estimate, 0.12);
+        assertArrayEquals(MinHash.signature(a), MinHash.signature(new TreeSet<>(a)));
+        assertEquals(0, MinHash.bandKeys(MinHash.signature(Set.of()), 2).length);
+        assertThrows(
+                IllegalArgumentException.class, () -> MinHash.bandKeys(MinHash.signature(a), 3));
+    }
+
+    @Test
+    public void testRecallAndPruningWithDefaultBanding() {
+        Random random = new Random(7);
+        List<SchemaIndexEntry> catalog = buildCatalog(random);
+        List<Set<String>> queries = buildQueries(random, catalog);
+        JsonSchemaIndex fullIndex = JsonSchemaIndex.build(catalog);
+        Map<Long, Set<Integer>> schemaBands = new HashMap<>();
+        for (SchemaIndexEntry e : catalog)
+            schemaBands.put(
+                    e.getId(),
+                    toSet(MinHash.bandKeys(e.getMetadata().getMinHashSignature(), ROWS_PER_BAND)));
+        int agreeing = 0;
+        long candidates = 0;
+        for (Set<String> query : queries) {
+            Set<Integer> inputBands =
+                    toSet(MinHash.bandKeys(MinHash.signature(query), ROWS_PER_BAND));
+            List<SchemaIndexEntry> pruned =
+                    catalog.stream()
+                            .filter(
+                                    e ->
+                                            !Collections.disjoint(
+                                                    schemaBands.get(e.getId()), inputBands))
+                            .toList();
+            candidates += pruned.size();
+            Long matched = JsonSchemaIndex.build(pruned).findBestMatch(query).getId();
+            if (Objects.equals(fullIndex.findBestMatch(query).getId(), matched)) agreeing++;
+        }
+        double recall = (double) agreeing / queries.size();
+        double scored = (double) candidates / (queries.size() * catalog.size());
+        assertTrue(recall >= 0.95, "recall with default banding is " + recall);
+        assertTrue(scored < 0.5, "scored fraction with default banding is " + scored);
+    }
+
+    private List<SchemaIndexEntry> buildCatalog(Random random) {
+        List<SchemaIndexEntry> catalog = new ArrayList<>();
+        long id = 1;
+        for (int c = 0; c < CATEGORIES; c++) {
+            for (int s = 0; s < SCHEMAS_PER_CATEGORY; s++) {
+                Set<String> paths = new HashSet<>();
+                for (int p = 0; p < CATEGORY_PATHS; p++)
+                    if (random.nextDouble() < 0.7) paths.add("category%s.path%s".formatted(c, p));
+                for (int p = 0; p < 10; p++)
+                    paths.add("common.path%s".formatted(random.nextInt(200)));
+                SchemaMetadata metadata = new SchemaMetadata();
+                metadata.setRequiredPaths(paths);
+                metadata.setMinHashSignature(MinHash.signature(paths));
+                catalog.add(new SchemaIndexEntry(id, "schema" + id, "1.0.0", metadata));
+                id++;
+            }
+        }
+        return catalog;
+    }
+
+    private List<Set<String>> buildQueries(Random random, List<SchemaIndexEntry> catalog) {
+        List<Set<String>> queries = new ArrayList<>();
+        for (int q = 0; q < QUERIES; q++) {
+            SchemaIndexEntry source = catalog.get(random.nextInt(catalog.size()));
+            Set<String> input =
+                    source.getMetadata().getRequiredPaths().stream()
+                            .filter(p -> random.nextDouble() < 0.8)
+                            .collect(Collectors.toCollection(HashSet::new));
+            int noise = input.size() * 3 / 10;
+            for (int n = 0; n < noise; n++)
+                input.add("optional.path%s".formatted(random.nextInt(500)));
+            queries.add(input);
+        }
+        return queries;
+    }
+
+    private Set<Integer> toSet(int[] keys) {
+        return Arrays.stream(keys).boxed().collect(Collectors.toSet());
+    }
+}
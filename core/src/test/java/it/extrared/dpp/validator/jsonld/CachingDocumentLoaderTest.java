@@ -0,0 +1,191 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.jsonld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.apicatalog.jsonld.JsonLd;
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.jsonld.loader.DocumentLoaderOptions;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.jsonld.CachingDocumentLoader;
+import jakarta.json.JsonArray;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CachingDocumentLoaderTest {
+
+    private static final String CONTEXT =
+            """
+            {"@context": {"@vocab": "http://example.org/vehicle-dpp#"}}
+            """;
+
+    private static final String ETAG = "\"v1\"";
+
+    @TempDir Path tempDir;
+
+    private HttpServer server;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/contexts/vehicle.jsonld",
+                exchange -> {
+                    requests.incrementAndGet();
+                    if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                        notModified.incrementAndGet();
+                        exchange.sendResponseHeaders(304, -1);
+                    } else {
+                        byte[] body = CONTEXT.getBytes(StandardCharsets.UTF_8);
+                        exchange.getResponseHeaders().add("ETag", ETAG);
+                        exchange.getResponseHeaders().add("Content-Type", "application/ld+json");
+                        exchange.sendResponseHeaders(200, body.length);
+                        exchange.getResponseBody().write(body);
+                    }
+                    exchange.close();
+                });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    public void testFetchOnceWithinTtl() throws Exception {
+        CachingDocumentLoader loader =
+                new CachingDocumentLoader(
+                        new TestConfig(Duration.ofHours(1), null, null, false),
+                        new SimpleMeterRegistry());
+        String input =
+                        """
+                {"@context": "%s", "@type": "VehicleDPP", "vin": "123"}
+                """
+                        .formatted(contextUrl());
+
+        for (int i = 0; i < 3; i++) {
+            JsonArray expanded =
+                    JsonLd.expand(JsonDocument.of(new StringReader(input))).loader(loader).get();
+            assertEquals(
+                    "http://example.org/vehicle-dpp#VehicleDPP",
+                    expanded.getJsonObject(0).getJsonArray("@type").getString(0));
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testRevalidateAndServeStale() throws Exception {
+        CachingDocumentLoader loader =
+                new CachingDocumentLoader(
+                        new TestConfig(Duration.ZERO, null, null, false),
+                        new SimpleMeterRegistry());
+        URI url = contextUrl();
+        loader.loadDocument(url, new DocumentLoaderOptions());
+        loader.loadDocument(url, new DocumentLoaderOptions());
+        assertEquals(2, requests.get());
+        assertEquals(1, notModified.get());
+
+        server.stop(0);
+        server = null;
+        assertNotNull(loader.loadDocument(url, new DocumentLoaderOptions()));
+    }
+
+    @Test
+    public void testOfflineFromDiskCacheAndSeeds() throws Exception {
+        Path cacheDir = tempDir.resolve("cache");
+        new CachingDocumentLoader(
+                        new TestConfig(Duration.ofHours(1), null, cacheDir, false),
+                        new SimpleMeterRegistry())
+                .loadDocument(contextUrl(), new DocumentLoaderOptions());
+
+        Path seedDir = tempDir.resolve("seeds");
+        Files.createDirectories(seedDir.resolve("example.org/contexts"));
+        Files.writeString(seedDir.resolve("example.org/contexts/dpp.jsonld"), CONTEXT);
+        CachingDocumentLoader offline =
+                new CachingDocumentLoader(
+                        new TestConfig(Duration.ofHours(1), seedDir, cacheDir, true),
+                        new SimpleMeterRegistry());
+
+        assertNotNull(offline.loadDocument(contextUrl(), new DocumentLoaderOptions()));
+        assertNotNull(
+                offline.loadDocument(
+                        URI.create("https://example.org/contexts/dpp.jsonld"),
+                        new DocumentLoaderOptions()));
+        assertEquals(1, requests.get());
+        assertThrows(
+                JsonLdError.class,
+                () ->
+                        offline.loadDocument(
+                                URI.create("https://example.org/unknown.jsonld"),
+                                new DocumentLoaderOptions()));
+        assertThrows(
+                JsonLdError.class,
+                () ->
+                        offline.loadDocument(
+                                URI.create("https://example.org/../../etc/passwd"),
+                                new DocumentLoaderOptions()));
+    }
+
+    private URI contextUrl() {
+        return URI.create(
+                "http://localhost:%s/contexts/vehicle.jsonld"
+                        .formatted(server.getAddress().getPort()));
+    }
+
+    private record TestConfig(Duration ttl, Path seed, Path cache, boolean offline)
+            implements DppValidatorConfig.JsonLdContexts {
+
+        @Override
+        public int maximumSize() {
+            return 16;
+        }
+
+        @Override
+        public Optional<Path> seedDirectory() {
+            return Optional.ofNullable(seed);
+        }
+
+        @Override
+        public Optional<Path> cacheDirectory() {
+            return Optional.ofNullable(cache);
+        }
+
+        @Override
+        public Duration fetchTimeout() {
+            return Duration.ofSeconds(5);
+        }
+    }
+}
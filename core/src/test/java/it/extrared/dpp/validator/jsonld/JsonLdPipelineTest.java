@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.jsonld;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.apicatalog.jsonld.JsonLdError;
+import io.quarkus.test.junit.QuarkusTest;
+import it.extared.dpp.validator.jsonld.JsonLdMetadataExtractor;
+import it.extared.dpp.validator.jsonld.JsonLdPipeline;
+import it.extared.dpp.validator.jsonld.dto.InputJsonLdMetadata;
+import it.extared.dpp.validator.jsonld.dto.ParsedJsonLd;
+import it.extared.dpp.validator.utils.CommonUtils;
+import jakarta.inject.Inject;
+import java.io.ByteArrayInputStream;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphMemFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@QuarkusTest
+public class JsonLdPipelineTest {
+
+    @Inject JsonLdPipeline pipeline;
+
+    @Inject JsonLdMetadataExtractor extractor;
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {"vehicle-ld.json", "no-vocab-vehicle-ld.json", "invalid-vehicle-ld.json"})
+    public void graphIsomorphicToJenaReader(String resource) throws JsonLdError {
+        byte[] input = CommonUtils.readJsonLdString(resource).getBytes();
+        Graph graph = pipeline.toGraph(pipeline.parse(new ByteArrayInputStream(input)));
+
+        Graph expected = GraphMemFactory.createDefaultGraph();
+        RDFParser.create()
+                .source(new ByteArrayInputStream(input))
+                .lang(Lang.JSONLD)
+                .parse(expected);
+
+        assertFalse(graph.isEmpty());
+        assertEquals(expected.size(), graph.size());
+        assertTrue(graph.isIsomorphicWith(expected));
+    }
+
+    @Test
+    public void metadataFromParsedInput() throws JsonLdError {
+        ParsedJsonLd parsed =
+                pipeline.parse(
+                        new ByteArrayInputStream(
+                                CommonUtils.readJsonLdString("vehicle-ld.json").getBytes()));
+        InputJsonLdMetadata metadata = extractor.extractMetadata(parsed);
+        assertEquals("http://example.org/vehicle-dpp#", metadata.getVocabularyUri());
+        assertTrue(metadata.getType().endsWith("VehicleDPP"));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.jsonld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.test.junit.QuarkusTest;
+import it.extared.dpp.validator.cache.ResourceKey;
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.dto.MatchType;
+import it.extared.dpp.validator.jsonld.ShaclShapesCache;
+import it.extared.dpp.validator.jsonld.dto.ShaclTemplateContent;
+import it.extared.dpp.validator.utils.CommonUtils;
+import jakarta.inject.Inject;
+import org.apache.jena.shacl.Shapes;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class ShaclShapesCacheTest {
+
+    @Inject ShaclShapesCache shapesCache;
+
+    @Test
+    public void testParseOnceAndEvict() {
+        MatchResult<ShaclTemplateContent> match =
+                new MatchResult<>(
+                        200L,
+                        "cached",
+                        "1.0.0",
+                        new ShaclTemplateContent(
+                                null, CommonUtils.readShaclString("vehicle_shacl.ttl")),
+                        MatchType.NAME_AND_VERSION);
+        Shapes first = shapesCache.getOrParse(match);
+        Shapes second = shapesCache.getOrParse(match);
+        assertSame(first, second);
+        assertFalse(first.getTargetShapes().isEmpty());
+
+        shapesCache.evict("cached", "1.0.0");
+        assertNull(shapesCache.getIfPresent(ResourceKey.of(match)));
+    }
+
+    @Test
+    public void testBinaryRoundTrip() {
+        Shapes parsed = ShaclShapesCache.parse(CommonUtils.readShaclString("vehicle_shacl.ttl"));
+        MatchResult<ShaclTemplateContent> match =
+                new MatchResult<>(
+                        201L,
+                        "binary",
+                        "1.0.0",
+                        new ShaclTemplateContent(ShaclShapesCache.toBinary(parsed), null),
+                        MatchType.NAME_AND_VERSION);
+        Shapes loaded = shapesCache.getOrParse(match);
+        assertTrue(loaded.getGraph().isIsomorphicWith(parsed.getGraph()));
+        assertEquals(parsed.getTargetShapes().size(), loaded.getTargetShapes().size());
+    }
+}
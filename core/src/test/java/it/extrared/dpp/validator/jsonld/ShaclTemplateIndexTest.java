@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.jsonld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.extared.dpp.validator.dto.MatchResult;
+import it.extared.dpp.validator.dto.MatchType;
+import it.extared.dpp.validator.jsonld.ShaclTemplateIndex;
+import it.extared.dpp.validator.jsonld.dto.InputJsonLdMetadata;
+import it.extared.dpp.validator.jsonld.dto.TemplateIndexEntry;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class ShaclTemplateIndexTest {
+
+    private static final String VOCAB = "http://example.org/vehicle-dpp#";
+
+    @Test
+    public void testPrecedence() {
+        ShaclTemplateIndex index =
+                ShaclTemplateIndex.build(
+                        List.of(
+                                new TemplateIndexEntry(
+                                        1L, "by-vocab", "1", null, Set.of(), Set.of(VOCAB)),
+                                new TemplateIndexEntry(
+                                        2L,
+                                        "by-context",
+                                        "1",
+                                        "http://context.ld",
+                                        Set.of(),
+                                        Set.of()),
+                                new TemplateIndexEntry(
+                                        3L,
+                                        "by-type",
+                                        "1",
+                                        null,
+                                        Set.of(VOCAB + "VehicleDPP"),
+                                        Set.of(VOCAB))));
+
+        MatchResult<String> result =
+                index.findBestMatch(metadata(VOCAB + "VehicleDPP", "http://context.ld", VOCAB));
+        assertEquals(MatchType.EXACT_TYPE_MATCH, result.getMatchType());
+        assertEquals(3L, result.getId());
+        assertNull(result.getResource());
+
+        result = index.findBestMatch(metadata(VOCAB + "Other", "http://context.ld", VOCAB));
+        assertEquals(MatchType.CONTEXT_URI_MATCH, result.getMatchType());
+        assertEquals(2L, result.getId());
+
+        // the oldest template wins among the ones declaring the vocabulary
+        result = index.findBestMatch(metadata(VOCAB + "Other", null, VOCAB));
+        assertEquals(MatchType.VOCABULARY_MATCH, result.getMatchType());
+        assertEquals(1L, result.getId());
+
+        assertTrue(index.findBestMatch(metadata(null, null, "http://none#")).hasNoTemplate());
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        ShaclTemplateIndex index = ShaclTemplateIndex.empty();
+        InputJsonLdMetadata input = metadata(VOCAB + "VehicleDPP", null, VOCAB);
+        assertTrue(index.findBestMatch(input).hasNoTemplate());
+
+        ShaclTemplateIndex updated =
+                index.with(
+                        new TemplateIndexEntry(
+                                5L, "vehicle", "1", null, Set.of(VOCAB + "VehicleDPP"), Set.of()));
+        assertEquals(5L, updated.findBestMatch(input).getId());
+        assertTrue(index.findBestMatch(input).hasNoTemplate());
+        assertTrue(updated.without(5L).findBestMatch(input).hasNoTemplate());
+    }
+
+    private static InputJsonLdMetadata metadata(String type, String context, String vocabulary) {
+        InputJsonLdMetadata metadata = new InputJsonLdMetadata();
+        metadata.setType(type);
+        metadata.setContextUri(context);
+        metadata.setVocabularyUri(vocabulary);
+        return metadata;
+    }
+}
@@ -22,10 +22,12 @@ import io.smallrye.mutiny.Uni;
 import io.vertx.mutiny.sqlclient.SqlConnection;
 import it.extared.dpp.validator.dto.*;
 import it.extared.dpp.validator.json.JsonSchemaRepository;
+import it.extared.dpp.validator.json.dto.SchemaIndexEntry;
 import it.extared.dpp.validator.json.dto.SchemaMetadata;
 import it.extared.dpp.validator.utils.CommonUtils;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import java.time.Duration;
 import java.util.List;
 
 @Unremovable
@@ -93,9 +95,33 @@ public class MockJsonSchemaRepository implements JsonSchemaRepository {
         return Uni.createFrom().voidItem();
     }
 
+    @Override
+    public Uni<Duration> findValidationTimeout(SqlConnection connection, Long id) {
+        return Uni.createFrom().nullItem();
+    }
+
     @Override
     public Uni<String> findById(SqlConnection connection, Long id) {
         return Uni.createFrom()
                 .item(new String(CommonUtils.readJsonSchemaBytes("test-schema-simple.json")));
     }
+
+    @Override
+    public Uni<List<SchemaIndexEntry>> findIndexEntries(SqlConnection connection) {
+        return Uni.createFrom().item(List.of());
+    }
+
+    @Override
+    public Uni<MatchResult<JsonNode>> findByDiscriminator(
+            SqlConnection connection,
+            String[] discriminatorPaths,
+            String[] discriminatorValues,
+            String[] jsonProperties) {
+        return Uni.createFrom().item(MatchResult.emptyResult());
+    }
+
+    @Override
+    public Uni<SchemaIndexEntry> findIndexEntry(SqlConnection connection, Long id) {
+        return Uni.createFrom().nullItem();
+    }
 }
@@ -19,11 +19,15 @@ import io.quarkus.arc.Unremovable;
 import io.smallrye.mutiny.Uni;
 import io.vertx.mutiny.sqlclient.SqlConnection;
 import it.extared.dpp.validator.dto.*;
+import it.extared.dpp.validator.jsonld.ShaclShapesCache;
 import it.extared.dpp.validator.jsonld.ShaclTemplateRepository;
 import it.extared.dpp.validator.jsonld.dto.InputJsonLdMetadata;
 import it.extared.dpp.validator.jsonld.dto.ShaclShapeMetadata;
+import it.extared.dpp.validator.jsonld.dto.ShaclTemplateContent;
+import it.extared.dpp.validator.jsonld.dto.TemplateIndexEntry;
 import it.extared.dpp.validator.utils.CommonUtils;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
 import java.util.List;
 
 @Unremovable
@@ -76,17 +80,48 @@ public class MockShaclRepository implements ShaclTemplateRepository {
                                 MatchType.NAME_AND_VERSION));
     }
 
+    @Override
+    public Uni<MatchResult<ShaclTemplateContent>> findContentByNameAndVersion(
+            SqlConnection conn, String name, String version) {
+        byte[] binary =
+                ShaclShapesCache.toBinary(
+                        ShaclShapesCache.parse(CommonUtils.readShaclString("vehicle_shacl.ttl")));
+        return Uni.createFrom()
+                .item(
+                        new MatchResult<>(
+                                "Vehicle DPP",
+                                "1.1.0",
+                                new ShaclTemplateContent(binary, null),
+                                MatchType.NAME_AND_VERSION));
+    }
+
     @Override
     public Uni<Long> addShaclTemplate(
             SqlConnection conn,
             ResourceMetadata resourceMetadata,
             List<ShaclShapeMetadata> metadataList,
-            String template) {
+            String template,
+            byte[] binaryTemplate) {
         return Uni.createFrom().item(1L);
     }
 
+    @Override
+    public Uni<Duration> findValidationTimeout(SqlConnection connection, Long id) {
+        return Uni.createFrom().nullItem();
+    }
+
     @Override
     public Uni<String> findById(SqlConnection connection, Long id) {
         return Uni.createFrom().item(CommonUtils.readShaclString("vehicle_shacl.ttl"));
     }
+
+    @Override
+    public Uni<List<TemplateIndexEntry>> findIndexEntries(SqlConnection connection) {
+        return Uni.createFrom().item(List.of());
+    }
+
+    @Override
+    public Uni<TemplateIndexEntry> findIndexEntry(SqlConnection connection, Long id) {
+        return Uni.createFrom().nullItem();
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.mocks;
+
+import io.quarkus.arc.Unremovable;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import it.extared.dpp.validator.dto.BulkValidationItem;
+import it.extared.dpp.validator.dto.PagedResult;
+import it.extared.dpp.validator.exceptions.NotFoundException;
+import it.extared.dpp.validator.jobs.ValidationJobRepository;
+import it.extared.dpp.validator.jobs.dto.JobStatus;
+import it.extared.dpp.validator.jobs.dto.ValidationJob;
+import it.extared.dpp.validator.utils.NdjsonReader;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** In memory repository of validation jobs. */
+@Unremovable
+@ApplicationScoped
+public class MockValidationJobRepository implements ValidationJobRepository {
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final Map<Long, ValidationJob> jobs = new ConcurrentHashMap<>();
+
+    private final Map<Long, ConcurrentSkipListMap<Long, NdjsonReader.Line>> items =
+            new ConcurrentHashMap<>();
+
+    private final Map<Long, ConcurrentSkipListMap<Long, BulkValidationItem>> results =
+            new ConcurrentHashMap<>();
+
+    @Override
+    public Uni<Long> createJob(SqlConnection conn, OffsetDateTime notBefore) {
+        ValidationJob job = new ValidationJob();
+        job.setId(ids.incrementAndGet());
+        job.setStatus(JobStatus.RECEIVING);
+        job.setCreatedAt(OffsetDateTime.now());
+        job.setNotBefore(Objects.requireNonNullElse(notBefore, job.getCreatedAt()));
+        jobs.put(job.getId(), job);
+        items.put(job.getId(), new ConcurrentSkipListMap<>());
+        results.put(job.getId(), new ConcurrentSkipListMap<>());
+        return Uni.createFrom().item(job.getId());
+    }
+
+    @Override
+    public Uni<Void> addItems(SqlConnection conn, Long jobId, List<NdjsonReader.Line> lines) {
+        lines.forEach(l -> items.get(jobId).put(l.number(), l));
+        return Uni.createFrom().voidItem();
+    }
+
+    @Override
+    public Uni<Integer> expireReceiving(SqlConnection conn, Duration receiveTimeout) {
+        OffsetDateTime expiry = OffsetDateTime.now().minus(receiveTimeout);
+        int expired = 0;
+        for (ValidationJob job : jobs.values()) {
+            if (job.getStatus() != JobStatus.RECEIVING || !job.getCreatedAt().isBefore(expiry))
+                continue;
+            markFailed(conn, job.getId(), "The items were not received in full");
+            items.get(job.getId()).clear();
+            expired++;
+        }
+        return Uni.createFrom().item(expired);
+    }
+
+    @Override
+    public Uni<Void> markPending(SqlConnection conn, Long jobId, long totalItems) {
+        ValidationJob job = jobs.get(jobId);
+        job.setTotalItems(totalItems);
+        job.setStatus(JobStatus.PENDING);
+        return Uni.createFrom().voidItem();
+    }
+
+    @Override
+    public synchronized Uni<ValidationJob> claimJob(SqlConnection conn, Duration staleAfter) {
+        ValidationJob claimed =
+                jobs.values().stream()
+                        .filter(j -> j.getStatus() == JobStatus.PENDING)
+                        .filter(j -> !j.getNotBefore().isAfter(OffsetDateTime.now()))
+                        .findFirst()
+                        .orElse(null);
+        if (claimed != null) {
+            claimed.setStatus(JobStatus.RUNNING);
+            claimed.setStartedAt(OffsetDateTime.now());
+        }
+        return Uni.createFrom().item(claimed);
+    }
+
+    @Override
+    public Uni<Void> heartbeat(SqlConnection conn, Collection<Long> jobIds) {
+        return Uni.createFrom().voidItem();
+    }
+
+    @Override
+    public Uni<List<NdjsonReader.Line>> findPendingItems(
+            SqlConnection conn, Long jobId, int limit) {
+        return Uni.createFrom().item(items.get(jobId).values().stream().limit(limit).toList());
+    }
+
+    @Override
+    public Uni<Void> addResults(
+            SqlConnection conn, Long jobId, List<BulkValidationItem> itemResults) {
+        ValidationJob job = jobs.get(jobId);
+        for (BulkValidationItem result : itemResults) {
+            if (items.get(jobId).remove(result.getLine()) == null) continue;
+            results.get(jobId).put(result.getLine(), result);
+            job.setProcessedItems(job.getProcessedItems() + 1);
+            if (!result.getReport().isValid()) job.setInvalidItems(job.getInvalidItems() + 1);
+        }
+        return Uni.createFrom().voidItem();
+    }
+
+    @Override
+    public Uni<Void> markCompleted(SqlConnection conn, Long jobId) {
+        ValidationJob job = jobs.get(jobId);
+        job.setStatus(JobStatus.COMPLETED);
+        job.setCompletedAt(OffsetDateTime.now());
+        return Uni.createFrom().voidItem();
+    }
+
+    @Override
+    public Uni<Void> markFailed(SqlConnection conn, Long jobId, String error) {
+        ValidationJob job = jobs.get(jobId);
+        job.setStatus(JobStatus.FAILED);
+        job.setError(error);
+        job.setCompletedAt(OffsetDateTime.now());
+        return Uni.createFrom().voidItem();
+    }
+
+    @Override
+    public Uni<ValidationJob> findById(SqlConnection conn, Long jobId) {
+        ValidationJob job = jobs.get(jobId);
+        if (job == null)
+            return Uni.createFrom()
+                    .failure(new NotFoundException("No validation job found with id " + jobId));
+        return Uni.createFrom().item(job);
+    }
+
+    @Override
+    public Uni<PagedResult<BulkValidationItem>> findResults(
+            SqlConnection conn, Long jobId, int offset, int limit) {
+        List<BulkValidationItem> page =
+                results.get(jobId).values().stream().skip(offset).limit(limit).toList();
+        PagedResult.Builder<BulkValidationItem> builder = PagedResult.builder();
+        return Uni.createFrom()
+                .item(
+                        builder.withElements(page)
+                                .withTotalElements((long) results.get(jobId).size())
+                                .withPageSize(limit)
+                                .build());
+    }
+}
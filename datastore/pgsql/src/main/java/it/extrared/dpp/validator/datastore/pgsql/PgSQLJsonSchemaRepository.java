@@ -15,32 +15,51 @@
  */
 package it.extrared.dpp.validator.datastore.pgsql;
 
+import static it.extared.dpp.validator.events.ResourceChangeEvent.Operation.ADDED;
+import static it.extared.dpp.validator.events.ResourceChangeEvent.Operation.REMOVED;
 import static it.extared.dpp.validator.utils.CommonUtils.debug;
-import static it.extared.dpp.validator.utils.JsonUtils.toVertxJson;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.asJsonbParam;
 import static it.extrared.dpp.validator.datastore.pgsql.Utils.asLikeParam;
 import static it.extrared.dpp.validator.datastore.pgsql.Utils.asPagedResult;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.notifyResourceChange;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.parseJsonb;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.toDuration;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.toIntArray;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.toIntegerArray;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.toMillis;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import io.opentelemetry.api.internal.StringUtils;
+import io.quarkus.runtime.StartupEvent;
 import io.smallrye.mutiny.Uni;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.mutiny.sqlclient.Pool;
 import io.vertx.mutiny.sqlclient.Row;
 import io.vertx.mutiny.sqlclient.RowSet;
 import io.vertx.mutiny.sqlclient.SqlConnection;
 import io.vertx.mutiny.sqlclient.Tuple;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.ValidationType;
+import it.extared.dpp.validator.cache.ResourceKey;
 import it.extared.dpp.validator.dto.*;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
 import it.extared.dpp.validator.exceptions.NotFoundException;
+import it.extared.dpp.validator.json.CompiledPatternProperties;
 import it.extared.dpp.validator.json.JsonSchemaRepository;
+import it.extared.dpp.validator.json.MinHash;
+import it.extared.dpp.validator.json.PatternPropertiesCache;
+import it.extared.dpp.validator.json.SimilarityScorer;
 import it.extared.dpp.validator.json.dto.PatternProperty;
+import it.extared.dpp.validator.json.dto.SchemaIndexEntry;
 import it.extared.dpp.validator.json.dto.SchemaMetadata;
 import it.extared.dpp.validator.json.dto.SchemaVariant;
-import it.extared.dpp.validator.utils.JsonUtils;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Function;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.jboss.logging.Logger;
 
@@ -50,16 +69,20 @@ public class PgSQLJsonSchemaRepository implements JsonSchemaRepository {
 
     private static final String FIND_BY_NAME_AND_VERSION =
             """
-            SELECT 'NAME_AND_VERSION' as match_type, js.schema_content, js.schema_version, js.schema_name FROM json_schemas js WHERE js.schema_name=$1 AND js.schema_version=$2
+            SELECT 'NAME_AND_VERSION' as match_type, js.id, js.schema_content::text AS schema_content, js.schema_version, js.schema_name FROM json_schemas js WHERE js.schema_name=$1 AND js.schema_version=$2
             """;
 
     private static final String FIND_BY_ID =
             """
-SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
+SELECT js.schema_content::text AS schema_content FROM json_schemas js WHERE js.id=$1
+""";
+    private static final String FIND_VALIDATION_TIMEOUT =
+            """
+SELECT js.validation_timeout_ms FROM json_schemas js WHERE js.id=$1
 """;
     private static final String SELECT_SEARCH_SCHEMAS =
             """
-            SELECT js.id, js.schema_name,js.description, js.schema_version FROM json_schemas js
+            SELECT js.id, js.schema_name,js.description, js.schema_version, js.validation_timeout_ms FROM json_schemas js
             """;
     private static final String SELECT_COUNT_SCHEMAS =
             """
@@ -69,8 +92,9 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
     private static final String INSERT_SCHEMA_WITH_METADATA =
             """
                     INSERT INTO json_schemas
-                    (schema_name,description, schema_version, required_paths, required_paths_count, has_variants, schema_content)
-                    VALUES ($1, $2, $3, $4, $5, $6,$7)
+                    (schema_name,description, schema_version, required_paths, required_paths_count, has_variants, schema_content,
+                     minhash_signature, lsh_bands, lsh_rows, validation_timeout_ms)
+                    VALUES ($1, $2, $3, $4, $5, $6, $7::text::jsonb, $8, $9, $10, $11)
                     RETURNING id
                     """;
 
@@ -85,23 +109,105 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
             """
                     INSERT INTO schema_variants
                         (schema_metadata_id, variant_type, variant_index, required_paths, required_paths_count,
-                         discriminator_path, discriminator_value)
-                        VALUES ($1, $2, $3, $4, $5, $6, $7)
+                         discriminator_path, discriminator_value, minhash_signature)
+                        VALUES ($1, $2, $3, $4, $5, $6, $7, $8)
                     """;
 
     private static final String DELETE_SCHEMA =
             """
-                    DELETE FROM json_schemas WHERE id=$1
+                    DELETE FROM json_schemas WHERE id=$1 RETURNING schema_name, schema_version
                     """;
 
-    private static final String SIMILARITY_BASED_MATCH =
+    private static final String SELECT_INDEX_ENTRIES =
+            """
+            SELECT
+                js.id,
+                js.schema_name,
+                js.schema_version,
+                js.required_paths,
+                js.has_variants,
+                COALESCE(
+                    (SELECT json_agg(
+                        json_build_object(
+                            'variant_type', sv.variant_type,
+                            'variant_index', sv.variant_index,
+                            'required_paths', sv.required_paths,
+                            'discriminator_path', sv.discriminator_path,
+                            'discriminator_value', sv.discriminator_value
+                        ) ORDER BY sv.variant_index)
+                     FROM schema_variants sv WHERE sv.schema_metadata_id = js.id),
+                    '[]'::json
+                ) AS variants,
+                COALESCE(
+                    (SELECT json_agg(
+                        json_build_object(
+                            'pattern_regex', pp.pattern_regex,
+                            'path_prefix', pp.path_prefix,
+                            'required_sub_paths', pp.required_sub_paths
+                        ))
+                     FROM schema_pattern_properties pp WHERE pp.schema_metadata_id = js.id),
+                    '[]'::json
+                ) AS pattern_properties
+            FROM json_schemas js
+            """;
+
+    // schemas with a stale or missing banding are never pruned
+    private static final String LSH_SCHEMA_FILTER =
+            "WHERE sm.lsh_rows IS DISTINCT FROM $3 OR sm.lsh_bands && $4";
+
+    private static final String LSH_VARIANT_FILTER =
+            "WHERE sv.schema_metadata_id IN (SELECT id FROM schema_scores)";
+
+    private static final String SELECT_STALE_LSH_BANDS =
+            """
+            SELECT
+                js.id,
+                js.minhash_signature,
+                COALESCE(
+                    (SELECT json_agg(sv.minhash_signature)
+                     FROM schema_variants sv
+                     WHERE sv.schema_metadata_id = js.id AND sv.minhash_signature IS NOT NULL),
+                    '[]'::json
+                ) AS variant_signatures
+            FROM json_schemas js
+            WHERE js.minhash_signature IS NOT NULL AND js.lsh_rows IS DISTINCT FROM $1
+            """;
+
+    private static final String UPDATE_LSH_BANDS =
+            """
+            UPDATE json_schemas SET lsh_bands=$2, lsh_rows=$3 WHERE id=$1
+            """;
+
+    // resolved through idx_variants_discriminator, paths are counted on base and variant union
+    private static final String DISCRIMINATOR_MATCH =
+            """
+            SELECT
+                js.id,
+                js.schema_name,
+                js.schema_version,
+                (
+                    SELECT COUNT(*)::int
+                    FROM (SELECT unnest(js.required_paths) UNION SELECT unnest(sv.required_paths)) AS rp(p)
+                    WHERE rp.p = ANY($3)
+                ) AS matched_count,
+                (
+                    SELECT COUNT(*)::int
+                    FROM (SELECT unnest(js.required_paths) UNION SELECT unnest(sv.required_paths)) AS rp(p)
+                ) AS required_count
+            FROM schema_variants sv
+            JOIN json_schemas js ON js.id = sv.schema_metadata_id
+            WHERE (sv.discriminator_path, sv.discriminator_value) IN (
+                SELECT d.path, d.value FROM unnest($1::text[], $2::text[]) AS d(path, value)
+            )
+            """;
+
+    private static final String SIMILARITY_BASED_MATCH_TEMPLATE =
             """
            WITH schema_scores AS (
                 SELECT
                     sm.id,
                     sm.schema_name,
                     sm.schema_version,
-                    sm.schema_content,
                     sm.required_paths_count,
                     (
                         SELECT COUNT(*)::int
@@ -110,13 +216,13 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                     ) AS matched_count,
                     $2::int AS input_count
                 FROM json_schemas sm
+                %s
             ),
             base_jaccard AS (
                 SELECT
                     id,
                     schema_name,
                     schema_version,
-                    schema_content,
                     matched_count,
                     required_paths_count,
                     CASE
@@ -136,6 +242,7 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                     ) AS variant_matched,
                     $2::int AS input_count
                 FROM schema_variants sv
+                %s
             ),
             variant_jaccard AS (
                 SELECT
@@ -154,7 +261,6 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                     bj.id,
                     bj.schema_name,
                     bj.schema_version,
-                    bj.schema_content,
                     bj.matched_count,
                     bj.required_paths_count,
                     CASE
@@ -179,7 +285,6 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                 pr.preliminary_score,
                 pr.matched_count,
                 pr.required_paths_count,
-                pr.schema_content,
                 COALESCE(
                     json_agg(
                         json_build_object(
@@ -193,16 +298,23 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
             FROM preliminary_results pr
             LEFT JOIN schema_pattern_properties pp ON pp.schema_metadata_id = pr.id
             GROUP BY pr.id, pr.schema_name, pr.schema_version, pr.preliminary_score,
-                     pr.matched_count, pr.required_paths_count, pr.schema_content
+                     pr.matched_count, pr.required_paths_count
             ORDER BY pr.preliminary_score DESC
            """;
 
+    private static final String SIMILARITY_BASED_MATCH =
+            SIMILARITY_BASED_MATCH_TEMPLATE.formatted("", "");
+
+    private static final String LSH_PRUNED_SIMILARITY_BASED_MATCH =
+            SIMILARITY_BASED_MATCH_TEMPLATE.formatted(LSH_SCHEMA_FILTER, LSH_VARIANT_FILTER);
+
     private static final Function<Row, MatchResult<JsonNode>> AS_MATCH_RESULT =
             r ->
                     new MatchResult<>(
+                            r.getLong("id"),
                             r.getString("schema_name"),
                             r.getString("schema_version"),
-                            JsonUtils.fromVertxJson(r.getJsonObject("schema_content")),
+                            parseJsonb(r.getString("schema_content")),
                             MatchType.valueOf(r.getString("match_type")));
 
     private static final Function<Row, ResourceMetadata> AS_RESULT_METADATA =
@@ -212,11 +324,16 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                 res.setName(r.getString("schema_name"));
                 res.setDescription(r.getString("description"));
                 res.setVersion(r.getString("schema_version"));
+                res.setValidationTimeout(toDuration(r.getLong("validation_timeout_ms")));
                 return res;
             };
 
     private static final Logger LOGGER = Logger.getLogger(PgSQLJsonSchemaRepository.class);
 
+    @Inject DppValidatorConfig config;
+
+    @Inject PatternPropertiesCache patternsCache;
+
     @Override
     public Uni<PagedResult<ResourceMetadata>> search(SqlConnection conn, SearchDto searchDto) {
         debug(LOGGER, () -> "search with parameters %s".formatted(searchDto));
@@ -293,6 +410,7 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
             SchemaMetadata metadata,
             JsonNode schema) {
         debug(LOGGER, () -> "adding json schema metadata %s".formatted(metadata));
+        int rowsPerBand = config.matching().lsh().rowsPerBand();
         Uni<RowSet<Row>> rows =
                 connection
                         .preparedQuery(INSERT_SCHEMA_WITH_METADATA)
@@ -305,7 +423,11 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                                                 metadata.getRequiredPaths().toArray(new String[0]),
                                                 metadata.getRequiredPaths().size(),
                                                 metadata.isHasVariants(),
-                                                toVertxJson(schema))));
+                                                asJsonbParam(schema),
+                                                toIntegerArray(metadata.getMinHashSignature()),
+                                                toIntegerArray(lshBands(metadata, rowsPerBand)),
+                                                rowsPerBand,
+                                                toMillis(resMetadata.getValidationTimeout()))));
         Uni<Long> id =
                 rows.map(s -> s.stream().findFirst().map(r -> r.getLong("id")))
                         .map(r -> r.orElse(0L));
@@ -317,7 +439,16 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                             mid ->
                                     addPatternProperties(
                                             connection, mid, metadata.getPatternProperties()));
-        return id;
+        return id.call(
+                mid ->
+                        notifyResourceChange(
+                                connection,
+                                new ResourceChangeEvent(
+                                        ValidationType.PLAIN_JSON,
+                                        ADDED,
+                                        mid,
+                                        resMetadata.getName(),
+                                        resMetadata.getVersion())));
     }
 
     private Uni<Void> addPatternProperties(
@@ -358,7 +489,8 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                                                         v.getRequiredPaths().toArray(new String[0]),
                                                         v.getRequiredPaths().size(),
                                                         v.getDiscriminatorPath(),
-                                                        v.getDiscriminatorValue())))
+                                                        v.getDiscriminatorValue(),
+                                                        toIntegerArray(v.getMinHashSignature()))))
                         .toList();
         return conn.preparedQuery(INSERT_VARIANTS).executeBatch(tuples).replaceWithVoid();
     }
@@ -371,12 +503,136 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                 () ->
                         "searching for best match with properties %s"
                                 .formatted(String.join(",", jsonProperties)));
+        DppValidatorConfig.Lsh lsh = config.matching().lsh();
+        if (!lsh.enabled())
+            return connection
+                    .preparedQuery(SIMILARITY_BASED_MATCH)
+                    .execute(Tuple.of(jsonProperties, jsonProperties.length))
+                    .map(rows -> this.performPatternPropertiesRefinement(jsonProperties, rows));
+        int[] inputBands =
+                MinHash.bandKeys(MinHash.signature(List.of(jsonProperties)), lsh.rowsPerBand());
         return connection
-                .preparedQuery(SIMILARITY_BASED_MATCH)
-                .execute(Tuple.of(jsonProperties, jsonProperties.length))
+                .preparedQuery(LSH_PRUNED_SIMILARITY_BASED_MATCH)
+                .execute(
+                        Tuple.of(
+                                jsonProperties,
+                                jsonProperties.length,
+                                lsh.rowsPerBand(),
+                                toIntegerArray(inputBands)))
                 .map(rows -> this.performPatternPropertiesRefinement(jsonProperties, rows));
     }
 
+    @Override
+    public Uni<MatchResult<JsonNode>> findByDiscriminator(
+            SqlConnection connection,
+            String[] discriminatorPaths,
+            String[] discriminatorValues,
+            String[] jsonProperties) {
+        debug(
+                LOGGER,
+                () ->
+                        "searching for discriminator match among %s"
+                                .formatted(String.join(",", discriminatorPaths)));
+        return connection
+                .preparedQuery(DISCRIMINATOR_MATCH)
+                .execute(Tuple.of(discriminatorPaths, discriminatorValues, jsonProperties))
+                .map(rows -> bestDiscriminatorMatch(rows, jsonProperties.length));
+    }
+
+    private MatchResult<JsonNode> bestDiscriminatorMatch(RowSet<Row> rows, int inputCount) {
+        Row best = null;
+        double bestScore = 0.0;
+        for (Row r : rows) {
+            double score =
+                    SimilarityScorer.discriminatorScore(
+                            r.getInteger("matched_count"),
+                            r.getInteger("required_count"),
+                            inputCount);
+            if (score < SimilarityScorer.MIN_PRELIMINARY_SCORE) continue;
+            if (best == null
+                    || score > bestScore
+                    || (score == bestScore && r.getLong("id") < best.getLong("id"))) {
+                best = r;
+                bestScore = score;
+            }
+        }
+        if (best == null) return MatchResult.emptyResult();
+        return new MatchResult<>(
+                best.getLong("id"),
+                best.getString("schema_name"),
+                best.getString("schema_version"),
+                null,
+                MatchType.DISCRIMINATOR_MATCH);
+    }
+
+    /**
+     * Recomputes, from the stored MinHash signatures, the LSH band keys of the schemas banded with
+     * a number of rows per band different from the configured one.
+     *
+     * @param connection the SQL connection.
+     * @return the number of updated schemas.
+     */
+    public Uni<Integer> refreshLshBands(SqlConnection connection) {
+        int rowsPerBand = config.matching().lsh().rowsPerBand();
+        return connection
+                .preparedQuery(SELECT_STALE_LSH_BANDS)
+                .execute(Tuple.of(rowsPerBand))
+                .map(
+                        rows ->
+                                rows.stream()
+                                        .map(
+                                                r ->
+                                                        Tuple.of(
+                                                                r.getLong("id"),
+                                                                toIntegerArray(
+                                                                        MinHash.bandKeys(
+                                                                                storedSignatures(r),
+                                                                                rowsPerBand)),
+                                                                rowsPerBand))
+                                        .toList())
+                .flatMap(
+                        tuples ->
+                                tuples.isEmpty()
+                                        ? Uni.createFrom().item(0)
+                                        : connection
+                                                .preparedQuery(UPDATE_LSH_BANDS)
+                                                .executeBatch(tuples)
+                                                .replaceWith(tuples.size()));
+    }
+
+    void onStart(@Observes StartupEvent event, Pool pool) {
+        if (!config.matching().lsh().enabled()) return;
+        pool.withTransaction(this::refreshLshBands)
+                .subscribe()
+                .with(
+                        n -> LOGGER.infof("refreshed the lsh bands of %s json schemas", n),
+                        t -> LOGGER.error("unable to refresh the lsh bands of json schemas", t));
+    }
+
+    private List<int[]> storedSignatures(Row row) {
+        List<int[]> signatures = new ArrayList<>();
+        signatures.add(toIntArray(row.getArrayOfIntegers("minhash_signature")));
+        JsonArray variants = row.getJsonArray("variant_signatures");
+        for (int i = 0; i < variants.size(); i++) {
+            signatures.add(
+                    variants.getJsonArray(i).stream()
+                            .mapToInt(o -> ((Number) o).intValue())
+                            .toArray());
+        }
+        return signatures;
+    }
+
+    private static int[] lshBands(SchemaMetadata metadata, int rowsPerBand) {
+        if (metadata.getMinHashSignature() == null) return null;
+        List<int[]> signatures = new ArrayList<>();
+        signatures.add(metadata.getMinHashSignature());
+        metadata.getVariants().stream()
+                .map(SchemaVariant::getMinHashSignature)
+                .filter(Objects::nonNull)
+                .forEach(signatures::add);
+        return MinHash.bandKeys(signatures, rowsPerBand);
+    }
+
     @Override
     public Uni<MatchResult<JsonNode>> findByNameAndVersion(
             SqlConnection connection, String name, String version) {
@@ -395,6 +651,53 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                                                                 .formatted(name, version))));
     }
 
+    @Override
+    public Uni<List<SchemaIndexEntry>> findIndexEntries(SqlConnection connection) {
+        debug(LOGGER, () -> "retrieving index entries of all the schemas");
+        return connection
+                .preparedQuery(SELECT_INDEX_ENTRIES)
+                .execute()
+                .map(rows -> rows.stream().map(this::asIndexEntry).toList());
+    }
+
+    @Override
+    public Uni<SchemaIndexEntry> findIndexEntry(SqlConnection connection, Long id) {
+        debug(LOGGER, () -> "retrieving index entry of schema with id %s".formatted(id));
+        return connection
+                .preparedQuery(SELECT_INDEX_ENTRIES + " WHERE js.id=$1")
+                .execute(Tuple.of(id))
+                .map(rows -> rows.stream().findFirst().map(this::asIndexEntry).orElse(null));
+    }
+
+    private SchemaIndexEntry asIndexEntry(Row row) {
+        SchemaMetadata metadata = new SchemaMetadata();
+        metadata.setRequiredPaths(new HashSet<>(List.of(row.getArrayOfStrings("required_paths"))));
+        metadata.setHasVariants(row.getBoolean("has_variants"));
+        metadata.setVariants(parseVariants(row.getJsonArray("variants")));
+        metadata.setPatternProperties(parsePatterns(row.getJsonArray("pattern_properties")));
+        return new SchemaIndexEntry(
+                row.getLong("id"),
+                row.getString("schema_name"),
+                row.getString("schema_version"),
+                metadata);
+    }
+
+    private List<SchemaVariant> parseVariants(JsonArray variantsJson) {
+        List<SchemaVariant> result = new ArrayList<>();
+        for (int i = 0; i < variantsJson.size(); i++) {
+            JsonObject obj = variantsJson.getJsonObject(i);
+            SchemaVariant variant = new SchemaVariant();
+            variant.setVariantType(obj.getString("variant_type"));
+            variant.setVariantIndex(obj.getInteger("variant_index"));
+            variant.setRequiredPaths(
+                    new HashSet<>(getRequiredSubPaths(obj.getJsonArray("required_paths"))));
+            variant.setDiscriminatorPath(obj.getString("discriminator_path"));
+            variant.setDiscriminatorValue(obj.getString("discriminator_value"));
+            result.add(variant);
+        }
+        return result;
+    }
+
     private MatchResult<JsonNode> performPatternPropertiesRefinement(
             String[] jsonProperties, RowSet<Row> rows) {
         if (!rows.iterator().hasNext()) {
@@ -402,58 +705,51 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
         }
 
         Set<String> inputProps = Set.of(jsonProperties);
-        Set<ParsedProperty> parsedInput =
-                inputProps.stream().map(this::parseProperty).collect(Collectors.toSet());
+        Map<String, Set<String>> inputByPrefix = SimilarityScorer.groupByPrefix(inputProps);
 
         Stream<SchemaCandidate> candidates =
-                rows.stream().map(r -> toSchemaCandidate(r, parsedInput, inputProps));
+                rows.stream().map(r -> toSchemaCandidate(r, inputByPrefix, inputProps));
 
         return candidates
-                .filter(c -> c.finalScore >= 0.3)
+                .filter(c -> c.finalScore >= SimilarityScorer.MIN_FINAL_SCORE)
                 .max(Comparator.comparingDouble(a -> a.finalScore))
                 .map(this::asMatchResult)
                 .orElse(MatchResult.emptyResult());
     }
 
+    /**
+     * The ranking carries no schema content: the validator fetches the content of the winner only,
+     * unless its compiled schema is already cached.
+     */
     private MatchResult<JsonNode> asMatchResult(SchemaCandidate s) {
-        MatchResult<JsonNode> result =
-                new MatchResult<>(
-                        s.schemaName,
-                        s.schemaVersion,
-                        JsonUtils.fromVertxJson(s.schemaContent),
-                        MatchType.SIMILARITY_MATCH);
-        debug(
-                LOGGER,
-                () ->
-                        "retrieved schema %s-%s : \n %s"
-                                .formatted(s.schemaName, s.schemaVersion, s.schemaContent));
-        return result;
+        debug(LOGGER, () -> "best schema match %s-%s".formatted(s.schemaName, s.schemaVersion));
+        return new MatchResult<>(
+                s.id, s.schemaName, s.schemaVersion, null, MatchType.SIMILARITY_MATCH);
     }
 
     private SchemaCandidate toSchemaCandidate(
-            Row row, Set<ParsedProperty> parsedInput, Set<String> inputProps) {
-        JsonArray patternsJson = row.getJsonArray("pattern_properties");
-        List<PatternPropertyData> patterns = parsePatterns(patternsJson);
-
+            Row row, Map<String, Set<String>> inputByPrefix, Set<String> inputProps) {
         SchemaCandidate candidate =
                 new SchemaCandidate(
                         row.getLong("id"),
                         row.getString("schema_name"),
                         row.getString("schema_version"),
-                        row.getDouble("preliminary_score"),
-                        row.getJsonObject("schema_content"));
-
-        if (!patterns.isEmpty()) {
-            int matchedPatterns = countMatchedPatterns(patterns, parsedInput);
-            int matchedBasePaths = row.getInteger("matched_count");
-            int requiredBasePaths = row.getInteger("required_paths_count");
-            int inputCount = inputProps.size();
-
-            int totalMatched = matchedBasePaths + matchedPatterns;
-            int totalRequired = requiredBasePaths + patterns.size();
+                        row.getDouble("preliminary_score"));
 
+        JsonArray patternsJson = row.getJsonArray("pattern_properties");
+        if (patternsJson != null && !patternsJson.isEmpty()) {
+            CompiledPatternProperties patterns =
+                    patternsCache.getOrCompile(
+                            new ResourceKey(
+                                    candidate.id, candidate.schemaName, candidate.schemaVersion),
+                            () -> parsePatterns(patternsJson));
             candidate.finalScore =
-                    totalMatched / (totalRequired + 0.6 * (inputCount - totalMatched));
+                    SimilarityScorer.refinedScore(
+                            row.getInteger("matched_count"),
+                            row.getInteger("required_paths_count"),
+                            patterns.countMatched(inputByPrefix),
+                            patterns.size(),
+                            inputProps.size());
         } else {
             candidate.finalScore = candidate.preliminaryScore;
         }
@@ -465,25 +761,24 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
         return candidate;
     }
 
-    private List<PatternPropertyData> parsePatterns(JsonArray patternsJson) {
+    private List<PatternProperty> parsePatterns(JsonArray patternsJson) {
         if (patternsJson == null || patternsJson.isEmpty()) {
             return List.of();
         }
 
-        List<PatternPropertyData> result = new ArrayList<>();
+        List<PatternProperty> result = new ArrayList<>();
         for (int i = 0; i < patternsJson.size(); i++) {
             JsonObject obj = patternsJson.getJsonObject(i);
-            result.add(
-                    new PatternPropertyData(
-                            obj.getString("pattern_regex"),
-                            obj.getString("path_prefix"),
-                            getRequiredSubPaths(obj)));
+            PatternProperty pp = new PatternProperty();
+            pp.setPatternRegex(obj.getString("pattern_regex"));
+            pp.setPathPrefix(obj.getString("path_prefix"));
+            pp.setRequiredSubPaths(getRequiredSubPaths(obj.getJsonArray("required_sub_paths")));
+            result.add(pp);
         }
         return result;
     }
 
-    private List<String> getRequiredSubPaths(JsonObject object) {
-        JsonArray array = object.getJsonArray("required_sub_paths");
+    private List<String> getRequiredSubPaths(JsonArray array) {
         if (array == null) {
             return List.of();
         }
@@ -491,50 +786,28 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
         return array.stream().filter(Objects::nonNull).map(Object::toString).toList();
     }
 
-    private int countMatchedPatterns(
-            List<PatternPropertyData> patterns, Set<ParsedProperty> input) {
-        int matched = 0;
-
-        for (PatternPropertyData pattern : patterns) {
-            Pattern regex = Pattern.compile(pattern.patternRegex);
-
-            // Find all properties input that matches the pattern regex from the schema
-            Set<String> matchedPrefixes =
-                    input.stream()
-                            .filter(p -> p.prefix != null && regex.matcher(p.prefix).matches())
-                            .map(p -> p.prefix)
-                            .collect(Collectors.toSet());
-
-            // For each matched prefix verify it has subpaths declared in schema
-            for (String prefix : matchedPrefixes) {
-                Set<String> availableSubpaths =
-                        input.stream()
-                                .filter(p -> prefix.equals(p.prefix) && p.subpath != null)
-                                .map(p -> p.subpath)
-                                .collect(Collectors.toSet());
-
-                if (availableSubpaths.containsAll(pattern.requiredSubPaths)) {
-                    matched++;
-                }
-            }
-        }
-
-        return matched;
-    }
-
-    private ParsedProperty parseProperty(String propertyPath) {
-        int dotIndex = propertyPath.indexOf('.');
-        if (dotIndex > 0) {
-            return new ParsedProperty(
-                    propertyPath.substring(0, dotIndex), propertyPath.substring(dotIndex + 1));
-        }
-        return new ParsedProperty(propertyPath, null);
-    }
-
     @Override
     public Uni<Void> deleteSchema(SqlConnection connection, Long id) {
         debug(LOGGER, () -> "deleting schema with id %s".formatted(id));
-        return connection.preparedQuery(DELETE_SCHEMA).execute(Tuple.of(id)).replaceWithVoid();
+        return connection
+                .preparedQuery(DELETE_SCHEMA)
+                .execute(Tuple.of(id))
+                .flatMap(
+                        rows ->
+                                rows.stream()
+                                        .findFirst()
+                                        .map(
+                                                r ->
+                                                        notifyResourceChange(
+                                                                connection,
+                                                                new ResourceChangeEvent(
+                                                                        ValidationType.PLAIN_JSON,
+                                                                        REMOVED,
+                                                                        id,
+                                                                        r.getString("schema_name"),
+                                                                        r.getString(
+                                                                                "schema_version"))))
+                                        .orElse(Uni.createFrom().voidItem()));
     }
 
     @Override
@@ -547,8 +820,7 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                         rs ->
                                 rs.stream()
                                         .findFirst()
-                                        .map(r -> r.getJsonObject("schema_content"))
-                                        .map(JsonObject::toString)
+                                        .map(r -> r.getString("schema_content"))
                                         .orElseThrow(
                                                 () ->
                                                         new NotFoundException(
@@ -556,31 +828,33 @@ SELECT js.schema_content FROM json_schemas js WHERE js.id=$1
                                                                         .formatted(id))));
     }
 
+    @Override
+    public Uni<Duration> findValidationTimeout(SqlConnection connection, Long id) {
+        debug(LOGGER, () -> "retrieving validation timeout of schema with id %s".formatted(id));
+        return connection
+                .preparedQuery(FIND_VALIDATION_TIMEOUT)
+                .execute(Tuple.of(id))
+                .map(
+                        rs ->
+                                rs.stream()
+                                        .findFirst()
+                                        .map(r -> toDuration(r.getLong("validation_timeout_ms")))
+                                        .orElse(null));
+    }
+
     private static class SchemaCandidate {
         final Long id;
         final String schemaName;
         final String schemaVersion;
         final double preliminaryScore;
-        final JsonObject schemaContent;
         double finalScore;
 
-        SchemaCandidate(
-                Long id,
-                String schemaName,
-                String schemaVersion,
-                double preliminaryScore,
-                JsonObject schemaContent) {
+        SchemaCandidate(Long id, String schemaName, String schemaVersion, double preliminaryScore) {
             this.id = id;
             this.schemaName = schemaName;
             this.schemaVersion = schemaVersion;
             this.preliminaryScore = preliminaryScore;
-            this.schemaContent = schemaContent;
             this.finalScore = preliminaryScore;
         }
     }
-
-    private record PatternPropertyData(
-            String patternRegex, String pathPrefix, List<String> requiredSubPaths) {}
-
-    private record ParsedProperty(String prefix, String subpath) {}
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.datastore.pgsql;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.RESOURCE_CHANGES_CHANNEL;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.fromNotificationPayload;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.pubsub.PgSubscriber;
+import io.vertx.pgclient.PgConnectOptions;
+import it.extared.dpp.validator.DppValidatorConfig;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Listens on the {@link Utils#RESOURCE_CHANGES_CHANNEL} for the resource changes notified by the
+ * repositories of every node and fires them as {@link ResourceChangeEvent}, so that local caches
+ * are kept in sync without polling. The listener reconnects when the connection is lost, firing a
+ * resync event since notifications sent meanwhile are lost.
+ */
+@ApplicationScoped
+public class PgSQLResourceChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(PgSQLResourceChangeListener.class);
+
+    private static final String REACTIVE_URL_PREFIX = "vertx-reactive:";
+
+    @Inject Vertx vertx;
+
+    @Inject DppValidatorConfig config;
+
+    @Inject Event<ResourceChangeEvent> events;
+
+    @ConfigProperty(name = "quarkus.datasource.reactive.url")
+    Optional<String> url;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    Optional<String> username;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    Optional<String> password;
+
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    private PgSubscriber subscriber;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!config.cluster().notificationsEnabled()) return;
+        if (url.isEmpty()) {
+            LOGGER.warn(
+                    "No reactive datasource url configured, resource change notifications are disabled");
+            return;
+        }
+        long delay = config.cluster().reconnectDelay().toMillis();
+        subscriber =
+                PgSubscriber.subscriber(vertx, connectOptions()).reconnectPolicy(retries -> delay);
+        subscriber
+                .channel(RESOURCE_CHANGES_CHANNEL)
+                .subscribeHandler(this::onSubscribe)
+                .handler(this::onNotification);
+        subscriber
+                .connect()
+                .subscribe()
+                .with(
+                        v -> LOGGER.infof("listening on channel %s", RESOURCE_CHANGES_CHANNEL),
+                        e -> LOGGER.error("unable to listen for resource change notifications", e));
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (subscriber != null) subscriber.closeAndForget();
+    }
+
+    private void onSubscribe() {
+        // notifications sent while disconnected are lost
+        if (!subscribed.compareAndSet(false, true)) {
+            LOGGER.warnf(
+                    "resubscribed to channel %s, resyncing local resources",
+                    RESOURCE_CHANGES_CHANNEL);
+            events.fire(ResourceChangeEvent.resync());
+        }
+    }
+
+    private void onNotification(String payload) {
+        debug(LOGGER, () -> "received resource change notification %s".formatted(payload));
+        try {
+            events.fire(fromNotificationPayload(payload));
+        } catch (Exception e) {
+            LOGGER.errorf(e, "unable to handle resource change notification %s", payload);
+        }
+    }
+
+    private PgConnectOptions connectOptions() {
+        // the reactive url might list several hosts
+        String uri = url.get().split(",")[0].trim();
+        if (uri.startsWith(REACTIVE_URL_PREFIX)) uri = uri.substring(REACTIVE_URL_PREFIX.length());
+        PgConnectOptions options = PgConnectOptions.fromUri(uri);
+        username.ifPresent(options::setUser);
+        password.ifPresent(options::setPassword);
+        return options;
+    }
+}
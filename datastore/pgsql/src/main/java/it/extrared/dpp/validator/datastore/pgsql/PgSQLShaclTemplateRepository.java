@@ -15,24 +15,36 @@
  */
 package it.extrared.dpp.validator.datastore.pgsql;
 
+import static it.extared.dpp.validator.events.ResourceChangeEvent.Operation.ADDED;
+import static it.extared.dpp.validator.events.ResourceChangeEvent.Operation.REMOVED;
 import static it.extared.dpp.validator.utils.CommonUtils.debug;
 import static it.extrared.dpp.validator.datastore.pgsql.Utils.asLikeParam;
 import static it.extrared.dpp.validator.datastore.pgsql.Utils.asPagedResult;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.notifyResourceChange;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.toDuration;
+import static it.extrared.dpp.validator.datastore.pgsql.Utils.toMillis;
 
 import io.opentelemetry.api.internal.StringUtils;
 import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.buffer.Buffer;
 import io.vertx.mutiny.sqlclient.Row;
 import io.vertx.mutiny.sqlclient.RowSet;
 import io.vertx.mutiny.sqlclient.SqlConnection;
 import io.vertx.mutiny.sqlclient.Tuple;
+import it.extared.dpp.validator.ValidationType;
 import it.extared.dpp.validator.dto.*;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
 import it.extared.dpp.validator.exceptions.NotFoundException;
 import it.extared.dpp.validator.jsonld.ShaclTemplateRepository;
 import it.extared.dpp.validator.jsonld.dto.InputJsonLdMetadata;
 import it.extared.dpp.validator.jsonld.dto.ShaclShapeMetadata;
+import it.extared.dpp.validator.jsonld.dto.ShaclTemplateContent;
+import it.extared.dpp.validator.jsonld.dto.TemplateIndexEntry;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import org.jboss.logging.Logger;
 
@@ -45,14 +57,27 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
             SELECT sht.shacl_content FROM shacl_templates sht WHERE sht.id=$1
             """;
 
+    private static final String FIND_VALIDATION_TIMEOUT =
+            """
+            SELECT sht.validation_timeout_ms FROM shacl_templates sht WHERE sht.id=$1
+            """;
+
     private static final String FIND_BY_NAME_AND_VERSION =
             """
-            SELECT 'NAME_AND_VERSION' as match_type, sht.template_name, sht.template_version, sht.shacl_content FROM shacl_templates sht WHERE sht.template_name=$1 AND sht.template_version=$2
+            SELECT 'NAME_AND_VERSION' as match_type, sht.id, sht.template_name, sht.template_version, sht.shacl_content FROM shacl_templates sht WHERE sht.template_name=$1 AND sht.template_version=$2
+            """;
+
+    // the turtle source is read only for templates stored without the binary form
+    private static final String FIND_CONTENT_BY_NAME_AND_VERSION =
+            """
+            SELECT 'NAME_AND_VERSION' as match_type, sht.id, sht.template_name, sht.template_version, sht.shacl_binary,
+                CASE WHEN sht.shacl_binary IS NULL THEN sht.shacl_content END AS shacl_content
+            FROM shacl_templates sht WHERE sht.template_name=$1 AND sht.template_version=$2
             """;
 
     private static final String SELECT_SEARCH_TEMPLATES =
             """
-            SELECT sht.id, sht.template_name,sht.description, sht.template_version, sht.context_uri FROM shacl_templates sht
+            SELECT sht.id, sht.template_name,sht.description, sht.template_version, sht.context_uri, sht.validation_timeout_ms FROM shacl_templates sht
             """;
     private static final String SELECT_COUNT_TEMPLATES =
             """
@@ -62,9 +87,9 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
             """
                         SELECT * FROM (
                             SELECT
+                                sht.id,
                                 sht.template_name,
                                 sht.template_version,
-                                sht.shacl_content,
                                 'EXACT_TYPE_MATCH' as match_type,
                                 1.0 as score
                             FROM shacl_shapes shp INNER JOIN shacl_templates sht ON shp.template_id=sht.id
@@ -73,9 +98,9 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
                             UNION ALL
 
                             SELECT
+                                sht.id,
                                 sht.template_name,
                                 sht.template_version,
-                                sht.shacl_content,
                                 'CONTEXT_URI_MATCH' as match_type,
                                 0.9 as score
                             FROM shacl_templates sht
@@ -84,9 +109,9 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
                             UNION ALL
 
                             SELECT
+                                sht.id,
                                 sht.template_name,
                                 sht.template_version,
-                                sht.shacl_content,
                                 'VOCABULARY_MATCH' as match_type,
                                 0.8 as score
                             FROM shacl_shapes shp INNER JOIN shacl_templates sht ON shp.template_id=sht.id
@@ -96,11 +121,31 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
                         LIMIT 1
             """;
 
+    private static final String SELECT_INDEX_ENTRIES =
+            """
+            SELECT
+                sht.id,
+                sht.template_name,
+                sht.template_version,
+                sht.context_uri,
+                COALESCE(
+                    array_agg(DISTINCT shp.target_class) FILTER (WHERE shp.target_class IS NOT NULL),
+                    '{}'
+                ) AS target_classes,
+                COALESCE(
+                    array_agg(DISTINCT shp.vocabulary_uri) FILTER (WHERE shp.vocabulary_uri IS NOT NULL),
+                    '{}'
+                ) AS vocabulary_uris
+            FROM shacl_templates sht LEFT JOIN shacl_shapes shp ON shp.template_id=sht.id
+            """;
+
+    private static final String INDEX_ENTRIES_GROUP_BY = " GROUP BY sht.id";
+
     private static final String INSERT_SHACL_TEMPLATE =
             """
             INSERT INTO shacl_templates
-                            (template_name,description, template_version, shacl_content,context_uri)
-                        VALUES ($1, $2, $3, $4,$5)
+                            (template_name,description, template_version, shacl_content,context_uri, validation_timeout_ms, shacl_binary)
+                        VALUES ($1, $2, $3, $4,$5, $6, $7)
             RETURNING id
             """;
 
@@ -114,17 +159,51 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
 
     private static final String DELETE_TEMPLARE =
             """
-            DELETE FROM shacl_templates where id=$1
+            DELETE FROM shacl_templates where id=$1 RETURNING template_name, template_version
             """;
 
     private static final Function<Row, MatchResult<String>> AS_MATCH_RESULT =
             r ->
                     new MatchResult<>(
+                            r.getLong("id"),
                             r.getString("template_name"),
                             r.getString("template_version"),
                             r.getString("shacl_content"),
                             MatchType.valueOf(r.getString("match_type")));
 
+    private static final Function<Row, MatchResult<ShaclTemplateContent>> AS_CONTENT_MATCH =
+            r -> {
+                Buffer binary = r.getBuffer("shacl_binary");
+                return new MatchResult<>(
+                        r.getLong("id"),
+                        r.getString("template_name"),
+                        r.getString("template_version"),
+                        new ShaclTemplateContent(
+                                binary != null ? binary.getBytes() : null,
+                                r.getString("shacl_content")),
+                        MatchType.valueOf(r.getString("match_type")));
+            };
+
+    // the ranking carries no content, fetched for the winner only unless its shapes are cached
+    private static final Function<Row, MatchResult<String>> AS_RANKED_MATCH =
+            r ->
+                    new MatchResult<>(
+                            r.getLong("id"),
+                            r.getString("template_name"),
+                            r.getString("template_version"),
+                            null,
+                            MatchType.valueOf(r.getString("match_type")));
+
+    private static final Function<Row, TemplateIndexEntry> AS_INDEX_ENTRY =
+            r ->
+                    new TemplateIndexEntry(
+                            r.getLong("id"),
+                            r.getString("template_name"),
+                            r.getString("template_version"),
+                            r.getString("context_uri"),
+                            Set.of(r.getArrayOfStrings("target_classes")),
+                            Set.of(r.getArrayOfStrings("vocabulary_uris")));
+
     private static final Function<Row, ResourceMetadata> AS_RESULT_METADATA =
             r -> {
                 TemplateResourceMetadata metadata = new TemplateResourceMetadata();
@@ -133,6 +212,7 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
                 metadata.setDescription(r.getString("description"));
                 metadata.setVersion(r.getString("template_version"));
                 metadata.setContextUri(r.getString("context_uri"));
+                metadata.setValidationTimeout(toDuration(r.getLong("validation_timeout_ms")));
                 return metadata;
             };
 
@@ -141,7 +221,25 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
     @Override
     public Uni<Void> deleteTemplate(SqlConnection conn, Long id) {
         debug(LOGGER, () -> "retrieving template with id %s".formatted(id));
-        return conn.preparedQuery(DELETE_TEMPLARE).execute(Tuple.of(id)).replaceWithVoid();
+        return conn.preparedQuery(DELETE_TEMPLARE)
+                .execute(Tuple.of(id))
+                .flatMap(
+                        rows ->
+                                rows.stream()
+                                        .findFirst()
+                                        .map(
+                                                r ->
+                                                        notifyResourceChange(
+                                                                conn,
+                                                                new ResourceChangeEvent(
+                                                                        ValidationType.RDF,
+                                                                        REMOVED,
+                                                                        id,
+                                                                        r.getString(
+                                                                                "template_name"),
+                                                                        r.getString(
+                                                                                "template_version"))))
+                                        .orElse(Uni.createFrom().voidItem()));
     }
 
     @Override
@@ -158,7 +256,7 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
                                         jsonLdMetadata.getContextUri(),
                                         jsonLdMetadata.getVocabularyUri()));
         return rows.map(
-                r -> r.stream().findFirst().map(AS_MATCH_RESULT).orElse(MatchResult.emptyResult()));
+                r -> r.stream().findFirst().map(AS_RANKED_MATCH).orElse(MatchResult.emptyResult()));
     }
 
     @Override
@@ -181,12 +279,36 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
                                                                 .formatted(name, version))));
     }
 
+    @Override
+    public Uni<MatchResult<ShaclTemplateContent>> findContentByNameAndVersion(
+            SqlConnection conn, String name, String version) {
+        debug(
+                LOGGER,
+                () ->
+                        "retrieving template content by name %s and version %s"
+                                .formatted(name, version));
+        Uni<RowSet<Row>> rows =
+                conn.preparedQuery(FIND_CONTENT_BY_NAME_AND_VERSION)
+                        .execute(Tuple.of(name, version));
+        return rows.map(
+                r ->
+                        r.stream()
+                                .findFirst()
+                                .map(AS_CONTENT_MATCH)
+                                .orElseThrow(
+                                        () ->
+                                                new NotFoundException(
+                                                        "No template found with name %s and version %s"
+                                                                .formatted(name, version))));
+    }
+
     @Override
     public Uni<Long> addShaclTemplate(
             SqlConnection conn,
             ResourceMetadata resourceMetadata,
             List<ShaclShapeMetadata> metadataList,
-            String template) {
+            String template,
+            byte[] binaryTemplate) {
         debug(
                 LOGGER,
                 () ->
@@ -199,11 +321,13 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
                                                         .toList())));
         Tuple tuple =
                 Tuple.of(
-                        resourceMetadata.getName(),
-                        resourceMetadata.getDescription(),
-                        resourceMetadata.getVersion(),
-                        template,
-                        getContextUriIfPresent(resourceMetadata));
+                                resourceMetadata.getName(),
+                                resourceMetadata.getDescription(),
+                                resourceMetadata.getVersion(),
+                                template,
+                                getContextUriIfPresent(resourceMetadata),
+                                toMillis(resourceMetadata.getValidationTimeout()))
+                        .addValue(binaryTemplate != null ? Buffer.buffer(binaryTemplate) : null);
         Uni<Long> uniId =
                 conn.preparedQuery(INSERT_SHACL_TEMPLATE)
                         .execute(tuple)
@@ -216,7 +340,17 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
                                                         () ->
                                                                 new RuntimeException(
                                                                         "Something bad happened while inserting template")));
-        return uniId.call(id -> insertShapes(conn, id, metadataList));
+        return uniId.call(id -> insertShapes(conn, id, metadataList))
+                .call(
+                        id ->
+                                notifyResourceChange(
+                                        conn,
+                                        new ResourceChangeEvent(
+                                                ValidationType.RDF,
+                                                ADDED,
+                                                id,
+                                                resourceMetadata.getName(),
+                                                resourceMetadata.getVersion())));
     }
 
     private String getContextUriIfPresent(ResourceMetadata metadata) {
@@ -244,6 +378,38 @@ public class PgSQLShaclTemplateRepository implements ShaclTemplateRepository {
                                                                         .formatted(id))));
     }
 
+    @Override
+    public Uni<Duration> findValidationTimeout(SqlConnection connection, Long id) {
+        debug(LOGGER, () -> "getting validation timeout of template with id %s".formatted(id));
+        return connection
+                .preparedQuery(FIND_VALIDATION_TIMEOUT)
+                .execute(Tuple.of(id))
+                .map(
+                        rs ->
+                                rs.stream()
+                                        .findFirst()
+                                        .map(r -> toDuration(r.getLong("validation_timeout_ms")))
+                                        .orElse(null));
+    }
+
+    @Override
+    public Uni<List<TemplateIndexEntry>> findIndexEntries(SqlConnection connection) {
+        debug(LOGGER, () -> "loading the routing metadata of every template");
+        return connection
+                .preparedQuery(SELECT_INDEX_ENTRIES + INDEX_ENTRIES_GROUP_BY)
+                .execute()
+                .map(rows -> rows.stream().map(AS_INDEX_ENTRY).toList());
+    }
+
+    @Override
+    public Uni<TemplateIndexEntry> findIndexEntry(SqlConnection connection, Long id) {
+        debug(LOGGER, () -> "loading the routing metadata of template %s".formatted(id));
+        return connection
+                .preparedQuery(SELECT_INDEX_ENTRIES + " WHERE sht.id=$1" + INDEX_ENTRIES_GROUP_BY)
+                .execute(Tuple.of(id))
+                .map(rows -> rows.stream().findFirst().map(AS_INDEX_ENTRY).orElse(null));
+    }
+
     private Uni<Void> insertShapes(
             SqlConnection conn, Long templateId, List<ShaclShapeMetadata> shapes) {
         List<Tuple> tuples =
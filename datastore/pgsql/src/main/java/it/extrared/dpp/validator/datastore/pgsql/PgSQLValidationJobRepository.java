@@ -0,0 +1,344 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.datastore.pgsql;
+
+import static it.extared.dpp.validator.utils.CommonUtils.debug;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import io.vertx.mutiny.sqlclient.Tuple;
+import it.extared.dpp.validator.dto.BulkValidationItem;
+import it.extared.dpp.validator.dto.PagedResult;
+import it.extared.dpp.validator.dto.ValidationReport;
+import it.extared.dpp.validator.exceptions.NotFoundException;
+import it.extared.dpp.validator.jobs.ValidationJobRepository;
+import it.extared.dpp.validator.jobs.dto.JobStatus;
+import it.extared.dpp.validator.jobs.dto.ValidationJob;
+import it.extared.dpp.validator.utils.JsonUtils;
+import it.extared.dpp.validator.utils.NdjsonReader;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import org.jboss.logging.Logger;
+
+/** PgSQL implementation of a {@link ValidationJobRepository} */
+@ApplicationScoped
+public class PgSQLValidationJobRepository implements ValidationJobRepository {
+
+    private static final String JOB_COLUMNS =
+            """
+            vj.id, vj.status, vj.total_items, vj.processed_items, vj.invalid_items, vj.error,
+            vj.not_before, vj.created_at, vj.started_at, vj.completed_at
+            """;
+
+    private static final String INSERT_JOB =
+            """
+            INSERT INTO validation_jobs (status, not_before, heartbeat_at)
+                        VALUES ('RECEIVING', COALESCE($1, NOW()), NOW())
+            RETURNING id
+            """;
+
+    private static final String INSERT_ITEMS =
+            """
+            INSERT INTO validation_job_results (job_id, line, content) VALUES ($1, $2, $3)
+            """;
+
+    private static final String TOUCH_RECEIVING =
+            """
+            UPDATE validation_jobs SET heartbeat_at=NOW() WHERE id=$1 AND status='RECEIVING'
+            """;
+
+    // a job expired while receiving stays failed
+    private static final String MARK_PENDING =
+            """
+            UPDATE validation_jobs SET status='PENDING', total_items=$2
+            WHERE id=$1 AND status='RECEIVING'
+            """;
+
+    private static final String EXPIRE_RECEIVING =
+            """
+            WITH expired AS (
+                UPDATE validation_jobs
+                SET status='FAILED', error='The items were not received in full', completed_at=NOW()
+                WHERE status='RECEIVING'
+                  AND COALESCE(heartbeat_at, created_at) < NOW() - $1 * INTERVAL '1 millisecond'
+                RETURNING id),
+            deleted AS (
+                DELETE FROM validation_job_results WHERE job_id IN (SELECT id FROM expired))
+            SELECT COUNT(*) AS count FROM expired
+            """;
+
+    // the row locks skip the jobs being claimed by the other workers instead of waiting for them
+    private static final String CLAIM_JOB =
+                    """
+            UPDATE validation_jobs vj
+            SET status='RUNNING', started_at=COALESCE(vj.started_at, NOW()), heartbeat_at=NOW()
+            WHERE vj.id = (
+                SELECT id FROM validation_jobs
+                WHERE (status='PENDING' AND not_before <= NOW())
+                   OR (status='RUNNING' AND heartbeat_at < NOW() - $1 * INTERVAL '1 millisecond')
+                ORDER BY not_before, id
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED)
+            RETURNING
+            """
+                    + JOB_COLUMNS;
+
+    private static final String HEARTBEAT =
+            """
+            UPDATE validation_jobs SET heartbeat_at=NOW() WHERE id = ANY($1) AND status='RUNNING'
+            """;
+
+    private static final String FIND_PENDING_ITEMS =
+            """
+            SELECT vjr.line, vjr.content FROM validation_job_results vjr
+            WHERE vjr.job_id=$1 AND vjr.report IS NULL
+            ORDER BY vjr.line
+            LIMIT $2
+            """;
+
+    // only the items without a result are counted, should a stale worker store them twice
+    private static final String INSERT_RESULTS =
+            """
+            WITH saved AS (
+                UPDATE validation_job_results vjr
+                SET valid=r.valid, report=r.report::jsonb, content=NULL
+                FROM UNNEST($2::BIGINT[], $3::BOOLEAN[], $4::TEXT[]) AS r(line, valid, report)
+                WHERE vjr.job_id=$1 AND vjr.line=r.line AND vjr.report IS NULL
+                RETURNING vjr.valid)
+            UPDATE validation_jobs
+            SET processed_items = processed_items + (SELECT COUNT(*) FROM saved),
+                invalid_items = invalid_items + (SELECT COUNT(*) FROM saved WHERE NOT saved.valid),
+                heartbeat_at = NOW()
+            WHERE id=$1
+            """;
+
+    private static final String MARK_COMPLETED =
+            """
+            UPDATE validation_jobs SET status='COMPLETED', completed_at=NOW() WHERE id=$1
+            """;
+
+    private static final String MARK_FAILED =
+            """
+            UPDATE validation_jobs SET status='FAILED', error=$2, completed_at=NOW() WHERE id=$1
+            """;
+
+    private static final String FIND_BY_ID =
+            "SELECT " + JOB_COLUMNS + " FROM validation_jobs vj WHERE vj.id=$1";
+
+    private static final String COUNT_RESULTS =
+            """
+            SELECT COUNT(*) AS count FROM validation_job_results vjr
+            WHERE vjr.job_id=$1 AND vjr.report IS NOT NULL
+            """;
+
+    private static final String FIND_RESULTS =
+            """
+            SELECT vjr.line, vjr.report::text AS report FROM validation_job_results vjr
+            WHERE vjr.job_id=$1 AND vjr.report IS NOT NULL
+            ORDER BY vjr.line
+            LIMIT $2 OFFSET $3
+            """;
+
+    private static final Function<Row, ValidationJob> AS_JOB =
+            r -> {
+                ValidationJob job = new ValidationJob();
+                job.setId(r.getLong("id"));
+                job.setStatus(JobStatus.valueOf(r.getString("status")));
+                job.setTotalItems(r.getLong("total_items"));
+                job.setProcessedItems(r.getLong("processed_items"));
+                job.setInvalidItems(r.getLong("invalid_items"));
+                job.setError(r.getString("error"));
+                job.setNotBefore(r.getOffsetDateTime("not_before"));
+                job.setCreatedAt(r.getOffsetDateTime("created_at"));
+                job.setStartedAt(r.getOffsetDateTime("started_at"));
+                job.setCompletedAt(r.getOffsetDateTime("completed_at"));
+                return job;
+            };
+
+    private static final Function<Row, NdjsonReader.Line> AS_ITEM =
+            r -> {
+                io.vertx.mutiny.core.buffer.Buffer content = r.getBuffer("content");
+                return new NdjsonReader.Line(
+                        r.getLong("line"), content == null ? null : content.getBytes());
+            };
+
+    private static final Function<Row, BulkValidationItem> AS_RESULT =
+            r -> {
+                try {
+                    return new BulkValidationItem(
+                            r.getLong("line"),
+                            JsonUtils.objectMapper()
+                                    .readValue(r.getString("report"), ValidationReport.class));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Unable to parse the stored report", e);
+                }
+            };
+
+    private static final Logger LOGGER = Logger.getLogger(PgSQLValidationJobRepository.class);
+
+    @Override
+    public Uni<Long> createJob(SqlConnection conn, OffsetDateTime notBefore) {
+        debug(LOGGER, () -> "creating validation job not before %s".formatted(notBefore));
+        return conn.preparedQuery(INSERT_JOB)
+                .execute(Tuple.of(notBefore))
+                .map(rows -> rows.iterator().next().getLong("id"));
+    }
+
+    @Override
+    public Uni<Void> addItems(SqlConnection conn, Long jobId, List<NdjsonReader.Line> items) {
+        debug(LOGGER, () -> "adding %s items to validation job %s".formatted(items.size(), jobId));
+        // too large items are stored without content, to be reported as such by the worker
+        List<Tuple> tuples =
+                items.stream()
+                        .map(
+                                i ->
+                                        Tuple.of(
+                                                jobId,
+                                                i.number(),
+                                                i.isTooLarge() ? null : Buffer.buffer(i.content())))
+                        .toList();
+        return conn.preparedQuery(INSERT_ITEMS)
+                .executeBatch(tuples)
+                .flatMap(r -> conn.preparedQuery(TOUCH_RECEIVING).execute(Tuple.of(jobId)))
+                .replaceWithVoid();
+    }
+
+    @Override
+    public Uni<Integer> expireReceiving(SqlConnection conn, Duration receiveTimeout) {
+        return conn.preparedQuery(EXPIRE_RECEIVING)
+                .execute(Tuple.of(receiveTimeout.toMillis()))
+                .map(rows -> rows.iterator().next().getInteger("count"));
+    }
+
+    @Override
+    public Uni<Void> markPending(SqlConnection conn, Long jobId, long totalItems) {
+        debug(LOGGER, () -> "validation job %s received %s items".formatted(jobId, totalItems));
+        return conn.preparedQuery(MARK_PENDING)
+                .execute(Tuple.of(jobId, totalItems))
+                .replaceWithVoid();
+    }
+
+    @Override
+    public Uni<ValidationJob> claimJob(SqlConnection conn, Duration staleAfter) {
+        return conn.preparedQuery(CLAIM_JOB)
+                .execute(Tuple.of(staleAfter.toMillis()))
+                .map(rows -> rows.stream().findFirst().map(AS_JOB).orElse(null));
+    }
+
+    @Override
+    public Uni<Void> heartbeat(SqlConnection conn, Collection<Long> jobIds) {
+        debug(LOGGER, () -> "refreshing the heartbeat of validation jobs %s".formatted(jobIds));
+        return conn.preparedQuery(HEARTBEAT)
+                .execute(Tuple.of(jobIds.toArray(Long[]::new)))
+                .replaceWithVoid();
+    }
+
+    @Override
+    public Uni<List<NdjsonReader.Line>> findPendingItems(
+            SqlConnection conn, Long jobId, int limit) {
+        debug(LOGGER, () -> "retrieving pending items of validation job %s".formatted(jobId));
+        return conn.preparedQuery(FIND_PENDING_ITEMS)
+                .execute(Tuple.of(jobId, limit))
+                .map(rows -> rows.stream().map(AS_ITEM).toList());
+    }
+
+    @Override
+    public Uni<Void> addResults(SqlConnection conn, Long jobId, List<BulkValidationItem> results) {
+        debug(
+                LOGGER,
+                () -> "adding %s results to validation job %s".formatted(results.size(), jobId));
+        Long[] lines = new Long[results.size()];
+        Boolean[] valid = new Boolean[results.size()];
+        String[] reports = new String[results.size()];
+        for (int i = 0; i < results.size(); i++) {
+            BulkValidationItem result = results.get(i);
+            lines[i] = result.getLine();
+            valid[i] = result.getReport().isValid();
+            reports[i] = asReportParam(result.getReport());
+        }
+        return conn.preparedQuery(INSERT_RESULTS)
+                .execute(Tuple.of(jobId, lines, valid, reports))
+                .replaceWithVoid();
+    }
+
+    @Override
+    public Uni<Void> markCompleted(SqlConnection conn, Long jobId) {
+        return conn.preparedQuery(MARK_COMPLETED).execute(Tuple.of(jobId)).replaceWithVoid();
+    }
+
+    @Override
+    public Uni<Void> markFailed(SqlConnection conn, Long jobId, String error) {
+        return conn.preparedQuery(MARK_FAILED).execute(Tuple.of(jobId, error)).replaceWithVoid();
+    }
+
+    @Override
+    public Uni<ValidationJob> findById(SqlConnection conn, Long jobId) {
+        debug(LOGGER, () -> "retrieving validation job %s".formatted(jobId));
+        return conn.preparedQuery(FIND_BY_ID)
+                .execute(Tuple.of(jobId))
+                .map(
+                        rows ->
+                                rows.stream()
+                                        .findFirst()
+                                        .map(AS_JOB)
+                                        .orElseThrow(
+                                                () ->
+                                                        new NotFoundException(
+                                                                "No validation job found with id %s"
+                                                                        .formatted(jobId))));
+    }
+
+    @Override
+    public Uni<PagedResult<BulkValidationItem>> findResults(
+            SqlConnection conn, Long jobId, int offset, int limit) {
+        debug(
+                LOGGER,
+                () -> "retrieving results of validation job %s from %s".formatted(jobId, offset));
+        Uni<Long> count =
+                conn.preparedQuery(COUNT_RESULTS)
+                        .execute(Tuple.of(jobId))
+                        .map(rows -> rows.iterator().next().getLong("count"));
+        return count.flatMap(
+                c ->
+                        conn.preparedQuery(FIND_RESULTS)
+                                .execute(Tuple.of(jobId, limit, offset))
+                                .map(
+                                        rows -> {
+                                            PagedResult.Builder<BulkValidationItem> builder =
+                                                    PagedResult.builder();
+                                            return builder.withElements(
+                                                            rows.stream().map(AS_RESULT).toList())
+                                                    .withTotalElements(c)
+                                                    .withPageSize(limit)
+                                                    .build();
+                                        }));
+    }
+
+    private static String asReportParam(ValidationReport report) {
+        try {
+            return JsonUtils.objectMapper().writeValueAsString(report);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize the report", e);
+        }
+    }
+}
@@ -15,15 +15,31 @@
  */
 package it.extrared.dpp.validator.datastore.pgsql;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.sqlclient.Row;
 import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import io.vertx.mutiny.sqlclient.Tuple;
+import it.extared.dpp.validator.ValidationType;
 import it.extared.dpp.validator.dto.PagedResult;
 import it.extared.dpp.validator.dto.ResourceMetadata;
+import it.extared.dpp.validator.events.ResourceChangeEvent;
+import it.extared.dpp.validator.utils.JsonUtils;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 
 public class Utils {
 
+    /** The channel where resource changes are notified to the other nodes. */
+    public static final String RESOURCE_CHANGES_CHANNEL = "dpp_validator_resources";
+
+    private static final String NOTIFY = "SELECT pg_notify($1, $2)";
+
     public static String asLikeParam(String param) {
         return "%" + param.toUpperCase() + "%";
     }
@@ -46,4 +62,109 @@ public class Utils {
         PagedResult.Builder<ResourceMetadata> builder = PagedResult.builder();
         return builder.withElements(metas).withTotalElements(count).withPageSize(pageSize).build();
     }
+
+    /**
+     * Parses a JSONB column selected as text straight into a Jackson tree, without the intermediate
+     * Vert.x JsonObject and Map the client would build decoding the JSONB itself.
+     *
+     * @param text the column value, cast to text in the query, can be null.
+     * @return the JSON tree.
+     */
+    public static JsonNode parseJsonb(String text) {
+        if (text == null) return null;
+        try {
+            return JsonUtils.objectMapper().readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to parse the stored JSON content", e);
+        }
+    }
+
+    /**
+     * @param node a JSON tree.
+     * @return the tree serialized once by Jackson, to be bound to a {@code $n::text::jsonb}
+     *     parameter.
+     */
+    public static String asJsonbParam(JsonNode node) {
+        try {
+            return JsonUtils.objectMapper().writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize the JSON content", e);
+        }
+    }
+
+    /**
+     * @param duration a duration, can be null.
+     * @return the duration in milliseconds, as stored in the BIGINT timeout columns.
+     */
+    public static Long toMillis(Duration duration) {
+        return duration == null ? null : duration.toMillis();
+    }
+
+    /**
+     * @param millis a BIGINT timeout column value, can be null.
+     * @return the value as a duration.
+     */
+    public static Duration toDuration(Long millis) {
+        return millis == null ? null : Duration.ofMillis(millis);
+    }
+
+    /**
+     * @param array an int array, can be null.
+     * @return the array boxed, as expected by the SQL client for INT[] parameters.
+     */
+    public static Integer[] toIntegerArray(int[] array) {
+        if (array == null) return null;
+        return Arrays.stream(array).boxed().toArray(Integer[]::new);
+    }
+
+    /**
+     * @param array an INT[] column value, can be null.
+     * @return the array unboxed.
+     */
+    public static int[] toIntArray(Integer[] array) {
+        if (array == null) return null;
+        return Arrays.stream(array).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Notifies a resource change on the {@link #RESOURCE_CHANGES_CHANNEL}. When executed inside a
+     * transaction the notification is delivered to the listeners only on commit.
+     *
+     * @param conn the connection.
+     * @param event the change to notify.
+     * @return a Uni completing when the notification has been queued.
+     */
+    public static Uni<Void> notifyResourceChange(SqlConnection conn, ResourceChangeEvent event) {
+        return conn.preparedQuery(NOTIFY)
+                .execute(Tuple.of(RESOURCE_CHANGES_CHANNEL, toNotificationPayload(event)))
+                .replaceWithVoid();
+    }
+
+    /**
+     * @param event a resource change event.
+     * @return the json payload of the notification.
+     */
+    public static String toNotificationPayload(ResourceChangeEvent event) {
+        return new JsonObject()
+                .put("type", event.resourceType().name())
+                .put("operation", event.operation().name())
+                .put("id", event.id())
+                .put("name", event.name())
+                .put("version", event.version())
+                .encode();
+    }
+
+    /**
+     * @param payload the json payload of a notification.
+     * @return the resource change event.
+     */
+    public static ResourceChangeEvent fromNotificationPayload(String payload) {
+        JsonObject json = new JsonObject(payload);
+        return new ResourceChangeEvent(
+                ValidationType.valueOf(json.getString("type")),
+                ResourceChangeEvent.Operation.valueOf(json.getString("operation")),
+                json.getLong("id"),
+                json.getString("name"),
+                json.getString("version"));
+    }
 }
@@ -0,0 +1,45 @@
+-- Upgrades a v1.0.0 schema, runs after schema/v1_0_0/schema.sql and can be applied more than once
+
+ALTER TABLE json_schemas
+    ADD COLUMN IF NOT EXISTS minhash_signature     INT[],
+    ADD COLUMN IF NOT EXISTS lsh_bands             INT[],
+    ADD COLUMN IF NOT EXISTS lsh_rows              INT,
+    ADD COLUMN IF NOT EXISTS validation_timeout_ms BIGINT;
+
+ALTER TABLE schema_variants
+    ADD COLUMN IF NOT EXISTS minhash_signature INT[];
+
+CREATE INDEX IF NOT EXISTS idx_lsh_bands_gin ON json_schemas USING GIN (lsh_bands);
+
+ALTER TABLE shacl_templates
+    ADD COLUMN IF NOT EXISTS validation_timeout_ms BIGINT,
+    ADD COLUMN IF NOT EXISTS shacl_binary          BYTEA;
+
+CREATE TABLE IF NOT EXISTS validation_jobs
+(
+    id              BIGSERIAL PRIMARY KEY,
+    status          VARCHAR(20) NOT NULL,
+    total_items     BIGINT,
+    processed_items BIGINT      NOT NULL DEFAULT 0,
+    invalid_items   BIGINT      NOT NULL DEFAULT 0,
+    error           TEXT,
+    not_before      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    started_at      TIMESTAMPTZ,
+    heartbeat_at    TIMESTAMPTZ,
+    completed_at    TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_jobs_status ON validation_jobs (status, not_before);
+
+CREATE TABLE IF NOT EXISTS validation_job_results
+(
+    job_id  BIGINT NOT NULL REFERENCES validation_jobs (id) ON DELETE CASCADE,
+    line    BIGINT NOT NULL,
+    content BYTEA,
+    valid   BOOLEAN,
+    report  JSONB,
+    PRIMARY KEY (job_id, line)
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_results_pending ON validation_job_results (job_id, line) WHERE report IS NULL;
@@ -27,9 +27,11 @@ import io.vertx.mutiny.sqlclient.Pool;
 import it.extared.dpp.validator.dto.*;
 import it.extared.dpp.validator.jsonld.JsonLdMetadataExtractor;
 import it.extared.dpp.validator.jsonld.ShaclMetadataExtractor;
+import it.extared.dpp.validator.jsonld.ShaclShapesCache;
 import it.extared.dpp.validator.jsonld.ShaclTemplateRepository;
 import it.extared.dpp.validator.jsonld.dto.InputJsonLdMetadata;
 import it.extared.dpp.validator.jsonld.dto.ShaclShapeMetadata;
+import it.extared.dpp.validator.jsonld.dto.ShaclTemplateContent;
 import it.extared.dpp.validator.utils.CommonUtils;
 import jakarta.inject.Inject;
 import java.util.List;
@@ -100,6 +102,7 @@ public class PgSQLShaclTemplateRepositoryTest {
     public void testAddGetDeleteShaclTemplate(UniAsserter asserter) {
         String shacl = CommonUtils.readShaclString("test-addition.ttl");
         List<ShaclShapeMetadata> shapes = shaclMetadataExtractor.extractAllShapes(shacl);
+        byte[] binary = ShaclShapesCache.toBinary(ShaclShapesCache.parse(shacl));
         TemplateResourceMetadata resourceMetadata =
                 new TemplateResourceMetadata(
                         "Test addition", "A shacl to test add functionality", "1.0.0", null);
@@ -107,9 +110,27 @@ public class PgSQLShaclTemplateRepositoryTest {
                 pool.withTransaction(
                         c ->
                                 templateRepository.addShaclTemplate(
-                                        c, resourceMetadata, shapes, shacl));
+                                        c, resourceMetadata, shapes, shacl, binary));
         Uni<Void> result =
-                idUni.invoke(Assertions::assertNotNull).call(this::getAndDelete).replaceWithVoid();
+                idUni.invoke(Assertions::assertNotNull)
+                        .call(
+                                () ->
+                                        pool.withConnection(
+                                                        c ->
+                                                                templateRepository
+                                                                        .findContentByNameAndVersion(
+                                                                                c,
+                                                                                "Test addition",
+                                                                                "1.0.0"))
+                                                .invoke(
+                                                        m -> {
+                                                            assertArrayEquals(
+                                                                    binary,
+                                                                    m.getResource().binary());
+                                                            assertNull(m.getResource().turtle());
+                                                        }))
+                        .call(this::getAndDelete)
+                        .replaceWithVoid();
         asserter.assertNull(() -> result);
     }
 
@@ -130,6 +151,23 @@ public class PgSQLShaclTemplateRepositoryTest {
                 });
     }
 
+    @Test
+    @RunOnVertxContext
+    @TestReactiveTransaction
+    public void testGetContentWithoutBinary(UniAsserter asserter) {
+        Uni<MatchResult<ShaclTemplateContent>> matchResultUni =
+                pool.withConnection(
+                        c ->
+                                templateRepository.findContentByNameAndVersion(
+                                        c, "Vehicle-DPP-AllTargets", "1.0.0"));
+        asserter.assertThat(
+                () -> matchResultUni,
+                mr -> {
+                    assertFalse(mr.getResource().isBinary());
+                    assertNotNull(mr.getResource().turtle());
+                });
+    }
+
     private Uni<Void> getAndDelete(Long id) {
         return pool.withConnection(c -> templateRepository.findById(c, id))
                 .invoke(st -> assertFalse(StringUtil.isNullOrEmpty(st)))
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024-2027 CIRPASS-2
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package it.extrared.dpp.validator.datastore.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.vertx.RunOnVertxContext;
+import io.quarkus.test.vertx.UniAsserter;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import it.extared.dpp.validator.dto.BulkValidationItem;
+import it.extared.dpp.validator.dto.PagedResult;
+import it.extared.dpp.validator.dto.ValidationReport;
+import it.extared.dpp.validator.jobs.ValidationJobRepository;
+import it.extared.dpp.validator.jobs.dto.JobStatus;
+import it.extared.dpp.validator.jobs.dto.ValidationJob;
+import it.extared.dpp.validator.utils.NdjsonReader;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class PgSQLValidationJobRepositoryTest {
+
+    @Inject Pool pool;
+
+    @Inject ValidationJobRepository jobRepository;
+
+    @Test
+    @RunOnVertxContext
+    public void testJobLifecycle(UniAsserter asserter) {
+        List<NdjsonReader.Line> items =
+                List.of(
+                        new NdjsonReader.Line(1, "{\"a\":1}".getBytes()),
+                        new NdjsonReader.Line(3, null));
+        Uni<ValidationJob> jobUni =
+                pool.withTransaction(
+                        c ->
+                                jobRepository
+                                        .createJob(c, null)
+                                        .call(id -> jobRepository.addItems(c, id, items))
+                                        .call(id -> jobRepository.markPending(c, id, 2))
+                                        .flatMap(
+                                                id ->
+                                                        jobRepository.claimJob(
+                                                                c, Duration.ofMinutes(5)))
+                                        .call(j -> jobRepository.heartbeat(c, List.of(j.getId()))));
+        asserter.assertThat(
+                () -> jobUni,
+                j -> {
+                    assertEquals(JobStatus.RUNNING, j.getStatus());
+                    assertEquals(2L, j.getTotalItems());
+                    assertNotNull(j.getStartedAt());
+                });
+    }
+
+    @Test
+    @RunOnVertxContext
+    public void testExpireReceiving(UniAsserter asserter) {
+        Uni<Long> jobIdUni =
+                pool.withTransaction(
+                        c ->
+                                jobRepository
+                                        .createJob(c, null)
+                                        .call(
+                                                id ->
+                                                        jobRepository.addItems(
+                                                                c,
+                                                                id,
+                                                                List.of(
+                                                                        new NdjsonReader.Line(
+                                                                                1,
+                                                                                "{}"
+                                                                                        .getBytes())))));
+        Uni<ValidationJob> jobUni =
+                jobIdUni.call(
+                                id ->
+                                        pool.withTransaction(
+                                                c ->
+                                                        jobRepository.expireReceiving(
+                                                                c, Duration.ZERO)))
+                        .flatMap(id -> pool.withConnection(c -> jobRepository.findById(c, id)));
+        asserter.assertThat(
+                () -> jobUni,
+                j -> {
+                    assertEquals(JobStatus.FAILED, j.getStatus());
+                    assertNotNull(j.getError());
+                });
+        Uni<List<NdjsonReader.Line>> pendingUni =
+                jobUni.flatMap(
+                        j ->
+                                pool.withConnection(
+                                        c -> jobRepository.findPendingItems(c, j.getId(), 10)));
+        asserter.assertThat(() -> pendingUni, p -> assertTrue(p.isEmpty()));
+    }
+
+    @Test
+    @RunOnVertxContext
+    public void testResults(UniAsserter asserter) {
+        List<BulkValidationItem> results =
+                List.of(
+                        new BulkValidationItem(
+                                1, ValidationReport.builder().withValid(true).build()),
+                        BulkValidationItem.failed(2, new IllegalStateException("broken")));
+        Uni<Long> jobIdUni =
+                pool.withTransaction(
+                        c ->
+                                jobRepository
+                                        .createJob(c, null)
+                                        .call(
+                                                id ->
+                                                        jobRepository.addItems(
+                                                                c,
+                                                                id,
+                                                                List.of(
+                                                                        new NdjsonReader.Line(
+                                                                                1, "{}".getBytes()),
+                                                                        new NdjsonReader.Line(
+                                                                                2,
+                                                                                "{".getBytes()))))
+                                        .call(id -> jobRepository.addResults(c, id, results))
+                                        // stored twice, as a stale worker would
+                                        .call(id -> jobRepository.addResults(c, id, results)));
+        Uni<ValidationJob> jobUni =
+                jobIdUni.flatMap(id -> pool.withConnection(c -> jobRepository.findById(c, id)));
+        asserter.assertThat(
+                () -> jobUni,
+                j -> {
+                    assertEquals(2, j.getProcessedItems());
+                    assertEquals(1, j.getInvalidItems());
+                });
+        Uni<PagedResult<BulkValidationItem>> resultsUni =
+                jobUni.flatMap(
+                        j ->
+                                pool.withConnection(
+                                        c -> jobRepository.findResults(c, j.getId(), 0, 10)));
+        asserter.assertThat(
+                () -> resultsUni,
+                r -> {
+                    assertEquals(2L, r.getTotalElements());
+                    assertTrue(r.getElements().get(0).getReport().isValid());
+                    assertEquals("broken", r.getElements().get(1).getReport().getMessage());
+                });
+        Uni<List<NdjsonReader.Line>> pendingUni =
+                jobUni.flatMap(
+                        j ->
+                                pool.withConnection(
+                                        c -> jobRepository.findPendingItems(c, j.getId(), 10)));
+        asserter.assertThat(() -> pendingUni, p -> assertTrue(p.isEmpty()));
+    }
+}
@@ -14,6 +14,10 @@ CREATE TABLE json_schemas
     required_paths_count INT          NOT NULL,
     has_variants         BOOLEAN   DEFAULT FALSE,
     schema_content       JSONB        NOT NULL,
+    minhash_signature    INT[],
+    lsh_bands            INT[],
+    lsh_rows             INT,
+    validation_timeout_ms BIGINT,
     created_at           TIMESTAMP DEFAULT NOW(),
     UNIQUE (schema_name, schema_version)
 );
@@ -28,6 +32,7 @@ CREATE TABLE schema_variants
     required_paths_count INT         NOT NULL,
     discriminator_path   VARCHAR(255),
     discriminator_value  VARCHAR(255),
+    minhash_signature    INT[],
     UNIQUE (schema_metadata_id, variant_type, variant_index)
 );
 
@@ -46,6 +51,7 @@ CREATE INDEX idx_variants_discriminator ON schema_variants (discriminator_path,
 CREATE INDEX idx_pattern_schema ON schema_pattern_properties (schema_metadata_id);
 CREATE INDEX idx_required_paths_gin ON json_schemas USING GIN(required_paths);
 CREATE INDEX idx_variant_paths_gin ON schema_variants USING GIN(required_paths);
+CREATE INDEX idx_lsh_bands_gin ON json_schemas USING GIN (lsh_bands);
 
 CREATE TABLE shacl_templates
 (
@@ -56,6 +62,8 @@ CREATE TABLE shacl_templates
     context_uri      VARCHAR(500),
     uploaded_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     shacl_content    TEXT         NOT NULL,
+    validation_timeout_ms BIGINT,
+    shacl_binary     BYTEA,
     UNIQUE (template_name, template_version)
 );
 
@@ -1888,4 +1896,33 @@ VALUES
      'http://example.org/electronics-dpp#ProfessionalEndOfLifeShape',
      NULL,
      'http://example.org/electronics-dpp#',
-     'http://example.org/electronics-dpp');
\ No newline at end of file
+     'http://example.org/electronics-dpp');
+
+CREATE TABLE validation_jobs
+(
+    id              BIGSERIAL PRIMARY KEY,
+    status          VARCHAR(20) NOT NULL,
+    total_items     BIGINT,
+    processed_items BIGINT      NOT NULL DEFAULT 0,
+    invalid_items   BIGINT      NOT NULL DEFAULT 0,
+    error           TEXT,
+    not_before      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    started_at      TIMESTAMPTZ,
+    heartbeat_at    TIMESTAMPTZ,
+    completed_at    TIMESTAMPTZ
+);
+
+CREATE INDEX idx_jobs_status ON validation_jobs (status, not_before);
+
+CREATE TABLE validation_job_results
+(
+    job_id  BIGINT NOT NULL REFERENCES validation_jobs (id) ON DELETE CASCADE,
+    line    BIGINT NOT NULL,
+    content BYTEA,
+    valid   BOOLEAN,
+    report  JSONB,
+    PRIMARY KEY (job_id, line)
+);
+
+CREATE INDEX idx_job_results_pending ON validation_job_results (job_id, line) WHERE report IS NULL;